@@ -108,6 +108,12 @@ export const AuthProvider = ({ children }) => {
   }, [user?.id]);
 
   const logout = useCallback(async () => {
+    try {
+      // Revoke the token server-side so it cannot be replayed after logout.
+      await api.post(endpoints.auth.logout);
+    } catch {
+      // Logging out locally must still succeed when the API is unreachable.
+    }
     setUser(null);
     setIsAuthenticated(false);
     writeStoredToken(null);
@@ -7,12 +7,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.party.ceva.demo.model.News;
 import com.party.ceva.demo.repository.NewsRepository;
 
 @EnableCaching
+@EnableScheduling
 @SpringBootApplication
 public class DemoApplication {
 
@@ -0,0 +1,162 @@
+package com.party.ceva.demo.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Redis value serializer writing registered types in a compact, schema-versioned binary layout.
+ * <p>
+ * Layout: magic byte, flags, type id, schema version, then the payload, deflated when it exceeds
+ * the compression threshold. Types without a codec are stored as JDK serialization under type id 0,
+ * and values written by the previous JDK-only serializer are still read, so switching needs no flush.
+ */
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+	private static final byte MAGIC = (byte) 0xB1;
+	private static final byte FLAG_DEFLATED = 0x01;
+	private static final int JDK_TYPE_ID = 0;
+	private static final int HEADER_LENGTH = 4;
+	// Every Java serialization stream starts with 0xACED
+	private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+	private final List<CacheTypeCodec<?>> codecs;
+	private final CacheTypeCodec<?>[] codecsById;
+	private final JdkSerializationRedisSerializer jdkSerializer;
+	private final int compressionThresholdBytes;
+
+	public BinaryCacheSerializer(ClassLoader classLoader, int compressionThresholdBytes) {
+		this(CacheTypeCodecs.defaults(), classLoader, compressionThresholdBytes);
+	}
+
+	BinaryCacheSerializer(List<CacheTypeCodec<?>> codecs, ClassLoader classLoader, int compressionThresholdBytes) {
+		this.codecs = List.copyOf(codecs);
+		this.codecsById = new CacheTypeCodec<?>[codecs.stream().mapToInt(CacheTypeCodec::typeId).max().orElse(0) + 1];
+		for (CacheTypeCodec<?> codec : codecs) {
+			if (codec.typeId() <= JDK_TYPE_ID || codecsById[codec.typeId()] != null) {
+				throw new IllegalArgumentException("Invalid or duplicate cache codec type id " + codec.typeId());
+			}
+			codecsById[codec.typeId()] = codec;
+		}
+		this.jdkSerializer = new JdkSerializationRedisSerializer(classLoader);
+		this.compressionThresholdBytes = compressionThresholdBytes;
+	}
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException {
+		if (value == null) {
+			return new byte[0];
+		}
+		CacheTypeCodec<Object> codec = codecFor(value);
+		byte[] payload = codec == null ? jdkSerializer.serialize(value) : encode(codec, value);
+		boolean deflate = compressionThresholdBytes > 0 && payload.length >= compressionThresholdBytes;
+		if (deflate) {
+			payload = deflate(payload);
+		}
+
+		byte[] result = new byte[HEADER_LENGTH + payload.length];
+		result[0] = MAGIC;
+		result[1] = deflate ? FLAG_DEFLATED : 0;
+		result[2] = (byte) (codec == null ? JDK_TYPE_ID : codec.typeId());
+		result[3] = (byte) (codec == null ? 0 : codec.schemaVersion());
+		System.arraycopy(payload, 0, result, HEADER_LENGTH, payload.length);
+		return result;
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		if (bytes[0] == JDK_STREAM_MAGIC) {
+			return jdkSerializer.deserialize(bytes);
+		}
+		if (bytes[0] != MAGIC || bytes.length < HEADER_LENGTH) {
+			throw new SerializationException("Unrecognized cache value format");
+		}
+
+		byte[] payload = new byte[bytes.length - HEADER_LENGTH];
+		System.arraycopy(bytes, HEADER_LENGTH, payload, 0, payload.length);
+		if ((bytes[1] & FLAG_DEFLATED) != 0) {
+			payload = inflate(payload);
+		}
+		int typeId = bytes[2] & 0xFF;
+		if (typeId == JDK_TYPE_ID) {
+			return jdkSerializer.deserialize(payload);
+		}
+		if (typeId >= codecsById.length || codecsById[typeId] == null) {
+			throw new SerializationException("No cache codec registered for type id " + typeId);
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+			return codecsById[typeId].read(in, bytes[3] & 0xFF);
+		} catch (IOException ex) {
+			throw new SerializationException("Failed to decode cached value of type id " + typeId, ex);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private CacheTypeCodec<Object> codecFor(Object value) {
+		for (CacheTypeCodec<?> codec : codecs) {
+			if (codec.supports(value)) {
+				return (CacheTypeCodec<Object>) codec;
+			}
+		}
+		return null;
+	}
+
+	private static byte[] encode(CacheTypeCodec<Object> codec, Object value) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		try (DataOutputStream out = new DataOutputStream(buffer)) {
+			codec.write(value, out);
+		} catch (IOException ex) {
+			throw new SerializationException("Failed to encode " + value.getClass().getSimpleName(), ex);
+		}
+		return buffer.toByteArray();
+	}
+
+	private static byte[] deflate(byte[] input) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(input);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+			byte[] chunk = new byte[4096];
+			while (!deflater.finished()) {
+				out.write(chunk, 0, deflater.deflate(chunk));
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static byte[] inflate(byte[] input) {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(input);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+			byte[] chunk = new byte[4096];
+			while (!inflater.finished()) {
+				int read = inflater.inflate(chunk);
+				if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new SerializationException("Truncated compressed cache value");
+				}
+				out.write(chunk, 0, read);
+			}
+			return out.toByteArray();
+		} catch (DataFormatException ex) {
+			throw new SerializationException("Corrupt compressed cache value", ex);
+		} finally {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.party.ceva.demo.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated pool sized to the CPU count,
+ * so a burst of logins or registrations cannot occupy every servlet thread.
+ * When the bounded queue is full, callers fail fast with 503 and a {@code Retry-After} hint.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+	private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+	private final PasswordEncoder delegate;
+	private final ThreadPoolExecutor executor;
+	private final long waitTimeoutMs;
+	private final long retryAfterSeconds;
+
+	public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long waitTimeoutMs,
+			long retryAfterSeconds) {
+		this.delegate = delegate;
+		this.waitTimeoutMs = waitTimeoutMs;
+		this.retryAfterSeconds = retryAfterSeconds;
+		AtomicInteger threadCounter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "password-hash-" + threadCounter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		logger.info("Initialized password hashing pool with threads={}, queueCapacity={}", threads, queueCapacity);
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return submit(() -> delegate.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return submit(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	public int getQueuedTasks() {
+		return executor.getQueue().size();
+	}
+
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	private <T> T submit(Callable<T> task) {
+		Future<T> future;
+		try {
+			future = executor.submit(task);
+		} catch (RejectedExecutionException ex) {
+			logger.warn("Password hashing rejected: queue full ({} pending)", executor.getQueue().size());
+			throw busy();
+		}
+
+		try {
+			return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException ex) {
+			future.cancel(true);
+			logger.warn("Password hashing timed out after {}ms", waitTimeoutMs);
+			throw busy();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			throw busy();
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException("Password hashing failed", ex.getCause());
+		}
+	}
+
+	private RetryAfterStatusException busy() {
+		return new RetryAfterStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+				"Server is busy, please retry shortly", retryAfterSeconds);
+	}
+
+	/**
+	 * Picks the highest BCrypt strength whose single hash still fits the per-hash latency budget
+	 * on this machine, never going below {@code minStrength}.
+	 */
+	public static int calibrateStrength(long targetHashMs, int minStrength, int maxStrength) {
+		int chosen = minStrength;
+		for (int strength = minStrength; strength <= maxStrength; strength++) {
+			BCryptPasswordEncoder candidate = new BCryptPasswordEncoder(strength);
+			candidate.encode("calibration-warmup");
+			long startedAt = System.nanoTime();
+			candidate.encode("calibration-password");
+			long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+			logger.debug("BCrypt strength {} took {}ms", strength, elapsedMs);
+			if (elapsedMs > targetHashMs) {
+				break;
+			}
+			chosen = strength;
+			// Each step doubles the cost, so stop before the next one is certain to blow the budget
+			if (elapsedMs * 2 > targetHashMs) {
+				break;
+			}
+		}
+		logger.info("Calibrated BCrypt strength {} for a {}ms per-hash budget", chosen, targetHashMs);
+		return chosen;
+	}
+}
@@ -0,0 +1,112 @@
+package com.party.ceva.demo.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+@Configuration
+@EnableConfigurationProperties(CachePolicyProperties.class)
+public class CacheConfig {
+
+	@Bean
+	public RedisCircuitBreaker redisCircuitBreaker(
+			@Value("${app.cache.resilience.failure-threshold:5}") int failureThreshold,
+			@Value("${app.cache.resilience.open-ms:5000}") long openMs) {
+		return new RedisCircuitBreaker(failureThreshold, openMs);
+	}
+
+	@Bean
+	public CacheRedisConnection cacheRedisConnection(RedisConnectionFactory connectionFactory,
+			@Value("${app.cache.redis.timeout:250ms}") Duration commandTimeout,
+			@Value("${app.cache.redis.connect-timeout:250ms}") Duration connectTimeout) {
+		return new CacheRedisConnection(connectionFactory, commandTimeout, connectTimeout);
+	}
+
+	@Bean
+	public InstrumentedCacheManager cacheManager(
+			CachePolicyProperties cachePolicies,
+			RedisCircuitBreaker breaker,
+			CacheRedisConnection cacheRedis,
+			RedisMessageListenerContainer listenerContainer,
+			ResourceLoader resourceLoader,
+			@Value("${app.cache.near.names:usersById,usersByEmail}") Set<String> nearCacheNames,
+			@Value("${app.cache.near.ttl-ms:30000}") long nearTtlMs,
+			@Value("${app.cache.near.max-entries:10000}") int nearMaxEntries,
+			@Value("${app.cache.codec.type:binary}") String codecType,
+			@Value("${app.cache.codec.compression-threshold-bytes:1024}") int compressionThresholdBytes,
+			@Value("${app.cache.refresh.threads:2}") int refreshThreads,
+			@Value("${app.cache.resilience.fallback-ttl-ms:60000}") long fallbackTtlMs,
+			@Value("${app.cache.resilience.fallback-max-entries:10000}") int fallbackMaxEntries,
+			@Value("${app.cache.resilience.max-pending-keys:1000}") int maxPendingKeys) {
+		// Same Redis defaults Spring Boot applied before this manager replaced the auto-configured one
+		RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig(resourceLoader.getClassLoader());
+		if ("binary".equalsIgnoreCase(codecType)) {
+			defaults = defaults.serializeValuesWith(SerializationPair.fromSerializer(
+					new BinaryCacheSerializer(resourceLoader.getClassLoader(), compressionThresholdBytes)));
+		}
+		Map<String, RedisCacheConfiguration> perCache = new LinkedHashMap<>();
+		for (String cacheName : cachePolicies.getCaches().keySet()) {
+			perCache.put(cacheName, redisConfiguration(defaults, cachePolicies.resolve(cacheName)));
+		}
+		RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheRedis.connectionFactory())
+				.cacheDefaults(redisConfiguration(defaults, cachePolicies.defaultPolicy()))
+				.withInitialCacheConfigurations(perCache)
+				.build();
+		redisCacheManager.afterPropertiesSet();
+
+		ResilientCacheManager resilientCacheManager = new ResilientCacheManager(redisCacheManager, breaker,
+				fallbackTtlMs, fallbackMaxEntries, maxPendingKeys, resyncExecutor());
+		StringRedisTemplate redisTemplate = cacheRedis.redisTemplate();
+		TwoLevelCacheManager twoLevelCacheManager = new TwoLevelCacheManager(resilientCacheManager, redisTemplate,
+				breaker, nearCacheNames, nearTtlMs, nearMaxEntries);
+		listenerContainer.addMessageListener(twoLevelCacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+		return new InstrumentedCacheManager(twoLevelCacheManager, cachePolicies,
+				(cacheName, policy) -> new RedisCacheKeyIndex(redisTemplate, breaker, cacheName, policy),
+				refreshExecutor(refreshThreads), Clock.systemUTC());
+	}
+
+	private static ThreadPoolExecutor refreshExecutor(int threads) {
+		AtomicInteger threadCounter = new AtomicInteger();
+		// Refreshes are an optimisation: when the queue is full the entry simply ages out and is reloaded on a miss
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256),
+				runnable -> {
+					Thread thread = new Thread(runnable, "cache-refresh-" + threadCounter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	private static ExecutorService resyncExecutor() {
+		return Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "cache-resync");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static RedisCacheConfiguration redisConfiguration(RedisCacheConfiguration defaults, CachePolicy policy) {
+		RedisCacheConfiguration configuration = defaults.entryTtl(policy.ttl());
+		return policy.cacheNulls() ? configuration : configuration.disableCachingNullValues();
+	}
+}
@@ -0,0 +1,29 @@
+package com.party.ceva.demo.config;
+
+import java.util.List;
+
+/**
+ * Write-ordered index of the keys held by one cache, used to enforce its entry bound and to
+ * report its size without scanning the keyspace.
+ */
+interface CacheKeyIndex {
+
+	/**
+	 * Records a write of {@code key} and returns the oldest keys that no longer fit under the bound.
+	 */
+	List<String> recordWrite(String key);
+
+	void remove(String key);
+
+	void clear();
+
+	long size();
+
+	/**
+	 * Drops keys whose cache entries have expired, so that {@link #size()} stays a plain read.
+	 */
+	default void trimExpired() {
+	}
+
+	List<String> newestKeys(int limit);
+}
@@ -0,0 +1,15 @@
+package com.party.ceva.demo.config;
+
+import java.time.Duration;
+
+/**
+ * Effective settings of one named cache: Redis entry TTL ({@link Duration#ZERO} keeps entries until
+ * evicted), the entry bound enforced across all nodes (0 means unbounded), whether null results are cached
+ * and the fraction of the TTL after which a hit reloads the entry in the background (0 disables it).
+ */
+public record CachePolicy(Duration ttl, int maxEntries, boolean cacheNulls, double refreshAhead) {
+
+	boolean refreshesAhead() {
+		return refreshAhead > 0 && !ttl.isZero();
+	}
+}
@@ -0,0 +1,54 @@
+package com.party.ceva.demo.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Per-cache policies under {@code app.cache.policy}. Settings left out of a
+ * {@code caches.<name>} entry are inherited from {@code defaults}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache.policy")
+public class CachePolicyProperties {
+	private Policy defaults = new Policy(Duration.ofMinutes(10), 0, false, 0.0);
+	private Map<String, Policy> caches = new LinkedHashMap<>();
+
+	public CachePolicy defaultPolicy() {
+		return resolve(new Policy());
+	}
+
+	public CachePolicy resolve(String cacheName) {
+		return resolve(caches.getOrDefault(cacheName, new Policy()));
+	}
+
+	private CachePolicy resolve(Policy policy) {
+		return new CachePolicy(
+				policy.getTtl() != null ? policy.getTtl() : defaults.getTtl(),
+				policy.getMaxEntries() != null ? policy.getMaxEntries() : defaults.getMaxEntries(),
+				policy.getCacheNulls() != null ? policy.getCacheNulls() : defaults.getCacheNulls(),
+				policy.getRefreshAhead() != null ? policy.getRefreshAhead() : defaults.getRefreshAhead());
+	}
+
+	@Data
+	public static class Policy {
+		private Duration ttl;
+		private Integer maxEntries;
+		private Boolean cacheNulls;
+		private Double refreshAhead;
+
+		public Policy() {
+		}
+
+		public Policy(Duration ttl, Integer maxEntries, Boolean cacheNulls, Double refreshAhead) {
+			this.ttl = ttl;
+			this.maxEntries = maxEntries;
+			this.cacheNulls = cacheNulls;
+			this.refreshAhead = refreshAhead;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.party.ceva.demo.config;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration.LettuceClientConfigurationBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration.LettuceSslClientConfigurationBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+
+/**
+ * Redis connection used only by the caches, with timeouts short enough that a stalled Redis trips the
+ * {@link RedisCircuitBreaker} instead of holding request threads. It reaches the same server as the shared
+ * connection factory, whose timeouts are left alone for the leaderboard, rate limiter and pub/sub.
+ * <p>
+ * Deliberately not a {@link RedisConnectionFactory} bean, which would replace the auto-configured one.
+ */
+public class CacheRedisConnection implements DisposableBean {
+	private static final Logger logger = LoggerFactory.getLogger(CacheRedisConnection.class);
+
+	private final LettuceConnectionFactory ownedFactory;
+	private final RedisConnectionFactory connectionFactory;
+	private final StringRedisTemplate redisTemplate;
+
+	public CacheRedisConnection(RedisConnectionFactory shared, Duration commandTimeout, Duration connectTimeout) {
+		if (shared instanceof LettuceConnectionFactory lettuce) {
+			ownedFactory = new LettuceConnectionFactory(endpointOf(lettuce),
+					clientConfiguration(lettuce.getClientConfiguration(), commandTimeout, connectTimeout));
+			ownedFactory.afterPropertiesSet();
+			ownedFactory.start();
+			connectionFactory = ownedFactory;
+			logger.info("Caches use their own Redis connection with a {} command and {} connect timeout",
+					commandTimeout, connectTimeout);
+		} else {
+			ownedFactory = null;
+			connectionFactory = shared;
+			logger.warn("Redis connection factory {} is not Lettuce; caches share its timeouts",
+					shared.getClass().getSimpleName());
+		}
+		redisTemplate = new StringRedisTemplate(connectionFactory);
+	}
+
+	public RedisConnectionFactory connectionFactory() {
+		return connectionFactory;
+	}
+
+	public StringRedisTemplate redisTemplate() {
+		return redisTemplate;
+	}
+
+	@Override
+	public void destroy() {
+		if (ownedFactory != null) {
+			ownedFactory.destroy();
+		}
+	}
+
+	private static RedisConfiguration endpointOf(LettuceConnectionFactory lettuce) {
+		if (lettuce.getClusterConfiguration() != null) {
+			return lettuce.getClusterConfiguration();
+		}
+		if (lettuce.getSentinelConfiguration() != null) {
+			return lettuce.getSentinelConfiguration();
+		}
+		return lettuce.getStandaloneConfiguration();
+	}
+
+	private static LettuceClientConfiguration clientConfiguration(LettuceClientConfiguration shared,
+			Duration commandTimeout, Duration connectTimeout) {
+		ClientOptions sharedOptions = shared.getClientOptions().orElseGet(() -> ClientOptions.builder().build());
+		SocketOptions socketOptions = sharedOptions.getSocketOptions().mutate().connectTimeout(connectTimeout)
+				.build();
+		LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder()
+				.commandTimeout(commandTimeout)
+				.shutdownTimeout(shared.getShutdownTimeout())
+				.clientOptions(sharedOptions.mutate().socketOptions(socketOptions).build());
+		// Same event loops as the shared factory, which keeps ownership of them
+		shared.getClientResources().ifPresent(builder::clientResources);
+		shared.getClientName().ifPresent(builder::clientName);
+		shared.getReadFrom().ifPresent(builder::readFrom);
+		if (shared.isUseSsl()) {
+			LettuceSslClientConfigurationBuilder ssl = builder.useSsl();
+			if (!shared.isVerifyPeer()) {
+				ssl.disablePeerVerification();
+			}
+			if (shared.isStartTls()) {
+				ssl.startTls();
+			}
+		}
+		return builder.build();
+	}
+}
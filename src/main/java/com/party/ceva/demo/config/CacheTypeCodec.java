@@ -0,0 +1,24 @@
+package com.party.ceva.demo.config;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Hand-written binary layout for one cached value type.
+ * The type id is persisted in Redis and must never be reused. A layout change bumps
+ * {@link #schemaVersion()}, and {@link #read} keeps accepting every older version so entries
+ * written before a deploy stay readable until they expire.
+ */
+interface CacheTypeCodec<T> {
+
+	int typeId();
+
+	int schemaVersion();
+
+	boolean supports(Object value);
+
+	void write(T value, DataOutputStream out) throws IOException;
+
+	T read(DataInputStream in, int schemaVersion) throws IOException;
+}
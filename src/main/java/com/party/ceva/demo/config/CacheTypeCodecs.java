@@ -0,0 +1,326 @@
+package com.party.ceva.demo.config;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.party.ceva.demo.dto.EventDto;
+import com.party.ceva.demo.dto.UserDto;
+import com.party.ceva.demo.dto.UserProfileDto;
+import com.party.ceva.demo.model.News;
+
+/**
+ * Codecs for the values the application caches in Redis, plus the null-aware field helpers they share.
+ */
+final class CacheTypeCodecs {
+
+	private CacheTypeCodecs() {
+	}
+
+	static List<CacheTypeCodec<?>> defaults() {
+		return List.of(new UserDtoCodec(), new NewsCodec(), new PageCodec<>(3, new NewsCodec(), News.class),
+				new EventDtoCodec(), new PageCodec<>(5, new EventDtoCodec(), EventDto.class));
+	}
+
+	/**
+	 * Cached user views. The password and referral code fields are request-only and never cached.
+	 */
+	static final class UserDtoCodec implements CacheTypeCodec<UserDto> {
+		@Override
+		public int typeId() {
+			return 1;
+		}
+
+		@Override
+		public int schemaVersion() {
+			return 1;
+		}
+
+		@Override
+		public boolean supports(Object value) {
+			return value instanceof UserDto;
+		}
+
+		@Override
+		public void write(UserDto user, DataOutputStream out) throws IOException {
+			writeLong(out, user.getId());
+			writeString(out, user.getEmail());
+			writeString(out, user.getCode());
+			writeInt(out, user.getCurrentLevel());
+			writeLong(out, user.getCurrentXP());
+			writeLong(out, user.getNextLevelXP());
+			UserProfileDto profile = user.getUserProfile();
+			out.writeBoolean(profile != null);
+			if (profile != null) {
+				writeLong(out, profile.getId());
+				writeString(out, profile.getCnp());
+				writeString(out, profile.getSex() == null ? null : profile.getSex().toString());
+				writeString(out, profile.getFirstName());
+				writeString(out, profile.getLastName());
+				writeString(out, profile.getTelefon());
+				writeDate(out, profile.getDateOfBirth());
+				writeString(out, profile.getAddress());
+				writeString(out, profile.getProfilePictureUrl());
+				writeString(out, profile.getBio());
+				writeDateTime(out, profile.getCreatedAt());
+				writeDateTime(out, profile.getUpdatedAt());
+			}
+		}
+
+		@Override
+		public UserDto read(DataInputStream in, int schemaVersion) throws IOException {
+			UserDto user = new UserDto();
+			user.setId(readLong(in));
+			user.setEmail(readString(in));
+			user.setCode(readString(in));
+			user.setCurrentLevel(readInt(in));
+			user.setCurrentXP(readLong(in));
+			user.setNextLevelXP(readLong(in));
+			if (in.readBoolean()) {
+				UserProfileDto profile = new UserProfileDto();
+				profile.setId(readLong(in));
+				profile.setCnp(readString(in));
+				String sex = readString(in);
+				profile.setSex(sex == null ? null : sex.charAt(0));
+				profile.setFirstName(readString(in));
+				profile.setLastName(readString(in));
+				profile.setTelefon(readString(in));
+				profile.setDateOfBirth(readDate(in));
+				profile.setAddress(readString(in));
+				profile.setProfilePictureUrl(readString(in));
+				profile.setBio(readString(in));
+				profile.setCreatedAt(readDateTime(in));
+				profile.setUpdatedAt(readDateTime(in));
+				user.setUserProfile(profile);
+			}
+			return user;
+		}
+	}
+
+	static final class NewsCodec implements CacheTypeCodec<News> {
+		@Override
+		public int typeId() {
+			return 2;
+		}
+
+		@Override
+		public int schemaVersion() {
+			return 1;
+		}
+
+		@Override
+		public boolean supports(Object value) {
+			return value instanceof News;
+		}
+
+		@Override
+		public void write(News news, DataOutputStream out) throws IOException {
+			writeLong(out, news.getId());
+			writeString(out, news.getTitle());
+			writeString(out, news.getContent());
+			writeDateTime(out, news.getCreatedAt());
+			writeDateTime(out, news.getUpdatedAt());
+		}
+
+		@Override
+		public News read(DataInputStream in, int schemaVersion) throws IOException {
+			News news = new News();
+			news.setId(readLong(in));
+			news.setTitle(readString(in));
+			news.setContent(readString(in));
+			news.setCreatedAt(readDateTime(in));
+			news.setUpdatedAt(readDateTime(in));
+			return news;
+		}
+	}
+
+	static final class EventDtoCodec implements CacheTypeCodec<EventDto> {
+		@Override
+		public int typeId() {
+			return 4;
+		}
+
+		@Override
+		public int schemaVersion() {
+			return 1;
+		}
+
+		@Override
+		public boolean supports(Object value) {
+			return value instanceof EventDto;
+		}
+
+		@Override
+		public void write(EventDto event, DataOutputStream out) throws IOException {
+			writeLong(out, event.getId());
+			writeString(out, event.getName());
+			writeDateTime(out, event.getStartTime());
+			writeDateTime(out, event.getEndTime());
+			writeString(out, event.getDescription());
+			writeString(out, event.getLocation());
+		}
+
+		@Override
+		public EventDto read(DataInputStream in, int schemaVersion) throws IOException {
+			EventDto event = new EventDto();
+			event.setId(readLong(in));
+			event.setName(readString(in));
+			event.setStartTime(readDateTime(in));
+			event.setEndTime(readDateTime(in));
+			event.setDescription(readString(in));
+			event.setLocation(readString(in));
+			return event;
+		}
+	}
+
+	/**
+	 * Listing pages of one element type: the elements plus the page request and total needed to rebuild the Page.
+	 * An empty page matches the first page codec registered, which is harmless since it carries no elements.
+	 */
+	static final class PageCodec<T> implements CacheTypeCodec<Page<T>> {
+		private final int typeId;
+		private final CacheTypeCodec<T> elementCodec;
+		private final Class<T> elementType;
+
+		PageCodec(int typeId, CacheTypeCodec<T> elementCodec, Class<T> elementType) {
+			this.typeId = typeId;
+			this.elementCodec = elementCodec;
+			this.elementType = elementType;
+		}
+
+		@Override
+		public int typeId() {
+			return typeId;
+		}
+
+		@Override
+		public int schemaVersion() {
+			return 1;
+		}
+
+		@Override
+		public boolean supports(Object value) {
+			return value instanceof PageImpl<?> page && page.getContent().stream().allMatch(elementType::isInstance);
+		}
+
+		@Override
+		public void write(Page<T> page, DataOutputStream out) throws IOException {
+			Pageable pageable = page.getPageable();
+			out.writeBoolean(pageable.isPaged());
+			if (pageable.isPaged()) {
+				out.writeInt(pageable.getPageNumber());
+				out.writeInt(pageable.getPageSize());
+				List<Sort.Order> orders = pageable.getSort().toList();
+				out.writeInt(orders.size());
+				for (Sort.Order order : orders) {
+					out.writeUTF(order.getProperty());
+					out.writeBoolean(order.isAscending());
+				}
+			}
+			out.writeLong(page.getTotalElements());
+			out.writeInt(page.getNumberOfElements());
+			for (T element : page.getContent()) {
+				elementCodec.write(element, out);
+			}
+		}
+
+		@Override
+		public Page<T> read(DataInputStream in, int schemaVersion) throws IOException {
+			Pageable pageable = Pageable.unpaged();
+			if (in.readBoolean()) {
+				int pageNumber = in.readInt();
+				int pageSize = in.readInt();
+				int orderCount = in.readInt();
+				List<Sort.Order> orders = new ArrayList<>(orderCount);
+				for (int i = 0; i < orderCount; i++) {
+					String property = in.readUTF();
+					orders.add(in.readBoolean() ? Sort.Order.asc(property) : Sort.Order.desc(property));
+				}
+				pageable = PageRequest.of(pageNumber, pageSize, Sort.by(orders));
+			}
+			long total = in.readLong();
+			int count = in.readInt();
+			List<T> content = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				content.add(elementCodec.read(in, elementCodec.schemaVersion()));
+			}
+			return new PageImpl<>(content, pageable, total);
+		}
+	}
+
+	static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			// writeUTF caps at 64KB, so strings are written as length-prefixed UTF-8
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	static String readString(DataInputStream in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	static void writeLong(DataOutputStream out, Long value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeLong(value);
+		}
+	}
+
+	static Long readLong(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readLong() : null;
+	}
+
+	static void writeInt(DataOutputStream out, Integer value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeInt(value);
+		}
+	}
+
+	static Integer readInt(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readInt() : null;
+	}
+
+	static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+			out.writeInt(value.getNano());
+		}
+	}
+
+	static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+		return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+	}
+
+	static void writeDate(DataOutputStream out, LocalDate value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeLong(value.toEpochDay());
+		}
+	}
+
+	static LocalDate readDate(DataInputStream in) throws IOException {
+		return in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+	}
+}
@@ -0,0 +1,285 @@
+package com.party.ceva.demo.config;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cache.Cache;
+
+import com.party.ceva.demo.dto.CacheStatsDto;
+
+/**
+ * Decorator that applies a {@link CachePolicy} on top of a cache and counts how it is used.
+ * <p>
+ * Load latency is measured directly for {@link #get(Object, Callable)}. For plain {@code @Cacheable}
+ * methods the cache interceptor misses, invokes the method and puts the result on the same thread,
+ * so the time from a miss to the put of the same key is recorded as the load.
+ * <p>
+ * {@link #get(Object, Callable)}, used by {@code @Cacheable(sync = true)}, runs at most one loader per key
+ * on this node; concurrent callers missing the same key wait for that loader's result. With refresh-ahead
+ * enabled, a hit on an entry this node loaded more than {@code refreshAhead * ttl} ago reloads it on the
+ * refresh executor, so hot keys are replaced before they expire instead of missing.
+ * <p>
+ * Every {@link #clear()} and {@link #evict(Object)} bumps a generation counter. A load that started in an
+ * earlier generation may have read data the clear was meant to drop, so its result is returned to the caller
+ * but not written back. A refresh is also dropped when the entry is already gone from the shared cache, which
+ * covers a clear or evict made on another node.
+ */
+class InstrumentedCache implements Cache {
+	private static final int MAX_TRACKED_LOAD_TIMES = 10_000;
+
+	private final Cache delegate;
+	private final CachePolicy policy;
+	private final CacheKeyIndex keyIndex;
+	private final Executor refreshExecutor;
+	private final Clock clock;
+	private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+	private final Map<Object, Long> loadedAtMs = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder loadNanos = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder refreshes = new LongAdder();
+	private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+	private final AtomicLong generation = new AtomicLong();
+
+	InstrumentedCache(Cache delegate, CachePolicy policy, CacheKeyIndex keyIndex, Executor refreshExecutor,
+			Clock clock) {
+		this.delegate = delegate;
+		this.policy = policy;
+		this.keyIndex = keyIndex;
+		this.refreshExecutor = refreshExecutor;
+		this.clock = clock;
+	}
+
+	@Override
+	public String getName() {
+		return delegate.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return delegate.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		ValueWrapper value = delegate.get(key);
+		if (value != null) {
+			hits.increment();
+			pendingLoad.remove();
+		} else {
+			misses.increment();
+			pendingLoad.set(new PendingLoad(key, System.nanoTime(), generation.get()));
+		}
+		return value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = wrapper == null ? null : wrapper.get();
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper cached = get(key);
+		// The load below is timed directly
+		pendingLoad.remove();
+		if (cached != null) {
+			refreshIfAging(key, valueLoader);
+			return (T) cached.get();
+		}
+
+		CompletableFuture<Object> load = new CompletableFuture<>();
+		CompletableFuture<Object> running = inFlight.putIfAbsent(key, load);
+		if (running != null) {
+			coalesced.increment();
+			return (T) await(running);
+		}
+		try {
+			long startedGeneration = generation.get();
+			// Another caller may have finished loading between our miss and claiming the key
+			ValueWrapper filled = delegate.get(key);
+			Object value = filled != null ? filled.get() : loadAndPut(key, valueLoader, startedGeneration);
+			load.complete(value);
+			return (T) value;
+		} catch (RuntimeException ex) {
+			load.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			inFlight.remove(key, load);
+		}
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		PendingLoad load = pendingLoad.get();
+		if (load != null && Objects.equals(load.key(), key)) {
+			pendingLoad.remove();
+			loads.increment();
+			loadNanos.add(System.nanoTime() - load.startedAtNanos());
+			putIfCurrent(key, value, load.generation());
+			return;
+		}
+		write(key, value);
+	}
+
+	private void write(Object key, Object value) {
+		if (value == null && !policy.cacheNulls()) {
+			return;
+		}
+		delegate.put(key, value);
+		if (policy.refreshesAhead()) {
+			if (loadedAtMs.size() >= MAX_TRACKED_LOAD_TIMES) {
+				loadedAtMs.clear();
+			}
+			loadedAtMs.put(key, clock.millis());
+		}
+		for (String overflowKey : keyIndex.recordWrite(String.valueOf(key))) {
+			delegate.evict(overflowKey);
+			evictions.increment();
+		}
+	}
+
+	@Override
+	public void evict(Object key) {
+		// Before the delegate, so a load finishing meanwhile either sees it or is removed by it
+		generation.incrementAndGet();
+		delegate.evict(key);
+		loadedAtMs.remove(key);
+		keyIndex.remove(String.valueOf(key));
+		evictions.increment();
+	}
+
+	@Override
+	public void clear() {
+		long size = keyIndex.size();
+		generation.incrementAndGet();
+		delegate.clear();
+		loadedAtMs.clear();
+		keyIndex.clear();
+		evictions.add(Math.max(size, 0));
+	}
+
+	long coalescedLoads() {
+		return coalesced.sum();
+	}
+
+	long refreshes() {
+		return refreshes.sum();
+	}
+
+	private Object loadAndPut(Object key, Callable<?> valueLoader, long startedGeneration) {
+		Object value = load(key, valueLoader);
+		putIfCurrent(key, value, startedGeneration);
+		return value;
+	}
+
+	private Object load(Object key, Callable<?> valueLoader) {
+		long startedAt = System.nanoTime();
+		Object value;
+		try {
+			value = valueLoader.call();
+		} catch (Exception ex) {
+			throw new ValueRetrievalException(key, valueLoader, ex);
+		}
+		loads.increment();
+		loadNanos.add(System.nanoTime() - startedAt);
+		return value;
+	}
+
+	private void putIfCurrent(Object key, Object value, long startedGeneration) {
+		if (generation.get() != startedGeneration) {
+			return;
+		}
+		write(key, value);
+		// A clear or evict that began during the write bumped the generation before touching the delegate
+		if (generation.get() != startedGeneration) {
+			delegate.evict(key);
+			loadedAtMs.remove(key);
+		}
+	}
+
+	private void refreshIfAging(Object key, Callable<?> valueLoader) {
+		if (!policy.refreshesAhead()) {
+			return;
+		}
+		Long loadedAt = loadedAtMs.get(key);
+		long refreshAfterMs = (long) (policy.ttl().toMillis() * policy.refreshAhead());
+		if (loadedAt == null || clock.millis() - loadedAt < refreshAfterMs) {
+			return;
+		}
+		CompletableFuture<Object> refresh = new CompletableFuture<>();
+		if (inFlight.putIfAbsent(key, refresh) != null) {
+			return;
+		}
+		long startedGeneration = generation.get();
+		try {
+			refreshExecutor.execute(() -> {
+				try {
+					Object value = load(key, valueLoader);
+					// Gone from the shared cache means another node cleared or evicted it during the load
+					if (delegate.get(key) != null) {
+						putIfCurrent(key, value, startedGeneration);
+					}
+					refresh.complete(value);
+					refreshes.increment();
+				} catch (RuntimeException ex) {
+					// The current entry keeps serving until it expires and a caller loads it again
+					refresh.completeExceptionally(ex);
+				} finally {
+					inFlight.remove(key, refresh);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			inFlight.remove(key, refresh);
+			refresh.complete(null);
+		}
+	}
+
+	private static Object await(CompletableFuture<Object> load) {
+		try {
+			return load.join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+	}
+
+	CachePolicy policy() {
+		return policy;
+	}
+
+	CacheKeyIndex keyIndex() {
+		return keyIndex;
+	}
+
+	CacheStatsDto stats() {
+		long loadCount = loads.sum();
+		double averageLoadMillis = loadCount == 0 ? 0.0 : loadNanos.sum() / 1_000_000.0 / loadCount;
+		return new CacheStatsDto(getName(), keyIndex.size(), hits.sum(), misses.sum(), evictions.sum(), loadCount,
+				averageLoadMillis);
+	}
+
+	private record PendingLoad(Object key, long startedAtNanos, long generation) {
+	}
+}
@@ -0,0 +1,106 @@
+package com.party.ceva.demo.config;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.party.ceva.demo.dto.CacheDetailsDto;
+import com.party.ceva.demo.dto.CacheStatsDto;
+
+/**
+ * Outermost cache manager: wraps every cache of the delegate in an {@link InstrumentedCache}
+ * carrying the policy resolved for its name, and serves the admin cache endpoints.
+ */
+public class InstrumentedCacheManager implements CacheManager, AutoCloseable {
+	private static final int INSPECT_SAMPLE_KEYS = 20;
+
+	private final CacheManager delegate;
+	private final CachePolicyProperties policies;
+	private final BiFunction<String, CachePolicy, CacheKeyIndex> keyIndexFactory;
+	private final Executor refreshExecutor;
+	private final Clock clock;
+	private final Map<String, InstrumentedCache> caches = new ConcurrentHashMap<>();
+
+	InstrumentedCacheManager(CacheManager delegate, CachePolicyProperties policies,
+			BiFunction<String, CachePolicy, CacheKeyIndex> keyIndexFactory, Executor refreshExecutor, Clock clock) {
+		this.delegate = delegate;
+		this.policies = policies;
+		this.keyIndexFactory = keyIndexFactory;
+		this.refreshExecutor = refreshExecutor;
+		this.clock = clock;
+	}
+
+	@Override
+	public Cache getCache(String name) {
+		InstrumentedCache cache = caches.get(name);
+		if (cache != null) {
+			return cache;
+		}
+		Cache target = delegate.getCache(name);
+		if (target == null) {
+			return null;
+		}
+		return caches.computeIfAbsent(name, cacheName -> {
+			CachePolicy policy = policies.resolve(cacheName);
+			return new InstrumentedCache(target, policy, keyIndexFactory.apply(cacheName, policy), refreshExecutor,
+					clock);
+		});
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return delegate.getCacheNames();
+	}
+
+	public List<CacheStatsDto> stats() {
+		return getCacheNames().stream()
+				.sorted()
+				.map(this::instrumentedCache)
+				.flatMap(Optional::stream)
+				.map(InstrumentedCache::stats)
+				.toList();
+	}
+
+	public Optional<CacheDetailsDto> inspect(String name) {
+		return instrumentedCache(name).map(cache -> new CacheDetailsDto(cache.stats(), cache.policy().ttl().toMillis(),
+				cache.policy().maxEntries(), cache.policy().cacheNulls(), cache.policy().refreshAhead(),
+				cache.coalescedLoads(), cache.refreshes(), cache.keyIndex().newestKeys(INSPECT_SAMPLE_KEYS)));
+	}
+
+	public boolean flush(String name) {
+		Optional<InstrumentedCache> cache = instrumentedCache(name);
+		cache.ifPresent(Cache::clear);
+		return cache.isPresent();
+	}
+
+	/**
+	 * Trims the key indexes of the caches used so far, keeping that Redis work off the stats and inspect
+	 * endpoints.
+	 */
+	@Scheduled(initialDelayString = "${app.cache.index.trim-interval-ms:60000}",
+			fixedDelayString = "${app.cache.index.trim-interval-ms:60000}")
+	public void trimKeyIndexes() {
+		caches.values().forEach(cache -> cache.keyIndex().trimExpired());
+	}
+
+	@Override
+	public void close() {
+		if (refreshExecutor instanceof ExecutorService executorService) {
+			executorService.shutdownNow();
+		}
+	}
+
+	private Optional<InstrumentedCache> instrumentedCache(String name) {
+		return getCacheNames().contains(name) ? Optional.ofNullable((InstrumentedCache) getCache(name)) : Optional.empty();
+	}
+}
@@ -1,11 +1,15 @@
 package com.party.ceva.demo.config;
 
+import com.party.ceva.demo.service.AuthenticatedUser;
 import com.party.ceva.demo.service.CustomUserDetailsService;
 import com.party.ceva.demo.service.JwtService;
+import com.party.ceva.demo.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,16 +18,26 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean statelessAuthEnabled;
 
-    public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(
+        JwtService jwtService,
+        CustomUserDetailsService userDetailsService,
+        TokenRevocationService tokenRevocationService,
+        @Value("${app.jwt.stateless-auth.enabled:false}") boolean statelessAuthEnabled
+    ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.statelessAuthEnabled = statelessAuthEnabled;
     }
 
     @Override
@@ -39,17 +53,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        String username;
+        Claims claims;
         try {
-            username = jwtService.extractUsername(token);
+            claims = jwtService.verifyToken(token);
         } catch (Exception ex) {
             filterChain.doFilter(request, response);
             return;
         }
 
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String username = claims.getSubject();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(token, userDetails)) {
+            UserDetails userDetails = resolveUserDetails(claims, username);
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken =
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -59,4 +79,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolveUserDetails(Claims claims, String username) {
+        if (statelessAuthEnabled) {
+            // Trust the role claims only while the user's auth version has not moved past the token's
+            Optional<AuthenticatedUser> principal = jwtService.principalFromClaims(claims);
+            if (principal.isPresent()
+                && userDetailsService.isAuthVersionCurrent(username, principal.get().getAuthVersion())) {
+                return principal.get();
+            }
+        }
+        return userDetailsService.loadUserByUsername(username);
+    }
 }
@@ -0,0 +1,21 @@
+package com.party.ceva.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.party.ceva.demo.model.LevelCurve;
+
+@Configuration
+public class LevelingConfig {
+
+	@Bean
+	public LevelCurve levelCurve(
+			@Value("${app.leveling.curve.base:100}") double base,
+			@Value("${app.leveling.curve.exponent:1.5}") double exponent) {
+		LevelCurve curve = new LevelCurve(base, exponent);
+		// Level entities read the curve statically
+		LevelCurve.install(curve);
+		return curve;
+	}
+}
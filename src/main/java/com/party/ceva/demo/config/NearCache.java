@@ -0,0 +1,90 @@
+package com.party.ceva.demo.config;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cache.Cache.ValueWrapper;
+
+/**
+ * Bounded, TTL-based in-process map used as the first level of a {@link TwoLevelCache}.
+ * Keys are compared by their string form so invalidations received over pub/sub can address them.
+ */
+class NearCache {
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final long ttlMs;
+	private final int maxEntries;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	NearCache(long ttlMs, int maxEntries) {
+		this.ttlMs = ttlMs;
+		this.maxEntries = maxEntries;
+	}
+
+	ValueWrapper get(Object key) {
+		String nearKey = String.valueOf(key);
+		Entry entry = entries.get(nearKey);
+		if (entry != null) {
+			if (entry.expiresAtMs() > System.currentTimeMillis()) {
+				hits.increment();
+				return entry.value();
+			}
+			entries.remove(nearKey, entry);
+		}
+		misses.increment();
+		return null;
+	}
+
+	void put(Object key, ValueWrapper value) {
+		long now = System.currentTimeMillis();
+		if (entries.size() >= maxEntries) {
+			evictExpiredOrOverflowing(now);
+		}
+		entries.put(String.valueOf(key), new Entry(value, now + ttlMs));
+	}
+
+	void evict(Object key) {
+		if (entries.remove(String.valueOf(key)) != null) {
+			evictions.increment();
+		}
+	}
+
+	void clear() {
+		evictions.add(entries.size());
+		entries.clear();
+	}
+
+	long size() {
+		return entries.size();
+	}
+
+	long hits() {
+		return hits.sum();
+	}
+
+	long misses() {
+		return misses.sum();
+	}
+
+	long evictions() {
+		return evictions.sum();
+	}
+
+	private void evictExpiredOrOverflowing(long now) {
+		entries.values().removeIf(entry -> entry.expiresAtMs() <= now);
+		// Still full of live entries: drop arbitrary ones, they are reloaded from Redis on next use
+		Iterator<String> iterator = entries.keySet().iterator();
+		int overflow = entries.size() - maxEntries + 1;
+		while (overflow-- > 0 && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+			evictions.increment();
+		}
+	}
+
+	private record Entry(ValueWrapper value, long expiresAtMs) {
+	}
+}
@@ -0,0 +1,133 @@
+package com.party.ceva.demo.config;
+
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+/**
+ * Keeps the keys of one cache in a Redis sorted set scored by write time, so every node sees the
+ * same size and the oldest entries can be pushed out once the cache exceeds its bound.
+ * Members older than the TTL are trimmed on writes and by the scheduled {@link #trimExpired()}, since Redis
+ * expires the cache entries themselves; between trims {@link #size()} may still count a few expired keys.
+ * The index is best effort: a failed update is logged and never fails the cache operation, and it is
+ * skipped entirely while the Redis circuit breaker is not closed.
+ */
+class RedisCacheKeyIndex implements CacheKeyIndex {
+	private static final Logger logger = LoggerFactory.getLogger(RedisCacheKeyIndex.class);
+	private static final String KEY_PREFIX = "cache-index:";
+
+	private final StringRedisTemplate redisTemplate;
+	private final RedisCircuitBreaker breaker;
+	private final String indexKey;
+	private final long ttlMs;
+	private final int maxEntries;
+
+	RedisCacheKeyIndex(StringRedisTemplate redisTemplate, RedisCircuitBreaker breaker, String cacheName,
+			CachePolicy policy) {
+		this.redisTemplate = redisTemplate;
+		this.breaker = breaker;
+		this.indexKey = KEY_PREFIX + cacheName;
+		this.ttlMs = policy.ttl().toMillis();
+		this.maxEntries = policy.maxEntries();
+	}
+
+	@Override
+	public List<String> recordWrite(String key) {
+		if (!breaker.isClosed()) {
+			return List.of();
+		}
+		long now = System.currentTimeMillis();
+		try {
+			List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				StringRedisConnection redis = (StringRedisConnection) connection;
+				redis.zAdd(indexKey, now, key);
+				if (ttlMs > 0) {
+					redis.zRemRangeByScore(indexKey, 0, now - ttlMs);
+					redis.pExpire(indexKey, ttlMs);
+				}
+				redis.zCard(indexKey);
+				return null;
+			});
+			long size = ((Number) results.get(results.size() - 1)).longValue();
+			if (maxEntries <= 0 || size <= maxEntries) {
+				return List.of();
+			}
+			Set<ZSetOperations.TypedTuple<String>> overflow = redisTemplate.opsForZSet().popMin(indexKey,
+					size - maxEntries);
+			return overflow == null ? List.of() : overflow.stream().map(ZSetOperations.TypedTuple::getValue).toList();
+		} catch (RuntimeException ex) {
+			logger.debug("Failed to update cache index {}: {}", indexKey, ex.getMessage());
+			return List.of();
+		}
+	}
+
+	@Override
+	public void remove(String key) {
+		if (!breaker.isClosed()) {
+			return;
+		}
+		try {
+			redisTemplate.opsForZSet().remove(indexKey, key);
+		} catch (RuntimeException ex) {
+			logger.debug("Failed to remove {} from cache index {}: {}", key, indexKey, ex.getMessage());
+		}
+	}
+
+	@Override
+	public void clear() {
+		if (!breaker.isClosed()) {
+			return;
+		}
+		try {
+			redisTemplate.delete(indexKey);
+		} catch (RuntimeException ex) {
+			logger.debug("Failed to clear cache index {}: {}", indexKey, ex.getMessage());
+		}
+	}
+
+	@Override
+	public long size() {
+		if (!breaker.isClosed()) {
+			return -1;
+		}
+		try {
+			Long size = redisTemplate.opsForZSet().zCard(indexKey);
+			return size == null ? 0 : size;
+		} catch (RuntimeException ex) {
+			logger.debug("Failed to read cache index {}: {}", indexKey, ex.getMessage());
+			return -1;
+		}
+	}
+
+	@Override
+	public void trimExpired() {
+		if (ttlMs <= 0 || !breaker.isClosed()) {
+			return;
+		}
+		try {
+			redisTemplate.opsForZSet().removeRangeByScore(indexKey, 0, System.currentTimeMillis() - ttlMs);
+		} catch (RuntimeException ex) {
+			logger.debug("Failed to trim cache index {}: {}", indexKey, ex.getMessage());
+		}
+	}
+
+	@Override
+	public List<String> newestKeys(int limit) {
+		if (!breaker.isClosed()) {
+			return List.of();
+		}
+		try {
+			Set<String> keys = redisTemplate.opsForZSet().reverseRange(indexKey, 0, limit - 1L);
+			return keys == null ? List.of() : List.copyOf(keys);
+		} catch (RuntimeException ex) {
+			logger.debug("Failed to read cache index {}: {}", indexKey, ex.getMessage());
+			return List.of();
+		}
+	}
+}
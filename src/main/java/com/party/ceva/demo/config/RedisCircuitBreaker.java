@@ -0,0 +1,128 @@
+package com.party.ceva.demo.config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.party.ceva.demo.dto.CircuitBreakerStatsDto;
+
+/**
+ * Circuit breaker shared by every cache operation that talks to Redis.
+ * After {@code failureThreshold} consecutive failures the breaker opens and callers skip Redis
+ * entirely for {@code openMs}; then a single probe call is let through, which either closes the
+ * breaker or opens it for another period. Recovery listeners run on the thread whose probe succeeded, so
+ * they should hand slow work to an executor.
+ */
+public class RedisCircuitBreaker {
+	private static final Logger logger = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final int failureThreshold;
+	private final long openMs;
+	private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+	private final AtomicBoolean probeInFlight = new AtomicBoolean();
+	private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder opened = new LongAdder();
+	private volatile long stateChangedAtMs = System.currentTimeMillis();
+	private volatile LongSupplier fallbackEntries = () -> 0;
+
+	public RedisCircuitBreaker(int failureThreshold, long openMs) {
+		this.failureThreshold = failureThreshold;
+		this.openMs = openMs;
+	}
+
+	/**
+	 * Returns whether the caller may use Redis now. Every permitted call must be followed by
+	 * {@link #onSuccess()} or {@link #onFailure(RuntimeException)}.
+	 */
+	public boolean allowRequest() {
+		State current = state.get();
+		if (current == State.CLOSED) {
+			return true;
+		}
+		if (current == State.OPEN && System.currentTimeMillis() - stateChangedAtMs >= openMs
+				&& state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+			stateChangedAtMs = System.currentTimeMillis();
+		}
+		if (state.get() == State.HALF_OPEN && probeInFlight.compareAndSet(false, true)) {
+			return true;
+		}
+		rejected.increment();
+		return false;
+	}
+
+	/**
+	 * For best-effort side traffic such as key indexes and invalidation broadcasts, which should
+	 * neither wait on a broken Redis nor act as the recovery probe.
+	 */
+	public boolean isClosed() {
+		return state.get() == State.CLOSED;
+	}
+
+	public void onSuccess() {
+		consecutiveFailures.set(0);
+		if (state.get() == State.HALF_OPEN && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+			stateChangedAtMs = System.currentTimeMillis();
+			probeInFlight.set(false);
+			logger.info("Redis circuit breaker closed; resynchronizing caches");
+			for (Runnable listener : recoveryListeners) {
+				try {
+					listener.run();
+				} catch (RuntimeException ex) {
+					logger.warn("Cache resynchronization after Redis recovery failed: {}", ex.getMessage());
+				}
+			}
+		}
+	}
+
+	public void onFailure(RuntimeException ex) {
+		failures.increment();
+		State current = state.get();
+		if (current == State.HALF_OPEN) {
+			open(current, ex);
+		} else if (current == State.CLOSED && consecutiveFailures.incrementAndGet() >= failureThreshold) {
+			open(current, ex);
+		}
+	}
+
+	public void addRecoveryListener(Runnable listener) {
+		recoveryListeners.add(listener);
+	}
+
+	public void trackFallbackEntries(LongSupplier fallbackEntries) {
+		this.fallbackEntries = fallbackEntries;
+	}
+
+	public State state() {
+		return state.get();
+	}
+
+	public CircuitBreakerStatsDto stats() {
+		return new CircuitBreakerStatsDto(state.get().name(), consecutiveFailures.get(), failures.sum(),
+				rejected.sum(), opened.sum(), stateChangedAtMs, fallbackEntries.getAsLong());
+	}
+
+	private void open(State from, RuntimeException ex) {
+		if (state.compareAndSet(from, State.OPEN)) {
+			stateChangedAtMs = System.currentTimeMillis();
+			probeInFlight.set(false);
+			opened.increment();
+			logger.warn("Redis circuit breaker opened for {}ms after {}: {}", openMs,
+					from == State.HALF_OPEN ? "a failed probe" : failureThreshold + " consecutive failures",
+					ex.getMessage());
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.party.ceva.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the shared pub/sub container once the application is up and keeps retrying while Redis is
+ * unreachable, so a Redis outage at boot degrades cross-node invalidation instead of failing startup.
+ */
+@Component
+public class RedisListenerStarter {
+	private static final Logger logger = LoggerFactory.getLogger(RedisListenerStarter.class);
+
+	private final RedisMessageListenerContainer listenerContainer;
+
+	public RedisListenerStarter(RedisMessageListenerContainer listenerContainer) {
+		this.listenerContainer = listenerContainer;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		ensureStarted();
+	}
+
+	@Scheduled(fixedDelayString = "${app.redis.listener.start-retry-ms:10000}",
+			initialDelayString = "${app.redis.listener.start-retry-ms:10000}")
+	public void ensureStarted() {
+		if (listenerContainer.isRunning()) {
+			return;
+		}
+		try {
+			listenerContainer.start();
+			logger.info("Redis pub/sub listener container started");
+		} catch (RuntimeException ex) {
+			logger.warn("Redis pub/sub listener container not started, retrying later: {}", ex.getMessage());
+		}
+	}
+}
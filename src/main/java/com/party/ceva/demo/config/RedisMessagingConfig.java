@@ -0,0 +1,20 @@
+package com.party.ceva.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RedisMessagingConfig {
+
+    // Shared pub/sub container: every node subscribes here to cross-node invalidation channels.
+    // Started by RedisListenerStarter rather than the context, so an unreachable Redis cannot fail startup
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setAutoStartup(false);
+        return container;
+    }
+}
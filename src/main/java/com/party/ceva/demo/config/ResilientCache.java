@@ -0,0 +1,155 @@
+package com.party.ceva.demo.config;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Guards one Redis cache with the shared {@link RedisCircuitBreaker}.
+ * While Redis fails or the breaker is open, reads and writes go to a bounded in-process fallback, and
+ * every key touched is remembered. Once Redis is back those keys are evicted from Redis, since it missed
+ * the evictions made meanwhile; if more keys were touched than can be tracked, or the cache was cleared,
+ * the whole Redis cache is cleared instead.
+ */
+class ResilientCache implements Cache {
+	private final Cache remote;
+	private final NearCache fallback;
+	private final RedisCircuitBreaker breaker;
+	private final int maxPendingKeys;
+	private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+	private volatile boolean pendingClear;
+
+	ResilientCache(Cache remote, NearCache fallback, RedisCircuitBreaker breaker, int maxPendingKeys) {
+		this.remote = remote;
+		this.fallback = fallback;
+		this.breaker = breaker;
+		this.maxPendingKeys = maxPendingKeys;
+	}
+
+	@Override
+	public String getName() {
+		return remote.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return remote.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		return call(cache -> cache.get(key), () -> fallback.get(key));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = wrapper == null ? null : wrapper.get();
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper cached = get(key);
+		if (cached != null) {
+			return (T) cached.get();
+		}
+		T value;
+		try {
+			value = valueLoader.call();
+		} catch (Exception ex) {
+			throw new ValueRetrievalException(key, valueLoader, ex);
+		}
+		put(key, value);
+		return value;
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		run(cache -> cache.put(key, value), () -> {
+			fallback.put(key, new SimpleValueWrapper(value));
+			markPending(key);
+		});
+	}
+
+	@Override
+	public void evict(Object key) {
+		fallback.evict(key);
+		run(cache -> cache.evict(key), () -> markPending(key));
+	}
+
+	@Override
+	public void clear() {
+		fallback.clear();
+		run(Cache::clear, () -> pendingClear = true);
+	}
+
+	NearCache fallback() {
+		return fallback;
+	}
+
+	/**
+	 * Called once the breaker closes: fallback entries are dropped and Redis forgets what it missed.
+	 */
+	void resync() {
+		fallback.clear();
+		if (pendingClear || pendingKeys.size() > maxPendingKeys) {
+			pendingClear = false;
+			pendingKeys.clear();
+			remote.clear();
+			return;
+		}
+		for (String key : Set.copyOf(pendingKeys)) {
+			remote.evict(key);
+			pendingKeys.remove(key);
+		}
+	}
+
+	private void markPending(Object key) {
+		if (pendingKeys.size() <= maxPendingKeys) {
+			pendingKeys.add(String.valueOf(key));
+		} else {
+			pendingClear = true;
+		}
+	}
+
+	private <T> T call(Function<Cache, T> operation, Supplier<T> whenUnavailable) {
+		if (!breaker.allowRequest()) {
+			return whenUnavailable.get();
+		}
+		try {
+			T result = operation.apply(remote);
+			breaker.onSuccess();
+			return result;
+		} catch (DataAccessException ex) {
+			breaker.onFailure(ex);
+			return whenUnavailable.get();
+		} catch (RuntimeException ex) {
+			// Redis answered, the value itself was unusable (e.g. undecodable)
+			breaker.onSuccess();
+			throw ex;
+		}
+	}
+
+	private void run(Consumer<Cache> operation, Runnable whenUnavailable) {
+		call(cache -> {
+			operation.accept(cache);
+			return null;
+		}, () -> {
+			whenUnavailable.run();
+			return null;
+		});
+	}
+}
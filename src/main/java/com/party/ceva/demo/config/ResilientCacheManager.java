@@ -0,0 +1,68 @@
+package com.party.ceva.demo.config;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Wraps every Redis cache in a {@link ResilientCache} sharing one circuit breaker, and resynchronizes
+ * all of them when the breaker closes again. The resync runs on {@code resyncExecutor} rather than on the
+ * request whose probe closed the breaker, since clearing a large cache can take far longer than a lookup.
+ */
+public class ResilientCacheManager implements CacheManager {
+	private static final Logger logger = LoggerFactory.getLogger(ResilientCacheManager.class);
+
+	private final CacheManager remote;
+	private final RedisCircuitBreaker breaker;
+	private final long fallbackTtlMs;
+	private final int fallbackMaxEntries;
+	private final int maxPendingKeys;
+	private final Map<String, ResilientCache> caches = new ConcurrentHashMap<>();
+
+	public ResilientCacheManager(CacheManager remote, RedisCircuitBreaker breaker, long fallbackTtlMs,
+			int fallbackMaxEntries, int maxPendingKeys, Executor resyncExecutor) {
+		this.remote = remote;
+		this.breaker = breaker;
+		this.fallbackTtlMs = fallbackTtlMs;
+		this.fallbackMaxEntries = fallbackMaxEntries;
+		this.maxPendingKeys = maxPendingKeys;
+		breaker.addRecoveryListener(() -> resyncExecutor.execute(this::resync));
+		breaker.trackFallbackEntries(this::fallbackEntries);
+	}
+
+	@Override
+	public Cache getCache(String name) {
+		Cache remoteCache = remote.getCache(name);
+		if (remoteCache == null) {
+			return null;
+		}
+		return caches.computeIfAbsent(name, cacheName -> new ResilientCache(remoteCache,
+				new NearCache(fallbackTtlMs, fallbackMaxEntries), breaker, maxPendingKeys));
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return remote.getCacheNames();
+	}
+
+	private void resync() {
+		for (ResilientCache cache : caches.values()) {
+			try {
+				cache.resync();
+			} catch (RuntimeException ex) {
+				logger.warn("Cache resynchronization after Redis recovery failed: {}", ex.getMessage());
+			}
+		}
+	}
+
+	public long fallbackEntries() {
+		return caches.values().stream().mapToLong(cache -> cache.fallback().size()).sum();
+	}
+}
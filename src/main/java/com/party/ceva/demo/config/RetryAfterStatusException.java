@@ -0,0 +1,31 @@
+package com.party.ceva.demo.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Status exception that tells the client when to try again through the {@code Retry-After} header.
+ * Used for load shedding and throttling responses such as 503 and 429.
+ */
+public class RetryAfterStatusException extends ResponseStatusException {
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfterSeconds;
+
+	public RetryAfterStatusException(HttpStatus status, String reason, long retryAfterSeconds) {
+		super(status, reason);
+		this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+		return headers;
+	}
+}
@@ -1,11 +1,10 @@
 package com.party.ceva.demo.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -39,7 +38,8 @@ public class SecurityConfig {
                 .formLogin(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/api/auth/login", "/api/auth/register", "/api/users/register",
-                                "/swagger-ui/**", "/v3/api-docs/**", "/uploads/**", "/error")
+                                "/swagger-ui/**", "/v3/api-docs/**", "/uploads/**", "/error",
+                                "/.well-known/jwks.json")
                         .permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/news", "/api/news/**").permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -55,7 +55,7 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:5173"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Idempotency-Key"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -63,12 +63,21 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
-    @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
-        return configuration.getAuthenticationManager();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.bcrypt.strength:0}") int strength,
+            @Value("${app.security.bcrypt.target-hash-ms:150}") long targetHashMs,
+            @Value("${app.security.bcrypt.min-strength:10}") int minStrength,
+            @Value("${app.security.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${app.security.bcrypt.pool-threads:0}") int poolThreads,
+            @Value("${app.security.bcrypt.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.bcrypt.wait-timeout-ms:5000}") long waitTimeoutMs,
+            @Value("${app.security.bcrypt.retry-after-seconds:1}") long retryAfterSeconds) {
+        // A fixed strength skips calibration; otherwise pick the strongest cost that fits the budget here
+        int effectiveStrength = strength > 0
+                ? strength
+                : BoundedPasswordEncoder.calibrateStrength(targetHashMs, minStrength, maxStrength);
+        int threads = poolThreads > 0 ? poolThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(effectiveStrength), threads, queueCapacity,
+                waitTimeoutMs, retryAfterSeconds);
     }
 }
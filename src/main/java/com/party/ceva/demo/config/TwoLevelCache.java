@@ -0,0 +1,102 @@
+package com.party.ceva.demo.config;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * Cache that answers from an in-process {@link NearCache} and falls back to the shared Redis cache.
+ * Writes go to Redis first; every put, evict and clear is broadcast so other nodes drop their
+ * near copy and re-read Redis on next access.
+ */
+class TwoLevelCache implements Cache {
+	private final Cache remote;
+	private final NearCache near;
+	private final TwoLevelCacheManager.InvalidationPublisher publisher;
+
+	TwoLevelCache(Cache remote, NearCache near, TwoLevelCacheManager.InvalidationPublisher publisher) {
+		this.remote = remote;
+		this.near = near;
+		this.publisher = publisher;
+	}
+
+	@Override
+	public String getName() {
+		return remote.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return remote.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		ValueWrapper cached = near.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		ValueWrapper loaded = remote.get(key);
+		if (loaded != null) {
+			near.put(key, loaded);
+		}
+		return loaded;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = wrapper == null ? null : wrapper.get();
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper cached = near.get(key);
+		if (cached != null) {
+			return (T) cached.get();
+		}
+		T value = remote.get(key, valueLoader);
+		near.put(key, new SimpleValueWrapper(value));
+		return value;
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		remote.put(key, value);
+		near.put(key, new SimpleValueWrapper(value));
+		publisher.publish(getName(), key);
+	}
+
+	@Override
+	public void evict(Object key) {
+		remote.evict(key);
+		near.evict(key);
+		publisher.publish(getName(), key);
+	}
+
+	@Override
+	public void clear() {
+		remote.clear();
+		near.clear();
+		publisher.publish(getName(), null);
+	}
+
+	NearCache near() {
+		return near;
+	}
+
+	void invalidateLocal(String key) {
+		if (key == null) {
+			near.clear();
+		} else {
+			near.evict(key);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.party.ceva.demo.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Wraps the Redis cache manager and puts a near cache in front of the configured cache names.
+ * Invalidations are exchanged over a Redis channel as {@code nodeId|cacheName|key}; an empty key
+ * clears the whole near cache. A node ignores its own messages since it already updated itself.
+ * While the Redis circuit breaker is not closed nothing is broadcast, and once it closes the near caches
+ * are dropped, since invalidations from peers may have been missed in between.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+	private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+	public static final String CHANNEL = "cache:invalidations";
+	private static final String SEPARATOR = "|";
+
+	private final CacheManager remote;
+	private final StringRedisTemplate redisTemplate;
+	private final RedisCircuitBreaker breaker;
+	private final Set<String> nearCacheNames;
+	private final long nearTtlMs;
+	private final int nearMaxEntries;
+	private final String nodeId = UUID.randomUUID().toString();
+	private final Map<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+
+	public TwoLevelCacheManager(CacheManager remote, StringRedisTemplate redisTemplate, Set<String> nearCacheNames,
+			long nearTtlMs, int nearMaxEntries) {
+		this(remote, redisTemplate, null, nearCacheNames, nearTtlMs, nearMaxEntries);
+	}
+
+	public TwoLevelCacheManager(CacheManager remote, StringRedisTemplate redisTemplate, RedisCircuitBreaker breaker,
+			Set<String> nearCacheNames, long nearTtlMs, int nearMaxEntries) {
+		this.remote = remote;
+		this.redisTemplate = redisTemplate;
+		this.breaker = breaker;
+		if (breaker != null) {
+			breaker.addRecoveryListener(() -> twoLevelCaches.values().forEach(cache -> cache.invalidateLocal(null)));
+		}
+		this.nearCacheNames = Set.copyOf(nearCacheNames);
+		this.nearTtlMs = nearTtlMs;
+		this.nearMaxEntries = nearMaxEntries;
+		logger.info("Initialized two-level cache manager with near caches {} (ttl={}ms, maxEntries={})",
+				this.nearCacheNames, nearTtlMs, nearMaxEntries);
+	}
+
+	@Override
+	public Cache getCache(String name) {
+		Cache remoteCache = remote.getCache(name);
+		if (remoteCache == null || !nearCacheNames.contains(name)) {
+			return remoteCache;
+		}
+		return twoLevelCaches.computeIfAbsent(name,
+				cacheName -> new TwoLevelCache(remoteCache, new NearCache(nearTtlMs, nearMaxEntries), this::publish));
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return remote.getCacheNames();
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+		if (parts.length < 3 || nodeId.equals(parts[0])) {
+			return;
+		}
+		TwoLevelCache cache = twoLevelCaches.get(parts[1]);
+		if (cache != null) {
+			cache.invalidateLocal(parts[2].isEmpty() ? null : parts[2]);
+			logger.debug("Dropped near cache entry {} in {} after remote invalidation", parts[2], parts[1]);
+		}
+	}
+
+	private void publish(String cacheName, Object key) {
+		if (breaker != null && !breaker.isClosed()) {
+			return;
+		}
+		String payload = nodeId + SEPARATOR + cacheName + SEPARATOR + (key == null ? "" : String.valueOf(key));
+		try {
+			redisTemplate.convertAndSend(CHANNEL, payload);
+		} catch (RuntimeException ex) {
+			// Other nodes still converge when their near entries expire
+			logger.warn("Failed to broadcast cache invalidation for {}: {}", cacheName, ex.getMessage());
+		}
+	}
+
+	@FunctionalInterface
+	interface InvalidationPublisher {
+		void publish(String cacheName, Object key);
+	}
+}
@@ -0,0 +1,69 @@
+package com.party.ceva.demo.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.party.ceva.demo.config.InstrumentedCacheManager;
+import com.party.ceva.demo.config.RedisCircuitBreaker;
+import com.party.ceva.demo.dto.CacheDetailsDto;
+import com.party.ceva.demo.dto.CacheStatsDto;
+import com.party.ceva.demo.dto.CircuitBreakerStatsDto;
+import com.party.ceva.demo.service.UserPrincipalCache;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+public class AdminCacheController {
+
+	private final UserPrincipalCache userPrincipalCache;
+	private final InstrumentedCacheManager cacheManager;
+	private final RedisCircuitBreaker redisCircuitBreaker;
+
+	public AdminCacheController(UserPrincipalCache userPrincipalCache, InstrumentedCacheManager cacheManager,
+			RedisCircuitBreaker redisCircuitBreaker) {
+		this.userPrincipalCache = userPrincipalCache;
+		this.cacheManager = cacheManager;
+		this.redisCircuitBreaker = redisCircuitBreaker;
+	}
+
+	@GetMapping
+	public List<CacheStatsDto> listCaches() {
+		List<CacheStatsDto> caches = new ArrayList<>(cacheManager.stats());
+		caches.add(userPrincipalCache.stats());
+		return caches;
+	}
+
+	@GetMapping("/principals")
+	public CacheStatsDto getPrincipalCacheStats() {
+		return userPrincipalCache.stats();
+	}
+
+	@GetMapping("/redis-breaker")
+	public CircuitBreakerStatsDto getRedisBreakerStats() {
+		return redisCircuitBreaker.stats();
+	}
+
+	@GetMapping("/{name}")
+	public CacheDetailsDto inspectCache(@PathVariable String name) {
+		return cacheManager.inspect(name)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown cache " + name));
+	}
+
+	@DeleteMapping("/{name}")
+	public ResponseEntity<Void> flushCache(@PathVariable String name) {
+		if (UserPrincipalCache.NAME.equals(name)) {
+			userPrincipalCache.clear();
+		} else if (!cacheManager.flush(name)) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown cache " + name);
+		}
+		return ResponseEntity.noContent().build();
+	}
+}
@@ -0,0 +1,65 @@
+package com.party.ceva.demo.controller;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.party.ceva.demo.model.RoleTypes;
+import com.party.ceva.demo.service.UserImportService;
+import com.party.ceva.demo.service.UserService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/admin/users")
+public class AdminUserController {
+
+	private final UserImportService userImportService;
+	private final UserService userService;
+	private final Duration importRequestTimeout;
+
+	public AdminUserController(UserImportService userImportService, UserService userService,
+			@Value("${app.users.import.request-timeout:2h}") Duration importRequestTimeout) {
+		this.userImportService = userImportService;
+		this.userService = userService;
+		this.importRequestTimeout = importRequestTimeout;
+	}
+
+	/**
+	 * Replaces the roles of a user; tokens issued with the old roles stop being trusted.
+	 */
+	@PutMapping("/{id}/roles")
+	public ResponseEntity<Set<RoleTypes>> updateRoles(@PathVariable Long id, @RequestBody Set<RoleTypes> roles) {
+		return ResponseEntity.ok(userService.updateRoles(id, roles));
+	}
+
+	/**
+	 * Imports members from a CSV (text/csv) or NDJSON (application/x-ndjson) body.
+	 * The body is read as it arrives and row errors and progress are streamed back as NDJSON.
+	 * Only this request gets the long {@code app.users.import.request-timeout}; other async requests keep the
+	 * global one.
+	 */
+	@PostMapping(value = "/import", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE },
+			produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> importUsers(HttpServletRequest request,
+			@RequestHeader("Content-Type") String contentType) {
+		UserImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(
+				MediaType.parseMediaType("text/csv")) ? UserImportService.Format.CSV : UserImportService.Format.NDJSON;
+		// Read by the streaming body handler when it starts async processing for this request
+		WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(importRequestTimeout.toMillis());
+		StreamingResponseBody body = output -> userImportService.importUsers(request.getInputStream(), format, output);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+}
@@ -0,0 +1,40 @@
+package com.party.ceva.demo.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.party.ceva.demo.dto.XpAwardBatchResult;
+import com.party.ceva.demo.dto.XpAwardRequest;
+import com.party.ceva.demo.service.XpLedgerService;
+
+@RestController
+@RequestMapping("/api/admin/xp")
+public class AdminXpController {
+
+	private final XpLedgerService xpLedgerService;
+
+	public AdminXpController(XpLedgerService xpLedgerService) {
+		this.xpLedgerService = xpLedgerService;
+	}
+
+	/**
+	 * Applies a batch of awards. Each award's idempotency key is applied at most once, so the whole batch can be
+	 * resent after a timeout; the response reports every award as applied, duplicate or rejected.
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<XpAwardBatchResult> awardBatch(@RequestBody List<XpAwardRequest> awards) {
+		try {
+			return ResponseEntity.ok(xpLedgerService.awardBatch(awards));
+		} catch (IllegalArgumentException ex) {
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage()))
+					.build();
+		}
+	}
+}
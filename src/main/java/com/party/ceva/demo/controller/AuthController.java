@@ -4,19 +4,23 @@ import com.party.ceva.demo.dto.AuthRequest;
 import com.party.ceva.demo.dto.AuthResponse;
 import com.party.ceva.demo.dto.UserDto;
 import com.party.ceva.demo.service.JwtService;
+import com.party.ceva.demo.service.LoginSnapshot;
+import com.party.ceva.demo.service.LoginThrottleService;
+import com.party.ceva.demo.service.TokenRevocationService;
 import com.party.ceva.demo.service.UserService;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -24,35 +28,54 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/auth")
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginThrottleService loginThrottleService;
 
-    public AuthController(AuthenticationManager authenticationManager, UserService userService, JwtService jwtService) {
-        this.authenticationManager = authenticationManager;
+    public AuthController(UserService userService, JwtService jwtService,
+                          TokenRevocationService tokenRevocationService, LoginThrottleService loginThrottleService) {
         this.userService = userService;
         this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.loginThrottleService = loginThrottleService;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
-        try {
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
-            UserDto user = userService.findByEmail(request.getEmail()).orElse(null);
-            String token = jwtService.generateToken(authentication);
-            return ResponseEntity.ok(new AuthResponse("Login successful", user, token));
-        } catch (AuthenticationException ex) {
+    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        loginThrottleService.checkLogin(httpRequest.getRemoteAddr(), request.getEmail());
+        LoginSnapshot snapshot = userService.login(request.getEmail(), request.getPassword()).orElse(null);
+        if (snapshot == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(new AuthResponse("Invalid email or password", null, null));
         }
+
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+            snapshot.principal(), null, snapshot.principal().getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        String token = jwtService.generateToken(authentication);
+        return ResponseEntity.ok(new AuthResponse("Login successful", snapshot.user(), token));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            tokenRevocationService.revoke(jwtService.verifyToken(authHeader.substring(7)));
+        } catch (JwtException ex) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@RequestBody UserDto userDto) {
+    public ResponseEntity<AuthResponse> register(@RequestBody UserDto userDto, HttpServletRequest httpRequest) {
+        loginThrottleService.checkRegistration(httpRequest.getRemoteAddr());
         UserDto created = userService.registerUser(userDto);
         return ResponseEntity.status(HttpStatus.CREATED)
             .body(new AuthResponse("Registration successful", created, null));
@@ -14,9 +14,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.party.ceva.demo.dto.CursorPage;
 import com.party.ceva.demo.dto.EventDto;
 import com.party.ceva.demo.service.EventService;
 
@@ -32,7 +34,13 @@ public class EventController {
 
 	@GetMapping
 	public Page<EventDto> getEvents(Pageable pageable) {
-		return this.eventService.getUpcomingAndOngoingEvents(pageable, LocalDateTime.now());
+		return this.eventService.getUpcomingAndOngoingEvents(pageable);
+	}
+
+	@GetMapping("/scroll")
+	public CursorPage<EventDto> scrollEvents(@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size) {
+		return this.eventService.scrollUpcomingAndOngoingEvents(cursor, size, LocalDateTime.now());
 	}
 
 	@GetMapping("/joined")
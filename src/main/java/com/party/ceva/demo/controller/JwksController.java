@@ -0,0 +1,53 @@
+package com.party.ceva.demo.controller;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.party.ceva.demo.service.JwtKeyStore;
+
+@RestController
+public class JwksController {
+
+	private final JwtKeyStore jwtKeyStore;
+	private final long maxAgeSeconds;
+
+	public JwksController(JwtKeyStore jwtKeyStore,
+			@Value("${app.jwt.keys.jwks-max-age-seconds:300}") long maxAgeSeconds) {
+		this.jwtKeyStore = jwtKeyStore;
+		this.maxAgeSeconds = maxAgeSeconds;
+	}
+
+	/**
+	 * Public verification keys for edge proxies and other services; they may cache the set by kid
+	 * for max-age and refetch when they meet an unknown kid. Not found unless tokens are signed with ES256,
+	 * since HS256 tokens cannot be verified with a public key.
+	 */
+	@GetMapping("/.well-known/jwks.json")
+	public ResponseEntity<Map<String, Object>> getJwks() {
+		requireEnabled();
+		return ResponseEntity.ok()
+				.cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic())
+				.body(jwtKeyStore.publicJwkSet());
+	}
+
+	@PostMapping("/api/admin/jwt/keys/rotate")
+	public Map<String, String> rotateSigningKey() {
+		requireEnabled();
+		return Map.of("kid", jwtKeyStore.rotate());
+	}
+
+	private void requireEnabled() {
+		if (!jwtKeyStore.isEnabled()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "ES256 signing is not enabled");
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.party.ceva.demo.controller;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.party.ceva.demo.dto.LeaderboardEntryDto;
+import com.party.ceva.demo.dto.UserDto;
+import com.party.ceva.demo.service.AuthenticatedUser;
+import com.party.ceva.demo.service.LeaderboardService;
+import com.party.ceva.demo.service.UserService;
+import com.party.ceva.demo.service.WindowedLeaderboard;
+
+@RestController
+@RequestMapping("api/leaderboard")
+public class LeaderboardController {
+
+	private final LeaderboardService leaderboardService;
+	private final UserService userService;
+
+	public LeaderboardController(LeaderboardService leaderboardService, UserService userService) {
+		this.leaderboardService = leaderboardService;
+		this.userService = userService;
+	}
+
+	@GetMapping("/top")
+	public List<LeaderboardEntryDto> top(@RequestParam(defaultValue = "10") int limit) {
+		return leaderboardService.top(limit);
+	}
+
+	@GetMapping("/me")
+	public ResponseEntity<LeaderboardEntryDto> myEntry() {
+		Optional<Long> userId = currentUserId();
+		if (userId.isEmpty()) {
+			return ResponseEntity.status(401).build();
+		}
+		return ResponseEntity.of(leaderboardService.entryOf(userId.get()));
+	}
+
+	@GetMapping("/me/around")
+	public ResponseEntity<List<LeaderboardEntryDto>> aroundMe(@RequestParam(defaultValue = "5") int radius) {
+		Optional<Long> userId = currentUserId();
+		if (userId.isEmpty()) {
+			return ResponseEntity.status(401).build();
+		}
+		return ResponseEntity.ok(leaderboardService.around(userId.get(), radius));
+	}
+
+	@GetMapping("/{window}/top")
+	public List<LeaderboardEntryDto> windowTop(@PathVariable String window,
+			@RequestParam(defaultValue = "10") int limit) {
+		return leaderboardService.top(parseWindow(window), limit);
+	}
+
+	@GetMapping("/{window}/me")
+	public ResponseEntity<LeaderboardEntryDto> myWindowEntry(@PathVariable String window) {
+		WindowedLeaderboard.Window parsed = parseWindow(window);
+		Optional<Long> userId = currentUserId();
+		if (userId.isEmpty()) {
+			return ResponseEntity.status(401).build();
+		}
+		return ResponseEntity.of(leaderboardService.entryOf(parsed, userId.get()));
+	}
+
+	@GetMapping("/{window}/me/around")
+	public ResponseEntity<List<LeaderboardEntryDto>> aroundMeInWindow(@PathVariable String window,
+			@RequestParam(defaultValue = "5") int radius) {
+		WindowedLeaderboard.Window parsed = parseWindow(window);
+		Optional<Long> userId = currentUserId();
+		if (userId.isEmpty()) {
+			return ResponseEntity.status(401).build();
+		}
+		return ResponseEntity.ok(leaderboardService.around(parsed, userId.get(), radius));
+	}
+
+	private WindowedLeaderboard.Window parseWindow(String window) {
+		try {
+			return WindowedLeaderboard.Window.valueOf(window.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException ex) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown leaderboard window " + window);
+		}
+	}
+
+	private Optional<Long> currentUserId() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+			return Optional.empty();
+		}
+		Object principal = authentication.getPrincipal();
+		if (principal instanceof AuthenticatedUser authenticatedUser) {
+			return Optional.of(authenticatedUser.getId());
+		}
+		String email = principal instanceof UserDetails userDetails ? userDetails.getUsername()
+				: authentication.getName();
+		return userService.findByEmail(email).map(UserDto::getId);
+	}
+}
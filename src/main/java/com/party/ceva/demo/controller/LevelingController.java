@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -47,8 +48,15 @@ public class LevelingController {
         }
     }
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    /**
+     * Awards XP to the caller. A retry carrying the same {@code Idempotency-Key} header is not applied again
+     * and answers with the current level.
+     */
     @PostMapping("/me/xp")
-    public ResponseEntity<LevelDto> addXpToCurrentUser(@RequestBody AddXpRequest request) {
+    public ResponseEntity<LevelDto> addXpToCurrentUser(@RequestBody AddXpRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
             return ResponseEntity.status(401).build();
@@ -74,8 +82,16 @@ public class LevelingController {
             log.info("Adding {} XP to user {} (reason: {})", request.getAmount(), user.getId(), request.getReason());
         }
 
+        if (idempotencyKey != null
+            && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            log.warn("Add XP rejected for user {}: invalid idempotency key", user.getId());
+            return ResponseEntity.badRequest().build();
+        }
+
         try {
-            levelingSystemService.addXpToUser(user.getId(), request.getAmount());
+            // Scoped to the caller so two users cannot collide on the same client-chosen key
+            String scopedKey = idempotencyKey == null ? null : "user:" + user.getId() + ":" + idempotencyKey;
+            levelingSystemService.addXpToUser(user.getId(), request.getAmount(), request.getReason(), scopedKey);
             Level updatedLevel = levelingSystemService.getLevelByUserId(user.getId());
             LevelDto dto = LevelDto.fromLevel(
                 updatedLevel.getCurrentLevel(),
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.party.ceva.demo.dto.CreateNewsRequest;
+import com.party.ceva.demo.dto.CursorPage;
 import com.party.ceva.demo.model.News;
 import com.party.ceva.demo.service.NewsService;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -37,6 +38,12 @@ public class NewsController {
 		return this.newsService.findAllNews(pageable);
 	}
 
+	@GetMapping("/scroll")
+	public CursorPage<News> scrollNews(@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size) {
+		return this.newsService.scrollNews(cursor, size);
+	}
+
 	@GetMapping("/news/{id}")
 	public ResponseEntity<News> getNews(@PathVariable Long id) {
 		return newsService.findNewsById(id)
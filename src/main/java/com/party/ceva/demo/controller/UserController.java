@@ -7,7 +7,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,7 +18,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import jakarta.servlet.http.HttpServletRequest;
+import tools.jackson.databind.JsonNode;
+
+import com.party.ceva.demo.service.LoginThrottleService;
 import com.party.ceva.demo.service.UserService;
+import com.party.ceva.demo.dto.CursorPage;
 import com.party.ceva.demo.dto.UserDto;
 import com.party.ceva.demo.dto.UserProfileDto;
 
@@ -25,9 +32,11 @@ import com.party.ceva.demo.dto.UserProfileDto;
 public class UserController {
 
 	private final UserService userService;
+	private final LoginThrottleService loginThrottleService;
 
-	public UserController(UserService userService) {
+	public UserController(UserService userService, LoginThrottleService loginThrottleService) {
 		this.userService = userService;
+		this.loginThrottleService = loginThrottleService;
 	}
 
 	@GetMapping
@@ -35,6 +44,12 @@ public class UserController {
 		return this.userService.findAllUsers(pageable);
 	}
 
+	@GetMapping("/scroll")
+	public CursorPage<UserDto> scrollUsers(@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size) {
+		return this.userService.scrollUsers(cursor, size);
+	}
+
 	@GetMapping("/{id}")
 	public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
 		return userService.findById(id)
@@ -48,7 +63,8 @@ public class UserController {
 	}
 
 	@PostMapping("/register")
-	public UserDto registerUser(@RequestBody UserDto userDto) {
+	public UserDto registerUser(@RequestBody UserDto userDto, HttpServletRequest httpRequest) {
+		loginThrottleService.checkRegistration(httpRequest.getRemoteAddr());
 		return userService.registerUser(userDto);
 	}
 
@@ -76,6 +92,27 @@ public class UserController {
 		return ResponseEntity.ok(updatedUser);
 	}
 
+	/**
+	 * Partial profile update with JSON merge-patch semantics: only the fields sent are changed.
+	 */
+	@PatchMapping(value = "/{id}/profile", consumes = { "application/merge-patch+json", "application/json" })
+	public ResponseEntity<UserDto> patchUserProfile(@PathVariable Long id, @RequestBody JsonNode patch) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+			return ResponseEntity.status(401).build();
+		}
+
+		String userEmail;
+		Object principal = authentication.getPrincipal();
+		if (principal instanceof UserDetails userDetails) {
+			userEmail = userDetails.getUsername();
+		} else {
+			userEmail = authentication.getName();
+		}
+
+		return ResponseEntity.ok(userService.patchUserProfile(id, patch, userEmail));
+	}
+
 	@DeleteMapping("/{id}")
 	public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
 		userService.deleteUser(id);
@@ -0,0 +1,21 @@
+package com.party.ceva.demo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheDetailsDto {
+	private CacheStatsDto stats;
+	private long ttlMillis;
+	private int maxEntries;
+	private boolean cacheNulls;
+	private double refreshAhead;
+	private long coalescedLoads;
+	private long refreshes;
+	private List<String> newestKeys;
+}
@@ -0,0 +1,23 @@
+package com.party.ceva.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+	private String name;
+	private long size;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long loads;
+	private double averageLoadMillis;
+
+	public double getHitRatio() {
+		long requests = hits + misses;
+		return requests == 0 ? 0.0 : (double) hits / requests;
+	}
+}
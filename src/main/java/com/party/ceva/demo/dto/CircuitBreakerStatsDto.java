@@ -0,0 +1,18 @@
+package com.party.ceva.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CircuitBreakerStatsDto {
+	private String state;
+	private int consecutiveFailures;
+	private long failures;
+	private long rejected;
+	private long timesOpened;
+	private long stateChangedAtMillis;
+	private long fallbackEntries;
+}
@@ -0,0 +1,33 @@
+package com.party.ceva.demo.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One slice of a keyset-paginated listing. {@code nextCursor} is opaque to clients and is
+ * passed back unchanged to fetch the following slice; no total count is computed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+	private List<T> content;
+	private String nextCursor;
+	private boolean hasNext;
+
+	/**
+	 * Builds a page from a query that fetched up to {@code size + 1} rows; the extra row only
+	 * signals that another page exists.
+	 */
+	public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, T> mapper,
+			Function<E, String> cursorOf) {
+		boolean hasNext = rows.size() > size;
+		List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+		String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null;
+		return new CursorPage<>(pageRows.stream().map(mapper).toList(), nextCursor, hasNext);
+	}
+}
@@ -0,0 +1,17 @@
+package com.party.ceva.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDto {
+	private long rank;
+	private Long userId;
+	private String firstName;
+	private String lastName;
+	private long totalXp;
+	private int level;
+}
@@ -0,0 +1,37 @@
+package com.party.ceva.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One NDJSON line streamed back while a bulk user import runs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportEvent {
+	private String type;
+	private Long line;
+	private String email;
+	private String message;
+	private Long processed;
+	private Long imported;
+	private Long failed;
+	private Long elapsedMs;
+
+	public static UserImportEvent error(long line, String email, String message) {
+		return new UserImportEvent("error", line, email, message, null, null, null, null);
+	}
+
+	public static UserImportEvent progress(long processed, long imported, long failed) {
+		return new UserImportEvent("progress", null, null, null, processed, imported, failed, null);
+	}
+
+	public static UserImportEvent done(long processed, long imported, long failed, long elapsedMs) {
+		return new UserImportEvent("done", null, null, null, processed, imported, failed, elapsedMs);
+	}
+}
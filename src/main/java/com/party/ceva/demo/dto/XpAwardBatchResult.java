@@ -0,0 +1,25 @@
+package com.party.ceva.demo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class XpAwardBatchResult {
+	private int applied;
+	private int duplicates;
+	private int rejected;
+	// One per submitted award, in request order
+	private List<Outcome> outcomes;
+
+	public enum Status {
+		APPLIED, DUPLICATE, REJECTED
+	}
+
+	public record Outcome(String idempotencyKey, Status status, String error) {
+	}
+}
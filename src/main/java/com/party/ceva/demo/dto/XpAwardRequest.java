@@ -0,0 +1,15 @@
+package com.party.ceva.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class XpAwardRequest {
+	private Long userId;
+	private long amount;
+	private String reason;
+	private String idempotencyKey;
+}
@@ -0,0 +1,13 @@
+package com.party.ceva.demo.event;
+
+/**
+ * Fact recorded in the outbox in the same transaction as the change it describes.
+ * Implementations are immutable records serialized to JSON; the simple class name is stored as the event type.
+ */
+public interface DomainEvent {
+
+	/**
+	 * Id of the entity the event is about, stored alongside the payload for lookups and ordering.
+	 */
+	Long aggregateId();
+}
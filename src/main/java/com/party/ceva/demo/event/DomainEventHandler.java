@@ -0,0 +1,18 @@
+package com.party.ceva.demo.event;
+
+/**
+ * Consumer of one outbox event type. Delivery is at least once: the dispatcher runs each handler in its own
+ * transaction together with a receipt keyed by event id and {@link #name()}, so a handler whose transaction
+ * committed is never run again for the same event, even if the event itself is redelivered.
+ */
+public interface DomainEventHandler<E extends DomainEvent> {
+
+	/**
+	 * Stable consumer name used for receipts; renaming it makes pending events run through the handler again.
+	 */
+	String name();
+
+	Class<E> eventType();
+
+	void handle(E event);
+}
@@ -0,0 +1,9 @@
+package com.party.ceva.demo.event;
+
+public record EventJoined(Long eventId, Long userId) implements DomainEvent {
+
+	@Override
+	public Long aggregateId() {
+		return eventId;
+	}
+}
@@ -0,0 +1,12 @@
+package com.party.ceva.demo.event;
+
+/**
+ * A user signed up, optionally with the referral code of {@code referrerId}.
+ */
+public record UserRegistered(Long userId, Long referrerId) implements DomainEvent {
+
+	@Override
+	public Long aggregateId() {
+		return userId;
+	}
+}
@@ -0,0 +1,12 @@
+package com.party.ceva.demo.event;
+
+/**
+ * XP was added to a user; carries the level and XP within that level after the award.
+ */
+public record XpAwarded(Long userId, long amount, int currentLevel, long currentXp) implements DomainEvent {
+
+	@Override
+	public Long aggregateId() {
+		return userId;
+	}
+}
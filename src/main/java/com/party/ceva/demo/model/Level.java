@@ -45,6 +45,22 @@ public class Level {
         calculateNextLevelXP();
     }
 
+    /**
+     * Adds XP to the current level and turns every full level's worth into level-ups,
+     * in one lookup on the level curve however many levels the XP covers.
+     *
+     * @return the number of levels gained
+     */
+    public int addXp(long amount) {
+        LevelCurve curve = LevelCurve.current();
+        long totalXp = curve.cumulativeXp(this.currentLevel) + this.currentXP + amount;
+        int reachedLevel = curve.levelForTotalXp(totalXp);
+        int levelsGained = reachedLevel - this.currentLevel;
+        setCurrentLevel(reachedLevel);
+        this.currentXP = totalXp - curve.cumulativeXp(reachedLevel);
+        return levelsGained;
+    }
+
     // Ensures level is never 0 and recalculates whenever the object is loaded or before saving
     @PrePersist
     @PreUpdate
@@ -57,6 +73,6 @@ public class Level {
     }
 
     private void calculateNextLevelXP() {
-        this.nextLevelXP = (long) (100 * Math.pow(this.currentLevel, 1.5));
+        this.nextLevelXP = LevelCurve.current().xpToNext(this.currentLevel);
     }
 }
@@ -0,0 +1,108 @@
+package com.party.ceva.demo.model;
+
+import java.util.Arrays;
+
+/**
+ * XP curve where reaching level {@code n + 1} from level {@code n} costs {@code floor(base * n^exponent)} XP.
+ * <p>
+ * The cumulative XP at the start of each level is precomputed into a sorted table, so a lifetime XP total
+ * maps to its level with one binary search and no allocation. The table starts small and grows on demand
+ * (copy on write, so readers never lock) up to the level whose cumulative XP would overflow a {@code long}.
+ * <p>
+ * Entities are not Spring beans, so {@link Level} reads the curve through {@link #current()}; the configured
+ * curve is installed at startup and the default matches the original hard-coded formula.
+ */
+public final class LevelCurve {
+	private static final int INITIAL_LEVELS = 256;
+
+	private static volatile LevelCurve current = new LevelCurve(100, 1.5);
+
+	private final double base;
+	private final double exponent;
+	// cumulative[i] is the total XP earned on reaching level i + 1; cumulative[0] = 0
+	private volatile long[] cumulative;
+	private volatile boolean saturated;
+
+	public LevelCurve(double base, double exponent) {
+		if (!(base >= 1) || !(exponent >= 0)) {
+			throw new IllegalArgumentException("Level curve needs base >= 1 and exponent >= 0");
+		}
+		this.base = base;
+		this.exponent = exponent;
+		this.cumulative = new long[] { 0 };
+		extendTo(INITIAL_LEVELS);
+	}
+
+	public static LevelCurve current() {
+		return current;
+	}
+
+	public static void install(LevelCurve curve) {
+		current = curve;
+	}
+
+	/**
+	 * XP needed to go from {@code level} to the next one.
+	 */
+	public long xpToNext(int level) {
+		int index = Math.max(1, level);
+		long[] table = tableCovering(index);
+		if (index >= table.length) {
+			return Long.MAX_VALUE;
+		}
+		return table[index] - table[index - 1];
+	}
+
+	/**
+	 * Total XP earned from level 1 up to the start of {@code level}.
+	 */
+	public long cumulativeXp(int level) {
+		int index = Math.max(1, level) - 1;
+		long[] table = tableCovering(index);
+		return index < table.length ? table[index] : table[table.length - 1];
+	}
+
+	/**
+	 * The level reached with {@code totalXp} lifetime XP.
+	 */
+	public int levelForTotalXp(long totalXp) {
+		if (totalXp <= 0) {
+			return 1;
+		}
+		long[] table = cumulative;
+		while (table[table.length - 1] <= totalXp && !saturated) {
+			extendTo(table.length * 2);
+			table = cumulative;
+		}
+		int found = Arrays.binarySearch(table, totalXp);
+		// Exact hit: the level starting at that total; otherwise the insertion point is the level number
+		return found >= 0 ? found + 1 : -found - 1;
+	}
+
+	private long[] tableCovering(int index) {
+		long[] table = cumulative;
+		if (index >= table.length && !saturated) {
+			extendTo(index + 1);
+			table = cumulative;
+		}
+		return table;
+	}
+
+	private synchronized void extendTo(int size) {
+		long[] table = cumulative;
+		if (table.length >= size || saturated) {
+			return;
+		}
+		long[] extended = Arrays.copyOf(table, size);
+		for (int i = table.length; i < size; i++) {
+			long step = Math.max(1, (long) (base * Math.pow(i, exponent)));
+			if (extended[i - 1] > Long.MAX_VALUE - step) {
+				extended = Arrays.copyOf(extended, i);
+				saturated = true;
+				break;
+			}
+			extended[i] = extended[i - 1] + step;
+		}
+		cumulative = extended;
+	}
+}
@@ -22,7 +22,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "news", indexes = {
-		@Index(name = "idx_news_created_at", columnList = "created_at")
+		@Index(name = "idx_news_created_at", columnList = "created_at"),
+		@Index(name = "idx_news_created_at_id", columnList = "created_at, id")
 })
 public class News implements Serializable {
 	@Id
@@ -0,0 +1,61 @@
+package com.party.ceva.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "outbox_events", indexes = {
+		@Index(name = "idx_outbox_events_status_available", columnList = "status, available_at, id"),
+		@Index(name = "idx_outbox_events_status_processed", columnList = "status, processed_at")
+})
+public class OutboxEvent {
+
+	public enum Status {
+		PENDING, PROCESSED, FAILED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "event_type", nullable = false, length = 64)
+	private String eventType;
+
+	@Column(name = "aggregate_id")
+	private Long aggregateId;
+
+	@Column(nullable = false, columnDefinition = "TEXT")
+	private String payload;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 16)
+	private Status status = Status.PENDING;
+
+	@Column(nullable = false)
+	private int attempts;
+
+	@Column(name = "last_error", length = 1000)
+	private String lastError;
+
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+	@Column(name = "available_at", nullable = false)
+	private LocalDateTime availableAt;
+
+	@Column(name = "processed_at")
+	private LocalDateTime processedAt;
+}
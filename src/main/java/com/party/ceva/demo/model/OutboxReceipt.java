@@ -0,0 +1,39 @@
+package com.party.ceva.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proof that a consumer finished handling an outbox event, written in the consumer's own transaction.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_receipts",
+		uniqueConstraints = @UniqueConstraint(name = "uk_outbox_receipt_event_consumer",
+				columnNames = { "event_id", "consumer" }))
+public class OutboxReceipt {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "event_id", nullable = false)
+	private Long eventId;
+
+	@Column(nullable = false, length = 64)
+	private String consumer;
+
+	@Column(name = "handled_at", nullable = false)
+	private LocalDateTime handledAt;
+}
@@ -46,9 +46,13 @@ public class User {
 	@JsonManagedReference
 	private Level level;
 
-	@Column(unique = true, length = 4)
+	@Column(unique = true, length = 12)
 	private String code;
 
+	// Bumped whenever credentials or roles change so previously issued JWT role claims stop being trusted
+	@Column(nullable = false, columnDefinition = "bigint default 0")
+	private long authVersion = 0;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "referred_by_id")
 	private User referredBy;
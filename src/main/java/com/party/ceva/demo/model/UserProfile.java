@@ -3,6 +3,8 @@ package com.party.ceva.demo.model;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.Entity;
@@ -17,6 +19,8 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "user_profile")
+// Profile edits usually touch one or two columns; only those are written
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
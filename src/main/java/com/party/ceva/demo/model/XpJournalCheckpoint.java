@@ -0,0 +1,31 @@
+package com.party.ceva.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last XP journal segment whose awards are in the database, written in the same transaction as those awards.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "xp_journal_checkpoints")
+public class XpJournalCheckpoint {
+	@Id
+	@Column(name = "journal_name", length = 64)
+	private String journalName;
+
+	@Column(name = "last_segment", nullable = false)
+	private long lastSegment;
+
+	@Column(name = "updated_at", nullable = false)
+	private LocalDateTime updatedAt;
+}
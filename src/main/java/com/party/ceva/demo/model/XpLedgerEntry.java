@@ -0,0 +1,54 @@
+package com.party.ceva.demo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One applied XP award, from any award path. Rows are only ever inserted; the idempotency key makes a retried
+ * award a no-op, and the award time lets the windowed leaderboards be rebuilt after a restart.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "xp_ledger",
+		uniqueConstraints = @UniqueConstraint(name = "uk_xp_ledger_idempotency_key",
+				columnNames = "idempotency_key"),
+		indexes = {
+				@Index(name = "idx_xp_ledger_batch", columnList = "batch_id"),
+				@Index(name = "idx_xp_ledger_created", columnList = "created_at")
+		})
+public class XpLedgerEntry {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "idempotency_key", nullable = false, length = 100)
+	private String idempotencyKey;
+
+	@Column(name = "batch_id", nullable = false, length = 36)
+	private String batchId;
+
+	@Column(name = "user_id", nullable = false)
+	private Long userId;
+
+	@Column(nullable = false)
+	private long amount;
+
+	@Column(length = 255)
+	private String reason;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+}
@@ -2,6 +2,7 @@ package com.party.ceva.demo.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -14,4 +15,7 @@ public interface EventParticipationRepository extends JpaRepository<EventPartici
 
 	@Query("select ep.event.id from EventParticipation ep where ep.user.id = :userId order by ep.event.id")
 	List<Long> findJoinedEventIdsByUserId(Long userId);
+
+	@Query("select ep.user.id from EventParticipation ep group by ep.user.id order by max(ep.joinedAt) desc")
+	List<Long> findRecentlyActiveUserIds(Limit limit);
 }
@@ -2,6 +2,9 @@ package com.party.ceva.demo.repository;
 
 import java.time.LocalDateTime;
 
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
@@ -9,9 +12,17 @@ import org.springframework.stereotype.Repository;
 import com.party.ceva.demo.model.Event;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
     Page<Event> findByStartTimeBetween(LocalDateTime startTime, LocalDateTime endTime, Pageable pageable);
     Page<Event> findByEndTimeGreaterThanEqual(LocalDateTime threshold, Pageable pageable);
+
+    List<Event> findByEndTimeGreaterThanEqualOrderByEndTimeAscIdAsc(LocalDateTime threshold, Limit limit);
+
+    // Seeks past the last (endTime, id) returned; served by idx_events_end_time_id
+    @Query("select e from Event e where e.endTime >= :threshold and (e.endTime > :endTime "
+            + "or (e.endTime = :endTime and e.id > :id)) order by e.endTime asc, e.id asc")
+    List<Event> findUpcomingAfter(LocalDateTime threshold, LocalDateTime endTime, Long id, Limit limit);
 }
@@ -1,9 +1,21 @@
 package com.party.ceva.demo.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import com.party.ceva.demo.model.Level;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface LevelingRepository extends JpaRepository<Level, Long> {
+
+    // Rows of [userId, currentLevel, currentXP] for every user with a level
+    @Query("select u.id, l.currentLevel, l.currentXP from User u join u.level l")
+    List<Object[]> findAllUserLevels();
+
+    // Rows of [userId, Level]
+    @Query("select u.id, l from User u join u.level l where u.id in :userIds")
+    List<Object[]> findLevelsByUserIds(Collection<Long> userIds);
 }
@@ -1,9 +1,20 @@
 package com.party.ceva.demo.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.party.ceva.demo.model.News;
 
 public interface NewsRepository extends JpaRepository<News,Long> {
-    
+
+    List<News> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    // Newest first: seeks below the last (createdAt, id) returned; served by idx_news_created_at_id
+    @Query("select n from News n where n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id) "
+            + "order by n.createdAt desc, n.id desc")
+    List<News> findOlderThan(LocalDateTime createdAt, Long id, Limit limit);
 }
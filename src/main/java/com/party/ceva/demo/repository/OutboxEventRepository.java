@@ -0,0 +1,23 @@
+package com.party.ceva.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.party.ceva.demo.model.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+	// Rows locked by another dispatcher are skipped, so several nodes drain the outbox without blocking each other
+	@Query(value = "select * from outbox_events where status = 'PENDING' and available_at <= :now "
+			+ "order by id limit :limit for update skip locked", nativeQuery = true)
+	List<OutboxEvent> lockPendingBatch(LocalDateTime now, int limit);
+
+	@Query(value = "select id from outbox_events where status = 'PROCESSED' and processed_at < :cutoff "
+			+ "order by id limit :limit", nativeQuery = true)
+	List<Long> findProcessedIdsBefore(LocalDateTime cutoff, int limit);
+}
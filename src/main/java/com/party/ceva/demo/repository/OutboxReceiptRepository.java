@@ -0,0 +1,19 @@
+package com.party.ceva.demo.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.party.ceva.demo.model.OutboxReceipt;
+
+@Repository
+public interface OutboxReceiptRepository extends JpaRepository<OutboxReceipt, Long> {
+	boolean existsByEventIdAndConsumer(Long eventId, String consumer);
+
+	@Modifying
+	@Query("delete from OutboxReceipt r where r.eventId in :eventIds")
+	int deleteByEventIdIn(Collection<Long> eventIds);
+}
@@ -0,0 +1,49 @@
+package com.party.ceva.demo.repository;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Database sequence feeding the referral code allocator. Every value is handed out once across
+ * all nodes, which is what makes the generated codes unique without probing the users table.
+ */
+@Repository
+public class ReferralCodeSequence {
+	private static final Logger logger = LoggerFactory.getLogger(ReferralCodeSequence.class);
+	private static final String SEQUENCE_NAME = "referral_code_seq";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ReferralCodeSequence(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Reserves {@code count} sequence values in one round trip.
+	 */
+	public List<Long> nextValues(int count) {
+		return jdbcTemplate.queryForList(
+				"select nextval('" + SEQUENCE_NAME + "') from generate_series(1, ?)", Long.class, count);
+	}
+
+	/**
+	 * Creates the sequence and widens {@code users.code} if needed. Run once at startup, outside any
+	 * request transaction.
+	 */
+	public void ensureSchema(int codeColumnLength) {
+		jdbcTemplate.execute("create sequence if not exists " + SEQUENCE_NAME + " start with 0 minvalue 0");
+		// ddl-auto=update never widens existing columns, and older databases still have code varchar(4)
+		Integer currentLength = jdbcTemplate.query(
+				"select character_maximum_length from information_schema.columns "
+						+ "where table_name = 'users' and column_name = 'code'",
+				rs -> rs.next() ? rs.getInt(1) : null);
+		if (currentLength != null && currentLength < codeColumnLength) {
+			logger.info("Widening users.code from {} to {} characters", currentLength, codeColumnLength);
+			jdbcTemplate.execute("alter table users alter column code type varchar(" + codeColumnLength + ")");
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package com.party.ceva.demo.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.party.ceva.demo.model.Role;
+
+@Repository
+public interface RoleRepository extends JpaRepository<Role, Long> {
+	List<Role> findByUserId(Long userId);
+}
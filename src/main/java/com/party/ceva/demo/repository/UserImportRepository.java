@@ -0,0 +1,84 @@
+package com.party.ceva.demo.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.party.ceva.demo.model.LevelCurve;
+
+/**
+ * Plain JDBC writes for bulk user imports. Ids are reserved from the identity sequences up front
+ * so users, profiles and levels can each be inserted as one JDBC batch with their links in place.
+ */
+@Repository
+public class UserImportRepository {
+	private static final int DEFAULT_LEVEL = 1;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public UserImportRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public Set<String> findExistingEmails(Collection<String> emails) {
+		if (emails.isEmpty()) {
+			return Set.of();
+		}
+		String placeholders = String.join(", ", Collections.nCopies(emails.size(), "?"));
+		return new HashSet<>(jdbcTemplate.queryForList(
+				"select email from users where email in (" + placeholders + ")", String.class, emails.toArray()));
+	}
+
+	/**
+	 * Inserts the users with their profile and level rows; callers provide the transaction.
+	 */
+	public void insertBatch(List<NewUser> users) {
+		if (users.isEmpty()) {
+			return;
+		}
+		List<Long> profileIds = reserveIds("user_profile", users.size());
+		List<Long> levelIds = reserveIds("level", users.size());
+		List<Long> userIds = reserveIds("users", users.size());
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		long firstLevelXp = LevelCurve.current().xpToNext(DEFAULT_LEVEL);
+
+		List<Object[]> profiles = new ArrayList<>(users.size());
+		List<Object[]> levels = new ArrayList<>(users.size());
+		List<Object[]> userRows = new ArrayList<>(users.size());
+		for (int i = 0; i < users.size(); i++) {
+			NewUser user = users.get(i);
+			profiles.add(new Object[] { profileIds.get(i), user.firstName(), user.lastName(),
+					String.valueOf(user.sex()), user.telefon(), now, now });
+			levels.add(new Object[] { levelIds.get(i), DEFAULT_LEVEL, 0L, firstLevelXp });
+			userRows.add(new Object[] { userIds.get(i), user.email(), user.passwordHash(), user.code(),
+					profileIds.get(i), levelIds.get(i) });
+		}
+
+		jdbcTemplate.batchUpdate("insert into user_profile (id, first_name, last_name, sex, telefon, created_at, "
+				+ "updated_at) values (?, ?, ?, ?, ?, ?, ?)", profiles,
+				new int[] { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.CHAR, Types.VARCHAR, Types.TIMESTAMP,
+						Types.TIMESTAMP });
+		jdbcTemplate.batchUpdate("insert into level (id, current_level, currentxp, next_levelxp) values (?, ?, ?, ?)",
+				levels);
+		jdbcTemplate.batchUpdate("insert into users (id, email, password, code, auth_version, user_profile_id, "
+				+ "level_id) values (?, ?, ?, ?, 0, ?, ?)", userRows);
+	}
+
+	private List<Long> reserveIds(String table, int count) {
+		return jdbcTemplate.queryForList("select nextval(pg_get_serial_sequence('" + table + "', 'id')) "
+				+ "from generate_series(1, ?)", Long.class, count);
+	}
+
+	public record NewUser(String email, String passwordHash, String code, String firstName, String lastName,
+			char sex, String telefon) {
+	}
+}
@@ -1,10 +1,16 @@
 package com.party.ceva.demo.repository;
 
 import com.party.ceva.demo.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,5 +19,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
 	Optional<User> findByCode(String code);
 
-	boolean existsByCode(String code);
+	// Listings map every row to UserDto, so profile and level are joined into the same statement
+	@Override
+	@EntityGraph(attributePaths = { "userProfile", "level" })
+	Page<User> findAll(Pageable pageable);
+
+	@EntityGraph(attributePaths = { "userProfile", "level" })
+	List<User> findAllByOrderByIdAsc(Limit limit);
+
+	@EntityGraph(attributePaths = { "userProfile", "level" })
+	List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	@Query("select distinct u from User u left join fetch u.roles where u.email = :email")
+	Optional<User> findWithRolesByEmail(String email);
+
+	@Query("select distinct u from User u left join fetch u.roles left join fetch u.userProfile left join fetch u.level where u.email = :email")
+	Optional<User> findForLoginByEmail(String email);
+
+	@Query("select u.authVersion from User u where u.email = :email")
+	Optional<Long> findAuthVersionByEmail(String email);
+
+	// Rows of [userId, firstName, lastName]
+	@Query("select u.id, p.firstName, p.lastName from User u left join u.userProfile p where u.id in :ids")
+	List<Object[]> findDisplayNamesByIds(Collection<Long> ids);
+
+	@Query("select u.email from User u where u.id = :id")
+	Optional<String> findEmailById(Long id);
+
+	@Query("select u.id from User u order by u.id desc")
+	List<Long> findNewestIds(Limit limit);
 }
@@ -0,0 +1,10 @@
+package com.party.ceva.demo.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.party.ceva.demo.model.XpJournalCheckpoint;
+
+@Repository
+public interface XpJournalCheckpointRepository extends JpaRepository<XpJournalCheckpoint, String> {
+}
@@ -0,0 +1,97 @@
+package com.party.ceva.demo.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC access to the append-only {@code xp_ledger}. Awards go in as one JDBC batch that skips keys
+ * already present, and the level rows of a whole batch are then updated by a single statement driven by the
+ * ledger rows that batch inserted.
+ */
+@Repository
+public class XpLedgerRepository {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public XpLedgerRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public Set<String> findExistingKeys(Collection<String> idempotencyKeys) {
+		if (idempotencyKeys.isEmpty()) {
+			return Set.of();
+		}
+		return new HashSet<>(jdbcTemplate.queryForList("select idempotency_key from xp_ledger where idempotency_key in ("
+				+ placeholders(idempotencyKeys.size()) + ")", String.class, idempotencyKeys.toArray()));
+	}
+
+	public Set<Long> findExistingUserIds(Collection<Long> userIds) {
+		if (userIds.isEmpty()) {
+			return Set.of();
+		}
+		return new HashSet<>(jdbcTemplate.queryForList("select id from users where id in ("
+				+ placeholders(userIds.size()) + ")", Long.class, userIds.toArray()));
+	}
+
+	/**
+	 * Inserts the awards under {@code batchId}; callers provide the transaction. A key that is already in the
+	 * ledger, committed by an earlier request or another node, is skipped rather than failing the batch.
+	 *
+	 * @return for each award, whether this call inserted it
+	 */
+	public boolean[] insertBatch(String batchId, List<Award> awards) {
+		List<Object[]> rows = new ArrayList<>(awards.size());
+		for (Award award : awards) {
+			rows.add(new Object[] { award.idempotencyKey(), batchId, award.userId(), award.amount(), award.reason(),
+					Timestamp.from(award.awardedAt()) });
+		}
+		// No conflict target: the key is the only unique column besides the id, and H2 accepts only this form
+		int[] counts = jdbcTemplate.batchUpdate("insert into xp_ledger (idempotency_key, batch_id, user_id, amount, "
+				+ "reason, created_at) values (?, ?, ?, ?, ?, ?) on conflict do nothing", rows);
+		boolean[] inserted = new boolean[counts.length];
+		for (int i = 0; i < counts.length; i++) {
+			inserted[i] = counts[i] > 0;
+		}
+		return inserted;
+	}
+
+	/**
+	 * Adds each user's total from the batch to their level row in one statement. Level-ups are left to the
+	 * caller, which reads the rows back while this statement keeps them locked.
+	 */
+	public int applyBatchToLevels(String batchId) {
+		return jdbcTemplate.update("update level set currentxp = currentxp + (select sum(x.amount) from xp_ledger x "
+				+ "join users u on u.id = x.user_id where u.level_id = level.id and x.batch_id = ?) "
+				+ "where id in (select u.level_id from users u join xp_ledger x on x.user_id = u.id "
+				+ "where x.batch_id = ?)", batchId, batchId);
+	}
+
+	/**
+	 * Streams every award made at or after {@code since}, oldest first.
+	 */
+	public void forEachAwardSince(Instant since, Consumer<Award> consumer) {
+		jdbcTemplate.query("select idempotency_key, user_id, amount, reason, created_at from xp_ledger "
+				+ "where created_at >= ? order by created_at", (RowCallbackHandler) rs -> consumer.accept(
+						new Award(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getString(4),
+								rs.getTimestamp(5).toInstant())),
+				Timestamp.from(since));
+	}
+
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+
+	public record Award(String idempotencyKey, long userId, long amount, String reason, Instant awardedAt) {
+	}
+}
@@ -0,0 +1,32 @@
+package com.party.ceva.demo.service;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Spring Security principal that also carries the database id and the auth version of the user,
+ * so tokens can be issued and validated without reloading the user row.
+ */
+public class AuthenticatedUser extends User {
+	private static final long serialVersionUID = 1L;
+
+	private final Long id;
+	private final long authVersion;
+
+	public AuthenticatedUser(Long id, String email, String password, long authVersion,
+			Collection<? extends GrantedAuthority> authorities) {
+		super(email, password == null ? "" : password, authorities);
+		this.id = id;
+		this.authVersion = authVersion;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public long getAuthVersion() {
+		return authVersion;
+	}
+}
@@ -0,0 +1,72 @@
+package com.party.ceva.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over string keys.
+ * Answers "definitely absent" or "possibly present"; it never forgets a key, so callers
+ * rebuild a fresh instance when entries need to expire.
+ */
+public class BloomFilter {
+
+	private final AtomicLongArray words;
+	private final long bitCount;
+	private final int hashFunctions;
+
+	public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+		long expected = Math.max(1, expectedInsertions);
+		double rate = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+		long bits = (long) Math.ceil(-expected * Math.log(rate) / (Math.log(2) * Math.log(2)));
+		int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+		this.words = new AtomicLongArray(wordCount);
+		this.bitCount = (long) wordCount * 64;
+		this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+	}
+
+	public void put(String key) {
+		long hash = hash64(key);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashFunctions; i++) {
+			long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+			int wordIndex = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current;
+			do {
+				current = words.get(wordIndex);
+				if ((current & mask) != 0) {
+					break;
+				}
+			} while (!words.compareAndSet(wordIndex, current, current | mask));
+		}
+	}
+
+	public boolean mightContain(String key) {
+		long hash = hash64(key);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashFunctions; i++) {
+			long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// FNV-1a over the UTF-8 bytes followed by a murmur3 finalizer to spread the bits
+	private static long hash64(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
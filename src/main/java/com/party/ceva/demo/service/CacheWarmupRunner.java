@@ -0,0 +1,161 @@
+package com.party.ceva.demo.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.party.ceva.demo.repository.EventParticipationRepository;
+import com.party.ceva.demo.repository.UserRepository;
+
+/**
+ * Fills the shared caches before the node reports ready: the first news pages, the upcoming events
+ * page and the most recently active users, requested the same way the controllers request them so the
+ * cache keys match. Runners complete before the application is marked ready, so the phase is capped by
+ * a time budget; whatever has not run by then is skipped and simply loads on first use.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.warmup.enabled", havingValue = "true")
+public class CacheWarmupRunner implements ApplicationRunner {
+	private static final Logger logger = LoggerFactory.getLogger(CacheWarmupRunner.class);
+
+	private final NewsService newsService;
+	private final EventService eventService;
+	private final UserService userService;
+	private final UserRepository userRepository;
+	private final EventParticipationRepository eventParticipationRepository;
+	private final long budgetMs;
+	private final int concurrency;
+	private final int newsPages;
+	private final int newsPageSize;
+	private final Sort newsSort;
+	private final int eventPages;
+	private final int eventPageSize;
+	private final Sort eventSort;
+	private final int users;
+
+	public CacheWarmupRunner(
+			NewsService newsService,
+			EventService eventService,
+			UserService userService,
+			UserRepository userRepository,
+			EventParticipationRepository eventParticipationRepository,
+			@Value("${app.cache.warmup.budget-ms:10000}") long budgetMs,
+			@Value("${app.cache.warmup.concurrency:4}") int concurrency,
+			@Value("${app.cache.warmup.news.pages:3}") int newsPages,
+			@Value("${app.cache.warmup.news.page-size:20}") int newsPageSize,
+			@Value("${app.cache.warmup.news.sort:id,desc}") String newsSort,
+			@Value("${app.cache.warmup.events.pages:1}") int eventPages,
+			@Value("${app.cache.warmup.events.page-size:20}") int eventPageSize,
+			@Value("${app.cache.warmup.events.sort:startTime,asc}") String eventSort,
+			@Value("${app.cache.warmup.users:200}") int users) {
+		this.newsService = newsService;
+		this.eventService = eventService;
+		this.userService = userService;
+		this.userRepository = userRepository;
+		this.eventParticipationRepository = eventParticipationRepository;
+		this.budgetMs = budgetMs;
+		this.concurrency = concurrency;
+		this.newsPages = newsPages;
+		this.newsPageSize = newsPageSize;
+		this.newsSort = parseSort(newsSort);
+		this.eventPages = eventPages;
+		this.eventPageSize = eventPageSize;
+		this.eventSort = parseSort(eventSort);
+		this.users = users;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws InterruptedException {
+		long startedAt = System.currentTimeMillis();
+		long deadline = startedAt + budgetMs;
+		List<Runnable> tasks = new ArrayList<>();
+		for (int page = 0; page < newsPages; page++) {
+			Pageable pageable = PageRequest.of(page, newsPageSize, newsSort);
+			tasks.add(() -> newsService.findAllNews(pageable));
+		}
+		for (int page = 0; page < eventPages; page++) {
+			Pageable pageable = PageRequest.of(page, eventPageSize, eventSort);
+			tasks.add(() -> eventService.getUpcomingAndOngoingEvents(pageable));
+		}
+		for (Long userId : activeUserIds()) {
+			tasks.add(() -> userService.findById(userId)
+					.ifPresent(user -> userService.findByEmail(user.getEmail())));
+		}
+
+		AtomicInteger warmed = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+		AtomicInteger threadCounter = new AtomicInteger();
+		ExecutorService workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+			Thread thread = new Thread(runnable, "cache-warmup-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (Runnable task : tasks) {
+			workers.execute(() -> {
+				if (System.currentTimeMillis() >= deadline) {
+					return;
+				}
+				try {
+					task.run();
+					warmed.incrementAndGet();
+				} catch (RuntimeException ex) {
+					failed.incrementAndGet();
+					logger.debug("Cache warm-up task failed: {}", ex.getMessage());
+				}
+			});
+		}
+		workers.shutdown();
+		if (!workers.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+			workers.shutdownNow();
+		}
+		int skipped = tasks.size() - warmed.get() - failed.get();
+		logger.info("Cache warm-up finished in {}ms: warmed={}, failed={}, skipped={}",
+				System.currentTimeMillis() - startedAt, warmed.get(), failed.get(), skipped);
+	}
+
+	private Set<Long> activeUserIds() {
+		if (users <= 0) {
+			return Set.of();
+		}
+		try {
+			// Recent event participants first, topped up with the newest accounts
+			Set<Long> ids = new LinkedHashSet<>(eventParticipationRepository.findRecentlyActiveUserIds(Limit.of(users)));
+			if (ids.size() < users) {
+				for (Long id : userRepository.findNewestIds(Limit.of(users))) {
+					if (ids.size() >= users) {
+						break;
+					}
+					ids.add(id);
+				}
+			}
+			return ids;
+		} catch (RuntimeException ex) {
+			logger.warn("Cache warm-up could not list active users: {}", ex.getMessage());
+			return Set.of();
+		}
+	}
+
+	private static Sort parseSort(String sort) {
+		String[] parts = sort.split(",");
+		return parts.length > 1
+				? Sort.by(Sort.Direction.fromString(parts[1].trim()), parts[0].trim())
+				: Sort.by(parts[0].trim());
+	}
+}
@@ -2,24 +2,160 @@ package com.party.ceva.demo.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
+import com.party.ceva.demo.repository.ReferralCodeSequence;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Allocates referral codes that are unique by construction.
+ * <p>
+ * Each code comes from a database sequence value. The sequence is split into consecutive
+ * segments, one per code length: a length is used until {@code fill-ratio} of its 36^L codes
+ * have been handed out, then allocation moves on to the next length. Within a segment the
+ * offset goes through a keyed Feistel permutation of [0, 36^L), so codes look random while
+ * distinct sequence values can never map to the same code. Sequence values are reserved in
+ * blocks, so most registrations never touch the database for their code.
+ * <p>
+ * The min length, fill ratio and secret define the mapping and must not change once codes
+ * have been issued. The secret is its own required property for that reason: it must not move
+ * with the JWT secret.
+ */
 @Service
-public class CodeGenerationService {
+public class CodeGenerationService implements SmartInitializingSingleton {
 
 	private static final Logger logger = LoggerFactory.getLogger(CodeGenerationService.class);
 	private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-	private final SecureRandom random = new SecureRandom();
+	private static final int RADIX = ALPHABET.length();
+	public static final int MAX_CODE_LENGTH = 12;
+	private static final int FEISTEL_ROUNDS = 8;
+
+	private final ReferralCodeSequence sequence;
+	private final int minLength;
+	private final double fillRatio;
+	private final int blockSize;
+	private final Mac roundFunction;
+	private final Deque<Long> reserved = new ArrayDeque<>();
+
+	public CodeGenerationService(
+			ReferralCodeSequence sequence,
+			@Value("${app.referral-codes.min-length:5}") int minLength,
+			@Value("${app.referral-codes.fill-ratio:0.5}") double fillRatio,
+			@Value("${app.referral-codes.block-size:100}") int blockSize,
+			@Value("${app.referral-codes.secret}") String secret) {
+		if (minLength < 2 || minLength > MAX_CODE_LENGTH || fillRatio <= 0 || fillRatio > 1) {
+			throw new IllegalArgumentException("Invalid referral code configuration");
+		}
+		if (secret == null || secret.isBlank()) {
+			throw new IllegalArgumentException("app.referral-codes.secret must be set");
+		}
+		this.sequence = sequence;
+		this.minLength = minLength;
+		this.fillRatio = fillRatio;
+		this.blockSize = Math.max(1, blockSize);
+		try {
+			this.roundFunction = Mac.getInstance("HmacSHA256");
+			this.roundFunction.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+		} catch (NoSuchAlgorithmException | InvalidKeyException ex) {
+			throw new IllegalStateException("HmacSHA256 not available for referral codes", ex);
+		}
+	}
+
+	/**
+	 * Creates the sequence and widens the code column before any request allocates a code.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		sequence.ensureSchema(MAX_CODE_LENGTH);
+	}
+
+	public synchronized String generateCode() {
+		if (reserved.isEmpty()) {
+			reserved.addAll(sequence.nextValues(blockSize));
+			logger.debug("Reserved {} referral code sequence values", blockSize);
+		}
+		return codeForSequence(reserved.poll());
+	}
+
+	/**
+	 * Allocates {@code count} codes with a single sequence round trip, for bulk imports.
+	 */
+	public List<String> generateCodes(int count) {
+		List<Long> values = sequence.nextValues(count);
+		List<String> codes = new ArrayList<>(values.size());
+		for (Long value : values) {
+			codes.add(codeForSequence(value));
+		}
+		return codes;
+	}
+
+	/**
+	 * Maps a sequence value to its code; distinct values always give distinct codes.
+	 */
+	synchronized String codeForSequence(long value) {
+		long offset = value;
+		for (int length = minLength; length <= MAX_CODE_LENGTH; length++) {
+			long segment = (long) (fillRatio * pow(length));
+			if (offset < segment) {
+				return encode(permute(offset, length), length);
+			}
+			offset -= segment;
+		}
+		throw new IllegalStateException("Referral code space exhausted");
+	}
+
+	/**
+	 * Feistel network over mixed radix: x = left * b + right with left in [0, a), right in [0, b)
+	 * and a * b = 36^L. Rounds alternate the two moduli, so after an even number of rounds the
+	 * result is again an element of [0, 36^L) and the mapping is a bijection on that range.
+	 */
+	private long permute(long x, int length) {
+		long a = pow(length / 2);
+		long b = pow(length - length / 2);
+		long left = x / b;
+		long right = x % b;
+		for (int round = 0; round < FEISTEL_ROUNDS; round++) {
+			long modulus = round % 2 == 0 ? a : b;
+			long next = Math.floorMod(left + roundValue(round, length, right), modulus);
+			left = right;
+			right = next;
+		}
+		return left * b + right;
+	}
+
+	private long roundValue(int round, int length, long input) {
+		byte[] digest = roundFunction.doFinal(ByteBuffer.allocate(Long.BYTES + 2)
+				.put((byte) round).put((byte) length).putLong(input).array());
+		return ByteBuffer.wrap(digest).getLong() & Long.MAX_VALUE;
+	}
+
+	private static String encode(long index, int length) {
+		char[] chars = new char[length];
+		for (int i = length - 1; i >= 0; i--) {
+			chars[i] = ALPHABET.charAt((int) (index % RADIX));
+			index /= RADIX;
+		}
+		return new String(chars);
+	}
 
-	public String generateCode() {
-		StringBuilder sb = new StringBuilder();
-		for (int i = 0; i < 4; i++) {
-			int randomIndex = random.nextInt(ALPHABET.length());
-			sb.append(ALPHABET.charAt(randomIndex));
+	private static long pow(int exponent) {
+		long result = 1;
+		for (int i = 0; i < exponent; i++) {
+			result *= RADIX;
 		}
-		logger.debug("Generated new short code");
-		return sb.toString();
+		return result;
 	}
 }
@@ -4,40 +4,108 @@ import com.party.ceva.demo.model.User;
 import com.party.ceva.demo.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
+    private static final int MAX_TRACKED_AUTH_VERSIONS = 10_000;
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
+    private final long authVersionStalenessMs;
+    private final Map<String, AuthVersionCheck> authVersionChecks = new ConcurrentHashMap<>();
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(
+        UserRepository userRepository,
+        UserPrincipalCache principalCache,
+        @Value("${app.jwt.stateless-auth.staleness-ms:60000}") long authVersionStalenessMs
+    ) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.authVersionStalenessMs = authVersionStalenessMs;
     }
 
     @Override
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        logger.debug("Loading Spring Security user by email {}", maskEmail(email));
-        User user = userRepository.findByEmail(email)
+        Optional<AuthenticatedUser> principal = principalCache.get(email, this::loadPrincipal);
+        if (principal.isPresent() && !isAuthVersionCurrent(email, principal.get().getAuthVersion())) {
+            // Password or roles changed on another node; this node only learns of it through the auth version
+            logger.debug("Cached principal for {} is outdated, reloading", maskEmail(email));
+            principalCache.evict(email);
+            principal = principalCache.get(email, this::loadPrincipal);
+        }
+        return principal
                 .orElseThrow(() -> {
                     logger.warn("Security user lookup failed for {}", maskEmail(email));
                     return new UsernameNotFoundException("User not found with email: " + email);
                 });
+    }
+
+    /**
+     * Drops everything cached about the user's credentials and roles on this node.
+     * Must be called whenever the email, password or roles of a user change.
+     */
+    public void evictUser(String email) {
+        if (email != null) {
+            principalCache.evict(email);
+            authVersionChecks.remove(email);
+        }
+    }
 
-        logger.debug("Loaded Spring Security user {}", user.getId());
+    private Optional<AuthenticatedUser> loadPrincipal(String email) {
+        logger.debug("Loading Spring Security user by email {}", maskEmail(email));
+        // Roles are fetch-joined so building the authorities does not trigger a second query
+        return userRepository.findWithRolesByEmail(email).map(user -> {
+            logger.debug("Loaded Spring Security user {}", user.getId());
+            // The version was just read, so the next isAuthVersionCurrent call does not need to read it again
+            rememberAuthVersion(email, user.getAuthVersion(), System.currentTimeMillis());
+            java.util.Collection<? extends org.springframework.security.core.GrantedAuthority> authorities = user.getRoles()
+                    .stream()
+                    .map(role -> new org.springframework.security.core.authority.SimpleGrantedAuthority(
+                            "ROLE_" + role.getRole().name()))
+                    .toList();
+            return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(), user.getAuthVersion(),
+                    authorities);
+        });
+    }
 
-        java.util.Collection<? extends org.springframework.security.core.GrantedAuthority> authorities = user.getRoles()
-                .stream()
-                .map(role -> new org.springframework.security.core.authority.SimpleGrantedAuthority(
-                        "ROLE_" + role.getRole().name()))
-                .toList();
+    /**
+     * Checks whether the auth version embedded in a token still matches the user's current one.
+     * The database answer is reused for the configured staleness window, so a busy user costs
+     * at most one lightweight query per window instead of a full user and roles load per request.
+     */
+    public boolean isAuthVersionCurrent(String email, long tokenAuthVersion) {
+        long now = System.currentTimeMillis();
+        AuthVersionCheck check = authVersionChecks.get(email);
+        if (check == null || now - check.checkedAtMs() > authVersionStalenessMs) {
+            Long currentVersion = userRepository.findAuthVersionByEmail(email).orElse(null);
+            if (currentVersion == null) {
+                authVersionChecks.remove(email);
+                logger.debug("Auth version check failed: user {} no longer exists", maskEmail(email));
+                return false;
+            }
+            check = rememberAuthVersion(email, currentVersion, now);
+        }
+        return check.version() == tokenAuthVersion;
+    }
 
-        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(), authorities);
+    private AuthVersionCheck rememberAuthVersion(String email, long version, long now) {
+        if (authVersionChecks.size() >= MAX_TRACKED_AUTH_VERSIONS) {
+            authVersionChecks.clear();
+        }
+        AuthVersionCheck check = new AuthVersionCheck(version, now);
+        authVersionChecks.put(email, check);
+        return check;
     }
 
     private String maskEmail(String email) {
@@ -50,4 +118,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         }
         return email.charAt(0) + "***" + email.substring(atIndex);
     }
+
+    private record AuthVersionCheck(long version, long checkedAtMs) {
+    }
 }
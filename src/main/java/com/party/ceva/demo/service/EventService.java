@@ -6,6 +6,8 @@ import java.util.List;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -13,7 +15,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.party.ceva.demo.dto.CursorPage;
 import com.party.ceva.demo.dto.EventDto;
+import com.party.ceva.demo.event.EventJoined;
 import com.party.ceva.demo.model.Event;
 import com.party.ceva.demo.model.EventParticipation;
 import com.party.ceva.demo.model.User;
@@ -29,16 +33,19 @@ public class EventService {
 	private final EventParticipationRepository eventParticipationRepository;
 	private final UserRepository userRepository;
 	private final ModelMapper modelMapper;
+	private final OutboxService outboxService;
 
 	public EventService(
 			EventRepository eventRepository,
 			EventParticipationRepository eventParticipationRepository,
 			UserRepository userRepository,
-			ModelMapper modelMapper) {
+			ModelMapper modelMapper,
+			OutboxService outboxService) {
 		this.eventRepository = eventRepository;
 		this.eventParticipationRepository = eventParticipationRepository;
 		this.userRepository = userRepository;
 		this.modelMapper = modelMapper;
+		this.outboxService = outboxService;
 	}
 
 	public Page<EventDto> getEvents(Pageable pageable) {
@@ -59,6 +66,17 @@ public class EventService {
 		return eventPage.map(event -> modelMapper.map(event, EventDto.class));
 	}
 
+	/**
+	 * Upcoming and ongoing events as of now. Cached briefly since the listing only changes as events end.
+	 */
+	@Cacheable(
+			value = "events-upcoming",
+			key = "#pageable.pageNumber + '-' + #pageable.pageSize + '-' + #pageable.sort.toString()",
+			sync = true)
+	public Page<EventDto> getUpcomingAndOngoingEvents(Pageable pageable) {
+		return getUpcomingAndOngoingEvents(pageable, LocalDateTime.now());
+	}
+
 	public Page<EventDto> getUpcomingAndOngoingEvents(Pageable pageable, LocalDateTime now) {
 		logger.debug("Fetching upcoming/ongoing events at {}: page={}, size={}", now, pageable.getPageNumber(),
 				pageable.getPageSize());
@@ -68,6 +86,21 @@ public class EventService {
 		return eventPage.map(event -> modelMapper.map(event, EventDto.class));
 	}
 
+	public CursorPage<EventDto> scrollUpcomingAndOngoingEvents(String cursor, Integer size, LocalDateTime now) {
+		int pageSize = PageCursors.clampSize(size);
+		Limit limit = Limit.of(pageSize + 1);
+		List<Event> rows;
+		if (cursor == null) {
+			rows = this.eventRepository.findByEndTimeGreaterThanEqualOrderByEndTimeAscIdAsc(now, limit);
+		} else {
+			PageCursors.Position position = PageCursors.decodePosition(cursor);
+			rows = this.eventRepository.findUpcomingAfter(now, position.sortKey(), position.id(), limit);
+		}
+		logger.debug("Scrolled {} upcoming/ongoing events at {}", rows.size(), now);
+		return CursorPage.of(rows, pageSize, event -> modelMapper.map(event, EventDto.class),
+				event -> PageCursors.encode(event.getEndTime(), event.getId()));
+	}
+
 	@Transactional
 	public void joinEvent(Long eventId, String userEmail) {
 		logger.info("Join event requested: eventId={}, user={}", eventId, maskEmail(userEmail));
@@ -99,6 +132,7 @@ public class EventService {
 		participation.setEvent(event);
 		participation.setUser(user);
 		eventParticipationRepository.save(participation);
+		outboxService.publish(new EventJoined(eventId, user.getId()));
 		logger.info("User {} joined event {}", user.getId(), eventId);
 	}
 
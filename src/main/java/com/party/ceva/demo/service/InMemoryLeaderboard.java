@@ -0,0 +1,115 @@
+package com.party.ceva.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Node-local leaderboard on an {@link IndexedSkipList}, so rank and neighbour queries never scan.
+ * Only sees XP awarded through this node; use the Redis store when several nodes serve traffic.
+ */
+@Service
+@ConditionalOnProperty(name = "app.leaderboard.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryLeaderboard implements Leaderboard {
+	private static final Logger logger = LoggerFactory.getLogger(InMemoryLeaderboard.class);
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<Long, Long> scores = new HashMap<>();
+	private IndexedSkipList ranking = new IndexedSkipList();
+
+	@Override
+	public void increment(long userId, long xp) {
+		lock.writeLock().lock();
+		try {
+			Long previous = scores.get(userId);
+			if (previous != null) {
+				ranking.remove(userId, previous);
+			}
+			long score = (previous == null ? 0 : previous) + xp;
+			scores.put(userId, score);
+			ranking.insert(userId, score);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void rebuild(Map<Long, Long> snapshot) {
+		IndexedSkipList rebuilt = new IndexedSkipList();
+		snapshot.forEach(rebuilt::insert);
+		lock.writeLock().lock();
+		try {
+			scores.clear();
+			scores.putAll(snapshot);
+			ranking = rebuilt;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		logger.info("Rebuilt in-memory leaderboard with {} users", snapshot.size());
+	}
+
+	@Override
+	public List<Entry> top(int limit) {
+		lock.readLock().lock();
+		try {
+			return entries(1, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Optional<Entry> entryOf(long userId) {
+		lock.readLock().lock();
+		try {
+			Long score = scores.get(userId);
+			return score == null ? Optional.empty()
+					: Optional.of(new Entry(ranking.rank(userId, score), userId, score));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Entry> around(long userId, int radius) {
+		lock.readLock().lock();
+		try {
+			Long score = scores.get(userId);
+			if (score == null) {
+				return List.of();
+			}
+			int rank = ranking.rank(userId, score);
+			int from = Math.max(1, rank - radius);
+			return entries(from, rank + radius - from + 1);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public long size() {
+		lock.readLock().lock();
+		try {
+			return ranking.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private List<Entry> entries(int fromRank, int count) {
+		List<Entry> entries = new ArrayList<>();
+		long rank = fromRank;
+		for (long[] entry : ranking.range(fromRank, count)) {
+			entries.add(new Entry(rank++, entry[0], entry[1]));
+		}
+		return entries;
+	}
+}
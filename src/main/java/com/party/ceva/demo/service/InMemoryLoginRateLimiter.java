@@ -0,0 +1,104 @@
+package com.party.ceva.demo.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Node-local token buckets kept in lock-striped, access-ordered maps.
+ * Each stripe is bounded; idle buckets (already refilled to capacity) are dropped from the
+ * least-recently-used end, and when a stripe is full its oldest bucket is evicted.
+ */
+@Service
+@ConditionalOnProperty(name = "app.auth.throttle.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryLoginRateLimiter implements LoginRateLimiter {
+	private static final Logger logger = LoggerFactory.getLogger(InMemoryLoginRateLimiter.class);
+
+	private final Stripe[] stripes;
+
+	public InMemoryLoginRateLimiter(
+			@Value("${app.auth.throttle.stripes:64}") int stripeCount,
+			@Value("${app.auth.throttle.max-entries:100000}") int maxEntries) {
+		int count = Integer.highestOneBit(Math.max(1, stripeCount));
+		int perStripe = Math.max(16, maxEntries / count);
+		this.stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Stripe(perStripe);
+		}
+		logger.info("Initialized in-memory login rate limiter with {} stripes of {} buckets", count, perStripe);
+	}
+
+	@Override
+	public long tryAcquire(String key, BucketSpec spec) {
+		int hash = key.hashCode();
+		Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+		return stripe.tryAcquire(key, spec, System.currentTimeMillis());
+	}
+
+	private static final class Stripe {
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Map<String, Bucket> buckets;
+
+		Stripe(int maxBuckets) {
+			this.buckets = new LinkedHashMap<>(64, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+					return size() > maxBuckets;
+				}
+			};
+		}
+
+		long tryAcquire(String key, BucketSpec spec, long now) {
+			lock.lock();
+			try {
+				evictIdle(now);
+				Bucket bucket = buckets.get(key);
+				if (bucket == null) {
+					bucket = new Bucket(spec.capacity(), now, spec.idleMs());
+					buckets.put(key, bucket);
+				}
+
+				double refill = (now - bucket.updatedAtMs) * spec.refillPerMs();
+				bucket.tokens = Math.min(spec.capacity(), bucket.tokens + refill);
+				bucket.updatedAtMs = now;
+				if (bucket.tokens >= 1) {
+					bucket.tokens -= 1;
+					return 0;
+				}
+				return (long) Math.ceil((1 - bucket.tokens) / spec.refillPerMs());
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void evictIdle(long now) {
+			Iterator<Bucket> iterator = buckets.values().iterator();
+			while (iterator.hasNext()) {
+				Bucket eldest = iterator.next();
+				if (now - eldest.updatedAtMs < eldest.idleMs) {
+					return;
+				}
+				iterator.remove();
+			}
+		}
+	}
+
+	private static final class Bucket {
+		private double tokens;
+		private long updatedAtMs;
+		private final long idleMs;
+
+		Bucket(double tokens, long updatedAtMs, long idleMs) {
+			this.tokens = tokens;
+			this.updatedAtMs = updatedAtMs;
+			this.idleMs = idleMs;
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package com.party.ceva.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Skip list of (userId, score) ordered by score descending, then user id ascending, where every forward link
+ * also records how many nodes it skips. Summing those spans along a search path gives a node's rank, and
+ * walking them down from the top finds the node at a given rank, so insert, remove, rank and select are all
+ * O(log n) expected. Not thread-safe; callers serialize access.
+ */
+final class IndexedSkipList {
+	private static final int MAX_LEVEL = 32;
+	private static final int PROMOTION_ONE_IN = 4;
+
+	private final Node head = new Node(0, 0, MAX_LEVEL);
+	private int level = 1;
+	private int size;
+
+	int size() {
+		return size;
+	}
+
+	void insert(long userId, long score) {
+		Node[] update = new Node[MAX_LEVEL];
+		int[] rank = new int[MAX_LEVEL];
+		Node node = head;
+		for (int i = level - 1; i >= 0; i--) {
+			rank[i] = i == level - 1 ? 0 : rank[i + 1];
+			while (node.next[i] != null && node.next[i].before(userId, score)) {
+				rank[i] += node.span[i];
+				node = node.next[i];
+			}
+			update[i] = node;
+		}
+
+		int nodeLevel = randomLevel();
+		if (nodeLevel > level) {
+			for (int i = level; i < nodeLevel; i++) {
+				rank[i] = 0;
+				update[i] = head;
+				head.span[i] = size;
+			}
+			level = nodeLevel;
+		}
+
+		Node inserted = new Node(userId, score, nodeLevel);
+		for (int i = 0; i < nodeLevel; i++) {
+			inserted.next[i] = update[i].next[i];
+			update[i].next[i] = inserted;
+			inserted.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+			update[i].span[i] = rank[0] - rank[i] + 1;
+		}
+		for (int i = nodeLevel; i < level; i++) {
+			update[i].span[i]++;
+		}
+		size++;
+	}
+
+	/**
+	 * @return whether an entry with exactly this user and score was found and removed
+	 */
+	boolean remove(long userId, long score) {
+		Node[] update = new Node[MAX_LEVEL];
+		Node node = head;
+		for (int i = level - 1; i >= 0; i--) {
+			while (node.next[i] != null && node.next[i].before(userId, score)) {
+				node = node.next[i];
+			}
+			update[i] = node;
+		}
+		Node target = node.next[0];
+		if (target == null || target.userId != userId || target.score != score) {
+			return false;
+		}
+		for (int i = 0; i < level; i++) {
+			if (update[i].next[i] == target) {
+				update[i].span[i] += target.span[i] - 1;
+				update[i].next[i] = target.next[i];
+			} else {
+				update[i].span[i]--;
+			}
+		}
+		while (level > 1 && head.next[level - 1] == null) {
+			level--;
+		}
+		size--;
+		return true;
+	}
+
+	/**
+	 * 1-based rank of the entry, or 0 when it is not in the list.
+	 */
+	int rank(long userId, long score) {
+		int rank = 0;
+		Node node = head;
+		for (int i = level - 1; i >= 0; i--) {
+			while (node.next[i] != null
+					&& (node.next[i].before(userId, score) || node.next[i].is(userId, score))) {
+				rank += node.span[i];
+				node = node.next[i];
+			}
+			if (node != head && node.is(userId, score)) {
+				return rank;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Up to {@code count} entries starting at the 1-based {@code fromRank}, as {@code [userId, score]} pairs.
+	 */
+	List<long[]> range(int fromRank, int count) {
+		List<long[]> entries = new ArrayList<>(Math.max(0, Math.min(count, size - fromRank + 1)));
+		if (fromRank < 1 || fromRank > size || count <= 0) {
+			return entries;
+		}
+		int traversed = 0;
+		Node node = head;
+		for (int i = level - 1; i >= 0; i--) {
+			while (node.next[i] != null && traversed + node.span[i] <= fromRank) {
+				traversed += node.span[i];
+				node = node.next[i];
+			}
+			if (traversed == fromRank) {
+				break;
+			}
+		}
+		for (; node != null && entries.size() < count; node = node.next[0]) {
+			entries.add(new long[] { node.userId, node.score });
+		}
+		return entries;
+	}
+
+	private static int randomLevel() {
+		int nodeLevel = 1;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (nodeLevel < MAX_LEVEL && random.nextInt(PROMOTION_ONE_IN) == 0) {
+			nodeLevel++;
+		}
+		return nodeLevel;
+	}
+
+	private static final class Node {
+		final long userId;
+		final long score;
+		final Node[] next;
+		final int[] span;
+
+		Node(long userId, long score, int level) {
+			this.userId = userId;
+			this.score = score;
+			this.next = new Node[level];
+			this.span = new int[level];
+		}
+
+		boolean before(long otherUserId, long otherScore) {
+			return score > otherScore || (score == otherScore && userId < otherUserId);
+		}
+
+		boolean is(long otherUserId, long otherScore) {
+			return userId == otherUserId && score == otherScore;
+		}
+	}
+}
@@ -0,0 +1,294 @@
+package com.party.ceva.demo.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+
+/**
+ * ES256 signing keys identified by {@code kid}.
+ * The newest key signs; older keys stay available for verification until every token they
+ * signed has expired, so rotating never forces a re-login. When a key directory is configured
+ * the keys are stored there as JWK files and rescanned periodically, which lets several nodes
+ * sharing the directory pick up a rotation without a restart. Unless ES256 signing is enabled the
+ * store holds no keys at all, so nothing is published that no token was signed with.
+ */
+@Component
+public class JwtKeyStore {
+	private static final Logger logger = LoggerFactory.getLogger(JwtKeyStore.class);
+	private static final String KEY_FILE_SUFFIX = ".jwk.json";
+	private static final int MAX_UNKNOWN_KIDS = 10_000;
+
+	private final boolean enabled;
+	private final Path keyDirectory;
+	private final long rotationIntervalMs;
+	private final long tokenLifetimeMs;
+	private final long unknownKidReloadIntervalMs;
+	private final long unknownKidTtlMs;
+	private final Map<String, PublicKey> verificationKeys = new ConcurrentHashMap<>();
+	// Kids a reload did not find, with the time until which they are answered without another one
+	private final Map<String, Long> unknownKids = new ConcurrentHashMap<>();
+	private final AtomicLong nextUnknownKidReloadMs = new AtomicLong();
+	private volatile List<ECKey> keys = List.of();
+	private volatile ActiveKey activeKey;
+
+	JwtKeyStore(String keyDirectory, long rotationIntervalMs, long tokenLifetimeMs) {
+		this("ES256", keyDirectory, rotationIntervalMs, tokenLifetimeMs, 5_000, 30_000);
+	}
+
+	@Autowired
+	public JwtKeyStore(
+			@Value("${app.jwt.signing.algorithm:HS256}") String signingAlgorithm,
+			@Value("${app.jwt.keys.dir:}") String keyDirectory,
+			@Value("${app.jwt.keys.rotation-interval-ms:0}") long rotationIntervalMs,
+			@Value("${app.jwt.expiration-ms}") long tokenLifetimeMs,
+			@Value("${app.jwt.keys.unknown-kid-reload-interval-ms:5000}") long unknownKidReloadIntervalMs,
+			@Value("${app.jwt.keys.unknown-kid-ttl-ms:30000}") long unknownKidTtlMs) {
+		this.keyDirectory = keyDirectory == null || keyDirectory.isBlank() ? null : Path.of(keyDirectory);
+		this.rotationIntervalMs = rotationIntervalMs;
+		this.tokenLifetimeMs = tokenLifetimeMs;
+		this.unknownKidReloadIntervalMs = unknownKidReloadIntervalMs;
+		this.unknownKidTtlMs = unknownKidTtlMs;
+		this.enabled = "ES256".equalsIgnoreCase(signingAlgorithm);
+		if (!enabled) {
+			logger.info("JWT key store disabled, tokens are signed with {}", signingAlgorithm);
+			return;
+		}
+		reload();
+		if (activeKey == null) {
+			rotate();
+		}
+		logger.info("Initialized JWT key store with {} key(s), active kid={}, directory={}", keys.size(),
+				activeKey.kid(), this.keyDirectory == null ? "<in-memory>" : this.keyDirectory);
+	}
+
+	/**
+	 * Whether ES256 signing is enabled; otherwise the store holds no keys.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Whether keys are kept in a key directory and so survive restarts and are shared between nodes.
+	 */
+	public boolean isPersistent() {
+		return keyDirectory != null;
+	}
+
+	/**
+	 * The key new tokens are signed with, read as one unit so the kid always matches the key.
+	 */
+	public ActiveKey activeKey() {
+		return activeKey;
+	}
+
+	/**
+	 * Looks up a verification key by {@code kid}. An unknown kid triggers a rescan of the key
+	 * directory, so tokens signed by a key another node just rotated in are still accepted. The kid
+	 * comes from an unverified header, so such rescans run at most once per reload interval across all
+	 * kids, and a kid the rescan did not find is rejected without another one for a while.
+	 */
+	public Optional<PublicKey> verificationKey(String kid) {
+		if (kid == null) {
+			return Optional.empty();
+		}
+		PublicKey key = verificationKeys.get(kid);
+		if (key == null && keyDirectory != null && mayReloadFor(kid)) {
+			reload();
+			key = verificationKeys.get(kid);
+			if (key == null) {
+				rememberUnknown(kid);
+			}
+		}
+		return Optional.ofNullable(key);
+	}
+
+	/**
+	 * Public half of every key still accepted for verification, in JWKS form.
+	 */
+	public Map<String, Object> publicJwkSet() {
+		return new JWKSet(keys.stream().map(key -> (JWK) key.toPublicJWK()).toList()).toJSONObject(true);
+	}
+
+	/**
+	 * Generates a new signing key and makes it active. The previous key keeps verifying
+	 * tokens until they expire.
+	 */
+	public synchronized String rotate() {
+		if (!enabled) {
+			throw new IllegalStateException("JWT signing keys are only used when app.jwt.signing.algorithm=ES256");
+		}
+		// JWK issue times have second precision and decide which key is active, so keep them strictly increasing
+		long issuedAtMs = System.currentTimeMillis();
+		if (!keys.isEmpty()) {
+			issuedAtMs = Math.max(issuedAtMs, keys.get(keys.size() - 1).getIssueTime().getTime() + 1000);
+		}
+		try {
+			ECKey key = new ECKeyGenerator(Curve.P_256)
+					.keyUse(KeyUse.SIGNATURE)
+					.algorithm(JWSAlgorithm.ES256)
+					.keyIDFromThumbprint(true)
+					.issueTime(new Date(issuedAtMs))
+					.generate();
+			persist(key);
+			List<ECKey> updated = new ArrayList<>(keys);
+			updated.add(key);
+			apply(updated, System.currentTimeMillis());
+			logger.info("Rotated JWT signing key, active kid={}", key.getKeyID());
+			return key.getKeyID();
+		} catch (JOSEException | IOException ex) {
+			throw new IllegalStateException("Could not generate a JWT signing key", ex);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.jwt.keys.reload-interval-ms:60000}",
+			initialDelayString = "${app.jwt.keys.reload-interval-ms:60000}")
+	public void scheduledMaintenance() {
+		if (!enabled) {
+			return;
+		}
+		reload();
+		ActiveKey current = activeKey;
+		if (rotationIntervalMs > 0 && current != null
+				&& System.currentTimeMillis() - current.issuedAtMs() >= rotationIntervalMs) {
+			rotate();
+		}
+	}
+
+	private boolean mayReloadFor(String kid) {
+		long now = System.currentTimeMillis();
+		Long unknownUntil = unknownKids.get(kid);
+		if (unknownUntil != null) {
+			if (unknownUntil > now) {
+				return false;
+			}
+			unknownKids.remove(kid, unknownUntil);
+		}
+		// Only the caller that moves the deadline reloads; the others are answered from the keys already loaded
+		long next = nextUnknownKidReloadMs.get();
+		return now >= next && nextUnknownKidReloadMs.compareAndSet(next, now + unknownKidReloadIntervalMs);
+	}
+
+	private void rememberUnknown(String kid) {
+		if (unknownKids.size() >= MAX_UNKNOWN_KIDS) {
+			unknownKids.clear();
+		}
+		unknownKids.put(kid, System.currentTimeMillis() + unknownKidTtlMs);
+	}
+
+	private synchronized void reload() {
+		if (keyDirectory == null) {
+			apply(keys, System.currentTimeMillis());
+			return;
+		}
+		try {
+			Files.createDirectories(keyDirectory);
+			List<ECKey> loaded = new ArrayList<>();
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(keyDirectory, "*" + KEY_FILE_SUFFIX)) {
+				for (Path file : files) {
+					try {
+						loaded.add(ECKey.parse(Files.readString(file, StandardCharsets.UTF_8)));
+					} catch (ParseException ex) {
+						logger.warn("Ignoring unreadable JWT key file {}", file.getFileName());
+					}
+				}
+			}
+			apply(loaded, System.currentTimeMillis());
+		} catch (IOException ex) {
+			logger.error("Failed to load JWT keys from {}", keyDirectory, ex);
+		}
+	}
+
+	private void apply(List<ECKey> candidates, long now) {
+		List<ECKey> sorted = candidates.stream()
+				.filter(key -> key.getKeyID() != null && key.getIssueTime() != null && key.isPrivate())
+				.sorted(Comparator.comparing(ECKey::getIssueTime))
+				.toList();
+		if (sorted.isEmpty()) {
+			return;
+		}
+
+		// A key is retired once its successor was issued and is dropped when its last token has expired
+		List<ECKey> retained = new ArrayList<>();
+		for (int i = 0; i < sorted.size(); i++) {
+			ECKey key = sorted.get(i);
+			boolean expired = i < sorted.size() - 1
+					&& sorted.get(i + 1).getIssueTime().getTime() + tokenLifetimeMs < now;
+			if (expired) {
+				deleteKeyFile(key.getKeyID());
+			} else {
+				retained.add(key);
+			}
+		}
+
+		try {
+			Map<String, PublicKey> publicKeys = new ConcurrentHashMap<>();
+			for (ECKey key : retained) {
+				publicKeys.put(key.getKeyID(), key.toECPublicKey());
+			}
+			ECKey newest = retained.get(retained.size() - 1);
+			activeKey = new ActiveKey(newest.getKeyID(), newest.toECPrivateKey(), newest.getIssueTime().getTime());
+			verificationKeys.putAll(publicKeys);
+			verificationKeys.keySet().retainAll(publicKeys.keySet());
+			keys = List.copyOf(retained);
+		} catch (JOSEException ex) {
+			throw new IllegalStateException("Invalid JWT key material", ex);
+		}
+	}
+
+	private void persist(ECKey key) throws IOException {
+		if (keyDirectory == null) {
+			return;
+		}
+		Files.createDirectories(keyDirectory);
+		Path target = keyDirectory.resolve(key.getKeyID() + KEY_FILE_SUFFIX);
+		Path temp = Files.createTempFile(keyDirectory, key.getKeyID(), ".tmp");
+		Files.writeString(temp, key.toJSONString(), StandardCharsets.UTF_8);
+		Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private void deleteKeyFile(String kid) {
+		if (keyDirectory == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(keyDirectory.resolve(kid + KEY_FILE_SUFFIX));
+			logger.info("Removed expired JWT key kid={}", kid);
+		} catch (IOException ex) {
+			logger.warn("Could not remove expired JWT key kid={}", kid, ex);
+		}
+	}
+
+	public record ActiveKey(String kid, PrivateKey privateKey, long issuedAtMs) {
+	}
+}
@@ -1,13 +1,21 @@
 package com.party.ceva.demo.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -15,23 +23,64 @@ import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class JwtService {
     private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String AUTH_VERSION_CLAIM = "uv";
+    private static final String ROLE_PREFIX = "ROLE_";
 
-    private final Key signingKey;
+    // HS256 secret: signs when no key store is in use and keeps verifying tokens issued before ES256 was enabled
+    private final Key hmacKey;
+    private final JwtKeyStore keyStore;
     private final long expirationMs;
+    // JwtParser is immutable and thread-safe once built, so one instance serves every request
+    private final JwtParser parser;
+    private final int claimsCacheMaxEntries;
+    private final Map<String, CachedClaims> verifiedClaims = new ConcurrentHashMap<>();
 
+    public JwtService(String secret, long expirationMs, int claimsCacheMaxEntries) {
+        this(secret, expirationMs, claimsCacheMaxEntries, "HS256", null);
+    }
+
+    @Autowired
     public JwtService(
         @Value("${app.jwt.secret}") String secret,
-        @Value("${app.jwt.expiration-ms}") long expirationMs
+        @Value("${app.jwt.expiration-ms}") long expirationMs,
+        @Value("${app.jwt.claims-cache.max-entries:10000}") int claimsCacheMaxEntries,
+        @Value("${app.jwt.signing.algorithm:HS256}") String signingAlgorithm,
+        JwtKeyStore keyStore
     ) {
-        this.signingKey = Keys.hmacShaKeyFor(normalizeKeyBytes(secret));
+        this.hmacKey = Keys.hmacShaKeyFor(normalizeKeyBytes(secret));
+        this.keyStore = "ES256".equalsIgnoreCase(signingAlgorithm) ? keyStore : null;
+        if (this.keyStore != null && !this.keyStore.isPersistent()) {
+            // In-memory keys would log everyone out on restart and make nodes reject each other's tokens
+            throw new IllegalStateException("app.jwt.keys.dir must be set when app.jwt.signing.algorithm=ES256");
+        }
         this.expirationMs = expirationMs;
-        logger.info("Initialized JWT service with expiration={}ms", expirationMs);
+        this.parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    return resolveVerificationKey(header.getKeyId());
+                }
+            })
+            .build();
+        this.claimsCacheMaxEntries = claimsCacheMaxEntries;
+        logger.info("Initialized JWT service with algorithm={}, expiration={}ms, claimsCacheMaxEntries={}",
+            this.keyStore != null ? "ES256" : "HS256", expirationMs, claimsCacheMaxEntries);
     }
 
     public String generateToken(Authentication authentication) {
@@ -40,6 +89,9 @@ public class JwtService {
             ? userDetails.getUsername()
             : authentication.getName();
         logger.debug("Generating JWT token for authenticated principal {}", username);
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return buildToken(identityClaims(authenticatedUser), username);
+        }
         return generateTokenFromUsername(username);
     }
 
@@ -48,42 +100,139 @@ public class JwtService {
         return buildToken(Map.of(), username);
     }
 
+    /**
+     * Verifies the token signature and expiry and returns its claims.
+     * Verified claims are cached by token digest until the token's own expiry,
+     * so repeated requests with the same token skip parsing and HMAC verification.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims verifyToken(String token) {
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        CachedClaims cached = verifiedClaims.get(digest);
+        if (cached != null) {
+            if (cached.expiresAtMs() > now) {
+                return cached.claims();
+            }
+            verifiedClaims.remove(digest, cached);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        cacheClaims(digest, claims, now);
+        return claims;
+    }
+
     public String extractUsername(String token) {
-        String subject = extractAllClaims(token).getSubject();
+        String subject = verifyToken(token).getSubject();
         logger.debug("Extracted username {} from JWT token", subject);
         return subject;
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        boolean isValid = username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(verifyToken(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        boolean isValid = userDetails.getUsername().equals(claims.getSubject()) && !isExpired(claims);
         logger.debug("JWT validation for user {} -> {}", userDetails.getUsername(), isValid);
         return isValid;
     }
 
+    /**
+     * Rebuilds the principal from the identity claims embedded at login.
+     * Returns empty for tokens issued without those claims.
+     */
+    public Optional<AuthenticatedUser> principalFromClaims(Claims claims) {
+        Object userId = claims.get(USER_ID_CLAIM);
+        Object roles = claims.get(ROLES_CLAIM);
+        Object authVersion = claims.get(AUTH_VERSION_CLAIM);
+        if (!(userId instanceof Number id) || !(roles instanceof Collection<?> roleNames)
+            || !(authVersion instanceof Number version)) {
+            return Optional.empty();
+        }
+
+        List<GrantedAuthority> authorities = roleNames.stream()
+            .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(ROLE_PREFIX + role))
+            .toList();
+        return Optional.of(new AuthenticatedUser(id.longValue(), claims.getSubject(), "", version.longValue(),
+            authorities));
+    }
+
+    private Key resolveVerificationKey(String kid) {
+        if (kid == null) {
+            return hmacKey;
+        }
+        if (keyStore == null) {
+            throw new JwtException("Token names a signing key but asymmetric signing is disabled");
+        }
+        return keyStore.verificationKey(kid)
+            .orElseThrow(() -> new JwtException("Unknown JWT signing key id " + kid));
+    }
+
+    private Map<String, Object> identityClaims(AuthenticatedUser user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(AUTH_VERSION_CLAIM, user.getAuthVersion());
+        claims.put(ROLES_CLAIM, user.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .map(authority -> authority.startsWith(ROLE_PREFIX) ? authority.substring(ROLE_PREFIX.length()) : authority)
+            .toList());
+        return claims;
+    }
+
     private String buildToken(Map<String, Object> extraClaims, String subject) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + expirationMs);
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
             .setClaims(extraClaims)
+            .setId(UUID.randomUUID().toString())
             .setSubject(subject)
             .setIssuedAt(now)
-            .setExpiration(expiry)
-            .signWith(signingKey, SignatureAlgorithm.HS256)
+            .setExpiration(expiry);
+        if (keyStore == null) {
+            return builder.signWith(hmacKey, SignatureAlgorithm.HS256).compact();
+        }
+        JwtKeyStore.ActiveKey activeKey = keyStore.activeKey();
+        return builder
+            .setHeaderParam(JwsHeader.KEY_ID, activeKey.kid())
+            .signWith(activeKey.privateKey(), SignatureAlgorithm.ES256)
             .compact();
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expiration = extractAllClaims(token).getExpiration();
-        return expiration.before(new Date());
+    private boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    private void cacheClaims(String digest, Claims claims, long now) {
+        if (claimsCacheMaxEntries <= 0 || claims.getExpiration() == null) {
+            return;
+        }
+        if (verifiedClaims.size() >= claimsCacheMaxEntries) {
+            evictExpiredOrOverflowing(now);
+        }
+        verifiedClaims.put(digest, new CachedClaims(claims, claims.getExpiration().getTime()));
+    }
+
+    private void evictExpiredOrOverflowing(long now) {
+        verifiedClaims.values().removeIf(entry -> entry.expiresAtMs() <= now);
+        // Still full of live tokens: drop arbitrary entries, they are re-verified on next use
+        Iterator<String> iterator = verifiedClaims.keySet().iterator();
+        int overflow = verifiedClaims.size() - claimsCacheMaxEntries + 1;
+        while (overflow-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(signingKey)
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available for JWT digest", ex);
+        }
     }
 
     private static byte[] normalizeKeyBytes(String secret) {
@@ -99,4 +248,7 @@ public class JwtService {
             throw new IllegalStateException("SHA-256 not available for JWT key derivation", ex);
         }
     }
+
+    private record CachedClaims(Claims claims, long expiresAtMs) {
+    }
 }
@@ -0,0 +1,41 @@
+package com.party.ceva.demo.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Users ranked by lifetime XP, highest first. Ranks are 1-based.
+ */
+public interface Leaderboard {
+
+	void increment(long userId, long xp);
+
+	/**
+	 * Loads a full snapshot of every user's lifetime XP at startup. A store shared by several nodes keeps a
+	 * board it already has, since the running nodes keep it up to date.
+	 */
+	void rebuild(Map<Long, Long> scores);
+
+	/**
+	 * Brings the board in line with a fresh snapshot, correcting increments that were lost. By default the
+	 * board is simply rebuilt from it.
+	 */
+	default void reconcile(Map<Long, Long> scores) {
+		rebuild(scores);
+	}
+
+	List<Entry> top(int limit);
+
+	Optional<Entry> entryOf(long userId);
+
+	/**
+	 * The user's entry with up to {@code radius} neighbours on each side, in rank order.
+	 */
+	List<Entry> around(long userId, int radius);
+
+	long size();
+
+	record Entry(long rank, long userId, long score) {
+	}
+}
@@ -0,0 +1,218 @@
+package com.party.ceva.demo.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.party.ceva.demo.dto.LeaderboardEntryDto;
+import com.party.ceva.demo.model.LevelCurve;
+import com.party.ceva.demo.repository.LevelingRepository;
+import com.party.ceva.demo.repository.UserRepository;
+import com.party.ceva.demo.repository.XpLedgerRepository;
+
+/**
+ * XP leaderboard views. Scores are lifetime XP, fed with the awards each write-behind flush newly wrote to the
+ * ledger, so an award redelivered under the same idempotency key is never counted twice. The board is rebuilt
+ * from the database before the application starts taking traffic or running scheduled work, inside
+ * {@link XpAccrualEngine#readPersisted}, which keeps the snapshot and the flushed awards from overlapping, and
+ * reconciled with it on a schedule.
+ * Weekly, monthly and season boards are fed from the same awards by {@link WindowedLeaderboard}, and reloaded
+ * from the timestamped {@code xp_ledger} rows at the same point.
+ */
+@Service
+public class LeaderboardService implements SmartInitializingSingleton {
+	private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+	private static final int MAX_LIMIT = 100;
+	private static final int MAX_RADIUS = 25;
+
+	private final Leaderboard leaderboard;
+	private final WindowedLeaderboard windowedLeaderboard;
+	private final LevelingRepository levelingRepository;
+	private final UserRepository userRepository;
+	private final XpLedgerRepository ledgerRepository;
+	private final XpAccrualEngine xpAccrualEngine;
+	private final boolean rebuildOnStartup;
+
+	public LeaderboardService(Leaderboard leaderboard, WindowedLeaderboard windowedLeaderboard,
+			LevelingRepository levelingRepository, UserRepository userRepository, XpLedgerRepository ledgerRepository,
+			XpAccrualEngine xpAccrualEngine, @Value("${app.leaderboard.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+		this.leaderboard = leaderboard;
+		this.windowedLeaderboard = windowedLeaderboard;
+		this.levelingRepository = levelingRepository;
+		this.userRepository = userRepository;
+		this.ledgerRepository = ledgerRepository;
+		this.xpAccrualEngine = xpAccrualEngine;
+		this.rebuildOnStartup = rebuildOnStartup;
+		xpAccrualEngine.addAppliedListener(this::recordAwards);
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		if (rebuildOnStartup) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Reloads every user's lifetime XP from the level table, and the windowed boards from the ledger. XP not yet
+	 * flushed is left out; it reaches the boards with its flush.
+	 */
+	public void rebuild() {
+		long startedAt = System.currentTimeMillis();
+		xpAccrualEngine.readPersisted(() -> {
+			reloadWindows();
+			Map<Long, Long> totals = lifetimeTotals();
+			try {
+				leaderboard.rebuild(totals);
+				logger.info("Leaderboard rebuilt with {} users in {} ms", totals.size(),
+						System.currentTimeMillis() - startedAt);
+			} catch (RuntimeException ex) {
+				logger.warn("Leaderboard rebuild failed: {}", ex.getMessage());
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Corrects the lifetime board against the level table, for increments lost to a failed store call or,
+	 * with the shared store, to another node's load racing with awards.
+	 */
+	@Scheduled(initialDelayString = "${app.leaderboard.reconcile-interval-ms:600000}",
+			fixedDelayString = "${app.leaderboard.reconcile-interval-ms:600000}")
+	public void reconcile() {
+		try {
+			xpAccrualEngine.readPersisted(() -> {
+				leaderboard.reconcile(lifetimeTotals());
+				return null;
+			});
+		} catch (RuntimeException ex) {
+			logger.warn("Leaderboard reconciliation failed: {}", ex.getMessage());
+		}
+	}
+
+	private Map<Long, Long> lifetimeTotals() {
+		LevelCurve curve = LevelCurve.current();
+		Map<Long, Long> totals = new HashMap<>();
+		for (Object[] row : levelingRepository.findAllUserLevels()) {
+			long persisted = curve.cumulativeXp((Integer) row[1]) + (Long) row[2];
+			// Users enter the board with their first award, so those without XP stay off it here too
+			if (persisted > 0) {
+				totals.put((Long) row[0], persisted);
+			}
+		}
+		return totals;
+	}
+
+	/**
+	 * Adds awards the ledger has just accepted, each to the windows covering the day it was made.
+	 */
+	public void recordAwards(List<XpLedgerRepository.Award> awards) {
+		Map<Long, Long> totals = new HashMap<>();
+		for (XpLedgerRepository.Award award : awards) {
+			try {
+				windowedLeaderboard.load(award.awardedAt(), award.userId(), award.amount());
+			} catch (RuntimeException ex) {
+				logger.warn("Windowed leaderboard update failed for user {}: {}", award.userId(), ex.getMessage());
+			}
+			totals.merge(award.userId(), award.amount(), Long::sum);
+		}
+		totals.forEach(this::incrementLifetime);
+	}
+
+	public void recordXp(long userId, long xp) {
+		// Separately, so a failing board does not keep the award off the other one
+		try {
+			windowedLeaderboard.record(userId, xp);
+		} catch (RuntimeException ex) {
+			logger.warn("Windowed leaderboard update failed for user {}: {}", userId, ex.getMessage());
+		}
+		incrementLifetime(userId, xp);
+	}
+
+	private void incrementLifetime(long userId, long xp) {
+		try {
+			leaderboard.increment(userId, xp);
+		} catch (RuntimeException ex) {
+			// The award itself is already durable; a missed increment is corrected by the next reconciliation
+			logger.warn("Leaderboard update failed for user {}: {}", userId, ex.getMessage());
+		}
+	}
+
+	public List<LeaderboardEntryDto> top(int limit) {
+		return toDtos(leaderboard.top(Math.max(1, Math.min(limit, MAX_LIMIT))));
+	}
+
+	public Optional<LeaderboardEntryDto> entryOf(long userId) {
+		return leaderboard.entryOf(userId).map(entry -> toDtos(List.of(entry)).get(0));
+	}
+
+	public List<LeaderboardEntryDto> around(long userId, int radius) {
+		return toDtos(leaderboard.around(userId, Math.max(0, Math.min(radius, MAX_RADIUS))));
+	}
+
+	public List<LeaderboardEntryDto> top(WindowedLeaderboard.Window window, int limit) {
+		return toWindowDtos(windowedLeaderboard.top(window, Math.max(1, Math.min(limit, MAX_LIMIT))));
+	}
+
+	public Optional<LeaderboardEntryDto> entryOf(WindowedLeaderboard.Window window, long userId) {
+		return windowedLeaderboard.entryOf(window, userId).map(entry -> toWindowDtos(List.of(entry)).get(0));
+	}
+
+	public List<LeaderboardEntryDto> around(WindowedLeaderboard.Window window, long userId, int radius) {
+		return toWindowDtos(windowedLeaderboard.around(window, userId, Math.max(0, Math.min(radius, MAX_RADIUS))));
+	}
+
+	private void reloadWindows() {
+		try {
+			windowedLeaderboard.clear();
+			int[] loaded = { 0 };
+			ledgerRepository.forEachAwardSince(windowedLeaderboard.historyStart(), award -> {
+				windowedLeaderboard.load(award.awardedAt(), award.userId(), award.amount());
+				loaded[0]++;
+			});
+			logger.info("Windowed leaderboards reloaded from {} ledger rows", loaded[0]);
+		} catch (RuntimeException ex) {
+			logger.warn("Windowed leaderboard reload failed: {}", ex.getMessage());
+		}
+	}
+
+	private List<LeaderboardEntryDto> toDtos(List<Leaderboard.Entry> entries) {
+		LevelCurve curve = LevelCurve.current();
+		return toDtos(entries, entry -> curve.levelForTotalXp(entry.score()));
+	}
+
+	private List<LeaderboardEntryDto> toWindowDtos(List<Leaderboard.Entry> entries) {
+		// A window score is only part of the user's XP, so the level comes from the lifetime board
+		LevelCurve curve = LevelCurve.current();
+		return toDtos(entries, entry -> curve.levelForTotalXp(
+				leaderboard.entryOf(entry.userId()).map(Leaderboard.Entry::score).orElse(entry.score())));
+	}
+
+	private List<LeaderboardEntryDto> toDtos(List<Leaderboard.Entry> entries,
+			ToIntFunction<Leaderboard.Entry> levelOf) {
+		if (entries.isEmpty()) {
+			return List.of();
+		}
+		// One query for the names of the whole slice
+		Map<Long, Object[]> names = new HashMap<>();
+		for (Object[] row : userRepository.findDisplayNamesByIds(entries.stream().map(Leaderboard.Entry::userId)
+				.toList())) {
+			names.put((Long) row[0], row);
+		}
+		return entries.stream().map(entry -> {
+			Object[] name = names.get(entry.userId());
+			return new LeaderboardEntryDto(entry.rank(), entry.userId(),
+					name == null ? null : (String) name[1], name == null ? null : (String) name[2],
+					entry.score(), levelOf.applyAsInt(entry));
+		}).toList();
+	}
+}
@@ -1,11 +1,14 @@
 package com.party.ceva.demo.service;
 
+import java.time.Instant;
+import java.util.UUID;
+
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.party.ceva.demo.model.Level;
 import com.party.ceva.demo.model.User;
 import com.party.ceva.demo.repository.UserRepository;
+import com.party.ceva.demo.repository.XpLedgerRepository;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,58 +19,63 @@ import lombok.extern.slf4j.Slf4j;
 public class LevelingSystemService {
 
     private final UserRepository userRepository;
+    private final XpAccrualEngine xpAccrualEngine;
+    private final XpLedgerService xpLedgerService;
 
+    /**
+     * The user's level including XP that was awarded but not yet flushed to the database.
+     */
     public Level getLevelByUserId(Long id) {
         log.debug("Getting level for user {}", id);
-        User user = userRepository.findById(id)
-            .orElseThrow(() -> {
-                log.warn("Get level rejected: user {} not found", id);
-                return new RuntimeException("User not found with id: " + id);
-            });
-
-        Level level = user.getLevel();
-        if (level == null) {
-            level = new Level();
-        }
-        return level;
+        return xpAccrualEngine.readLevel(id, () -> {
+            User user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Get level rejected: user {} not found", id);
+                    return new RuntimeException("User not found with id: " + id);
+                });
+            return user.getLevel() == null ? new Level() : user.getLevel();
+        });
     }
 
-    @Transactional
-    public int addXpToUser(Long id, int xpToAdd) {
+    /**
+     * Records an XP award. The award is durable when this returns; the ledger row, level row, level-ups,
+     * leaderboard scores and the {@link com.party.ceva.demo.event.XpAwarded} event follow with the next
+     * write-behind flush.
+     *
+     * @param idempotencyKey identifies the award across retries; {@code null} makes every call a new award
+     * @return false if an award with the same key is already in the ledger or pending on this node, in which
+     *         case nothing changes. A key still pending on another node is only caught by the ledger on flush.
+     */
+    public boolean addXpToUser(Long id, int xpToAdd, String reason, String idempotencyKey) {
         if (xpToAdd <= 0) {
             throw new IllegalArgumentException("XP to add must be positive");
         }
-
-        log.info("Adding {} XP to user {}", xpToAdd, id);
-        User user = userRepository.findById(id)
-            .orElseThrow(() -> {
-                log.warn("Add XP rejected: user {} not found", id);
-                return new RuntimeException("User not found with id: " + id);
-            });
-    
-        Level level = user.getLevel();
-        if (level == null) {
-            level = new Level();
-            user.setLevel(level);
+        if (reason != null && reason.length() > XpLedgerService.MAX_REASON_LENGTH) {
+            throw new IllegalArgumentException(
+                "Reason must be at most " + XpLedgerService.MAX_REASON_LENGTH + " characters");
+        }
+        if (idempotencyKey != null
+            && (idempotencyKey.isBlank() || idempotencyKey.length() > XpLedgerService.MAX_KEY_LENGTH)) {
+            throw new IllegalArgumentException(
+                "Idempotency key must be non-blank and at most " + XpLedgerService.MAX_KEY_LENGTH + " characters");
         }
 
-        long currentXP = level.getCurrentXP() + xpToAdd;
-        int currentLevel = level.getCurrentLevel();
-
-        // Level up logic: can handle multiple level-ups at once
-        while (currentXP >= level.getNextLevelXP()) {
-            currentXP -= level.getNextLevelXP();
-            currentLevel++;
-            
-            // We set the level temporarily to trigger nextLevelXP update in Level entity
-            level.setCurrentLevel(currentLevel);
-            log.info("User {} leveled up to {}", id, currentLevel);
+        if (!userRepository.existsById(id)) {
+            log.warn("Add XP rejected: user {} not found", id);
+            throw new RuntimeException("User not found with id: " + id);
         }
 
-        level.setCurrentXP(currentXP);
-        level.setCurrentLevel(currentLevel); // Ensures sync and calculation
-        
-        userRepository.save(user);
-        return level.getCurrentLevel();
+        if (idempotencyKey != null && xpLedgerService.isRecorded(idempotencyKey)) {
+            log.info("Add XP to user {} skipped: award {} already recorded", id, idempotencyKey);
+            return false;
+        }
+        String key = idempotencyKey != null ? idempotencyKey : "auto-" + UUID.randomUUID();
+        if (!xpAccrualEngine.accrue(new XpLedgerRepository.Award(key, id, xpToAdd, reason, Instant.now()))) {
+            log.info("Add XP to user {} skipped: award {} already pending", id, key);
+            return false;
+        }
+        // The leaderboards follow with the flush, and only if the ledger accepts the key
+        log.info("Adding {} XP to user {}", xpToAdd, id);
+        return true;
     }
 }
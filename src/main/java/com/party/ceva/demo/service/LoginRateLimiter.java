@@ -0,0 +1,28 @@
+package com.party.ceva.demo.service;
+
+/**
+ * Token-bucket rate limiter used to throttle authentication endpoints before any password hashing happens.
+ */
+public interface LoginRateLimiter {
+
+	/**
+	 * Takes one token from the bucket identified by {@code key}.
+	 *
+	 * @return 0 when the request may proceed, otherwise the milliseconds until a token is available
+	 */
+	long tryAcquire(String key, BucketSpec spec);
+
+	/**
+	 * Bucket shape: up to {@code capacity} requests in a burst, refilled at {@code refillPerMinute}.
+	 */
+	record BucketSpec(int capacity, int refillPerMinute) {
+		public double refillPerMs() {
+			return refillPerMinute / 60_000.0;
+		}
+
+		public long idleMs() {
+			// A bucket untouched for a full refill cycle is back at capacity and can be forgotten
+			return (long) Math.ceil(capacity / refillPerMs());
+		}
+	}
+}
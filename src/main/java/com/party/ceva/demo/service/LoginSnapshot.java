@@ -0,0 +1,10 @@
+package com.party.ceva.demo.service;
+
+import com.party.ceva.demo.dto.UserDto;
+
+/**
+ * Result of a successful password check: the security principal to issue a token for
+ * and the user view returned to the client, both built from the same database read.
+ */
+public record LoginSnapshot(AuthenticatedUser principal, UserDto user) {
+}
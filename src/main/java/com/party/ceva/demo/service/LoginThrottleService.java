@@ -0,0 +1,78 @@
+package com.party.ceva.demo.service;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.party.ceva.demo.config.RetryAfterStatusException;
+import com.party.ceva.demo.service.LoginRateLimiter.BucketSpec;
+
+/**
+ * Rejects over-limit login and registration attempts before they reach BCrypt.
+ * Logins are limited per client IP and per target email; registrations per client IP.
+ */
+@Service
+public class LoginThrottleService {
+	private static final Logger logger = LoggerFactory.getLogger(LoginThrottleService.class);
+
+	private final LoginRateLimiter rateLimiter;
+	private final boolean enabled;
+	private final BucketSpec loginPerIp;
+	private final BucketSpec loginPerEmail;
+	private final BucketSpec registerPerIp;
+
+	public LoginThrottleService(
+			LoginRateLimiter rateLimiter,
+			@Value("${app.auth.throttle.enabled:true}") boolean enabled,
+			@Value("${app.auth.throttle.login-per-ip.capacity:20}") int loginPerIpCapacity,
+			@Value("${app.auth.throttle.login-per-ip.refill-per-minute:20}") int loginPerIpRefill,
+			@Value("${app.auth.throttle.login-per-email.capacity:5}") int loginPerEmailCapacity,
+			@Value("${app.auth.throttle.login-per-email.refill-per-minute:5}") int loginPerEmailRefill,
+			@Value("${app.auth.throttle.register-per-ip.capacity:5}") int registerPerIpCapacity,
+			@Value("${app.auth.throttle.register-per-ip.refill-per-minute:2}") int registerPerIpRefill) {
+		this.rateLimiter = rateLimiter;
+		this.enabled = enabled;
+		this.loginPerIp = bucket("login-per-ip", loginPerIpCapacity, loginPerIpRefill);
+		this.loginPerEmail = bucket("login-per-email", loginPerEmailCapacity, loginPerEmailRefill);
+		this.registerPerIp = bucket("register-per-ip", registerPerIpCapacity, registerPerIpRefill);
+	}
+
+	// A bucket that never refills would divide by zero when computing the retry delay
+	private static BucketSpec bucket(String name, int capacity, int refillPerMinute) {
+		if (capacity < 1 || refillPerMinute < 1) {
+			throw new IllegalStateException("app.auth.throttle." + name
+					+ ".capacity and .refill-per-minute must both be at least 1");
+		}
+		return new BucketSpec(capacity, refillPerMinute);
+	}
+
+	public void checkLogin(String clientIp, String email) {
+		if (!enabled) {
+			return;
+		}
+		enforce("login-ip:" + clientIp, loginPerIp);
+		if (email != null && !email.isBlank()) {
+			enforce("login-email:" + email.trim().toLowerCase(Locale.ROOT), loginPerEmail);
+		}
+	}
+
+	public void checkRegistration(String clientIp) {
+		if (!enabled) {
+			return;
+		}
+		enforce("register-ip:" + clientIp, registerPerIp);
+	}
+
+	private void enforce(String key, BucketSpec spec) {
+		long waitMs = rateLimiter.tryAcquire(key, spec);
+		if (waitMs > 0) {
+			logger.warn("Throttled {} for {}ms", key, waitMs);
+			throw new RetryAfterStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many attempts, please retry later",
+					(waitMs + 999) / 1000);
+		}
+	}
+}
@@ -1,15 +1,18 @@
 package com.party.ceva.demo.service;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import com.party.ceva.demo.dto.CreateNewsRequest;
+import com.party.ceva.demo.dto.CursorPage;
 import com.party.ceva.demo.model.News;
 import com.party.ceva.demo.repository.NewsRepository;
 
@@ -36,7 +39,8 @@ public class NewsService {
 
 	@Cacheable(
 			value = "news-pages",
-			key = "#pageable.pageNumber + '-' + #pageable.pageSize + '-' + #pageable.sort.toString()")
+			key = "#pageable.pageNumber + '-' + #pageable.pageSize + '-' + #pageable.sort.toString()",
+			sync = true)
 	public Page<News> findAllNews(Pageable pageable) {
 		logger.debug("Fetching news page: page={}, size={}, sort={}", pageable.getPageNumber(), pageable.getPageSize(),
 				pageable.getSort());
@@ -46,7 +50,21 @@ public class NewsService {
 		return newsPage;
 	}
 
-	@Cacheable(value = "news", key = "#id")
+	public CursorPage<News> scrollNews(String cursor, Integer size) {
+		int pageSize = PageCursors.clampSize(size);
+		Limit limit = Limit.of(pageSize + 1);
+		List<News> rows;
+		if (cursor == null) {
+			rows = this.newsRepository.findAllByOrderByCreatedAtDescIdDesc(limit);
+		} else {
+			PageCursors.Position position = PageCursors.decodePosition(cursor);
+			rows = this.newsRepository.findOlderThan(position.sortKey(), position.id(), limit);
+		}
+		logger.debug("Scrolled {} news articles", rows.size());
+		return CursorPage.of(rows, pageSize, news -> news, news -> PageCursors.encode(news.getCreatedAt(), news.getId()));
+	}
+
+	@Cacheable(value = "news", key = "#id", sync = true)
 	public Optional<News> findNewsById(Long id) {
 		logger.debug("Finding news by id {}", id);
 		Optional<News> news = newsRepository.findById(id);
@@ -0,0 +1,172 @@
+package com.party.ceva.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.party.ceva.demo.event.DomainEvent;
+import com.party.ceva.demo.event.DomainEventHandler;
+import com.party.ceva.demo.model.OutboxEvent;
+import com.party.ceva.demo.model.OutboxReceipt;
+import com.party.ceva.demo.repository.OutboxEventRepository;
+import com.party.ceva.demo.repository.OutboxReceiptRepository;
+
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Drains the outbox in batches and hands each event to its handlers.
+ * <p>
+ * A batch is claimed with {@code for update skip locked}, so several nodes can poll at once without picking
+ * the same rows. Every handler runs in its own transaction together with its receipt: a handler that committed
+ * is skipped when the event comes round again, and one that failed is retried with exponential backoff until
+ * the event runs out of attempts and is parked as {@code FAILED}.
+ */
+@Service
+public class OutboxDispatcher {
+	private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+	private static final int MAX_ERROR_LENGTH = 1000;
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final OutboxReceiptRepository outboxReceiptRepository;
+	private final ObjectMapper objectMapper;
+	private final TransactionTemplate batchTransaction;
+	private final TransactionTemplate handlerTransaction;
+	private final Map<String, Class<? extends DomainEvent>> eventTypes = new HashMap<>();
+	private final Map<Class<?>, List<DomainEventHandler<?>>> handlersByType = new HashMap<>();
+	private final int batchSize;
+	private final int maxBatchesPerRun;
+	private final int maxAttempts;
+	private final long baseBackoffMs;
+	private final long maxBackoffMs;
+
+	public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+			OutboxReceiptRepository outboxReceiptRepository, ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager, List<DomainEventHandler<?>> handlers,
+			@Value("${app.outbox.batch-size:100}") int batchSize,
+			@Value("${app.outbox.max-batches-per-run:10}") int maxBatchesPerRun,
+			@Value("${app.outbox.max-attempts:10}") int maxAttempts,
+			@Value("${app.outbox.backoff.base-ms:1000}") long baseBackoffMs,
+			@Value("${app.outbox.backoff.max-ms:300000}") long maxBackoffMs) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.outboxReceiptRepository = outboxReceiptRepository;
+		this.objectMapper = objectMapper;
+		this.batchTransaction = new TransactionTemplate(transactionManager);
+		this.handlerTransaction = new TransactionTemplate(transactionManager);
+		this.handlerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		for (DomainEventHandler<?> handler : handlers) {
+			eventTypes.put(OutboxService.typeOf(handler.eventType()), handler.eventType());
+			handlersByType.computeIfAbsent(handler.eventType(), type -> new ArrayList<>()).add(handler);
+		}
+		this.batchSize = Math.max(1, batchSize);
+		this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.baseBackoffMs = Math.max(0, baseBackoffMs);
+		this.maxBackoffMs = Math.max(this.baseBackoffMs, maxBackoffMs);
+		logger.info("Initialized outbox dispatcher with {} handlers, batchSize={}, maxAttempts={}", handlers.size(),
+				this.batchSize, this.maxAttempts);
+	}
+
+	@Scheduled(initialDelayString = "${app.outbox.initial-delay-ms:5000}",
+			fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+	public void drain() {
+		try {
+			for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+				if (dispatchBatch() < batchSize) {
+					return;
+				}
+			}
+		} catch (RuntimeException ex) {
+			// Database unavailable or similar: the claimed rows were rolled back and are picked up next run
+			logger.warn("Outbox drain failed: {}", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Claims and dispatches one batch of due events.
+	 *
+	 * @return the number of events claimed
+	 */
+	public int dispatchBatch() {
+		Integer claimed = batchTransaction.execute(status -> {
+			LocalDateTime now = LocalDateTime.now();
+			List<OutboxEvent> batch = outboxEventRepository.lockPendingBatch(now, batchSize);
+			for (OutboxEvent event : batch) {
+				dispatch(event, now);
+			}
+			outboxEventRepository.saveAll(batch);
+			return batch.size();
+		});
+		return claimed == null ? 0 : claimed;
+	}
+
+	private void dispatch(OutboxEvent row, LocalDateTime now) {
+		Class<? extends DomainEvent> type = eventTypes.get(row.getEventType());
+		List<DomainEventHandler<?>> handlers = type == null ? List.of() : handlersByType.get(type);
+		RuntimeException failure = null;
+		if (!handlers.isEmpty()) {
+			try {
+				DomainEvent event = objectMapper.readValue(row.getPayload(), type);
+				for (DomainEventHandler<?> handler : handlers) {
+					try {
+						handleOnce(row.getId(), handler, event);
+					} catch (RuntimeException ex) {
+						logger.warn("Outbox handler {} failed for event {} ({}): {}", handler.name(), row.getId(),
+								row.getEventType(), ex.getMessage());
+						failure = failure == null ? ex : failure;
+					}
+				}
+			} catch (RuntimeException ex) {
+				logger.warn("Outbox event {} ({}) could not be read: {}", row.getId(), row.getEventType(),
+						ex.getMessage());
+				failure = ex;
+			}
+		}
+
+		if (failure == null) {
+			row.setStatus(OutboxEvent.Status.PROCESSED);
+			row.setProcessedAt(now);
+			row.setLastError(null);
+			return;
+		}
+		row.setAttempts(row.getAttempts() + 1);
+		row.setLastError(truncate(failure.toString()));
+		if (row.getAttempts() >= maxAttempts) {
+			row.setStatus(OutboxEvent.Status.FAILED);
+			logger.error("Outbox event {} ({}) failed {} times, giving up", row.getId(), row.getEventType(),
+					row.getAttempts());
+		} else {
+			row.setAvailableAt(now.plusNanos(backoffMs(row.getAttempts()) * 1_000_000L));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <E extends DomainEvent> void handleOnce(Long eventId, DomainEventHandler<E> handler, DomainEvent event) {
+		handlerTransaction.executeWithoutResult(status -> {
+			if (outboxReceiptRepository.existsByEventIdAndConsumer(eventId, handler.name())) {
+				return;
+			}
+			handler.handle((E) event);
+			outboxReceiptRepository.save(new OutboxReceipt(null, eventId, handler.name(), LocalDateTime.now()));
+		});
+	}
+
+	long backoffMs(int attempts) {
+		int shift = Math.min(Math.max(0, attempts - 1), 30);
+		return Math.min(maxBackoffMs, baseBackoffMs << shift);
+	}
+
+	private static String truncate(String message) {
+		return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+	}
+}
@@ -0,0 +1,81 @@
+package com.party.ceva.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.party.ceva.demo.repository.OutboxEventRepository;
+import com.party.ceva.demo.repository.OutboxReceiptRepository;
+
+/**
+ * Deletes processed outbox events once they are older than the retention, together with their receipts.
+ * Failed events are kept for inspection. Deletes run in short batches so they never hold locks the
+ * dispatcher is waiting for.
+ */
+@Service
+public class OutboxPurger {
+	private static final Logger logger = LoggerFactory.getLogger(OutboxPurger.class);
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final OutboxReceiptRepository outboxReceiptRepository;
+	private final TransactionTemplate batchTransaction;
+	private final Duration retention;
+	private final int batchSize;
+
+	public OutboxPurger(OutboxEventRepository outboxEventRepository,
+			OutboxReceiptRepository outboxReceiptRepository, PlatformTransactionManager transactionManager,
+			@Value("${app.outbox.retention:7d}") Duration retention,
+			@Value("${app.outbox.purge.batch-size:1000}") int batchSize) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.outboxReceiptRepository = outboxReceiptRepository;
+		this.batchTransaction = new TransactionTemplate(transactionManager);
+		this.retention = retention;
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	@Scheduled(initialDelayString = "${app.outbox.purge.interval-ms:3600000}",
+			fixedDelayString = "${app.outbox.purge.interval-ms:3600000}")
+	public void purge() {
+		try {
+			int purged = purgeProcessedBefore(LocalDateTime.now().minus(retention));
+			if (purged > 0) {
+				logger.info("Purged {} processed outbox events older than {}", purged, retention);
+			}
+		} catch (RuntimeException ex) {
+			// Whatever was left is picked up by the next run
+			logger.warn("Outbox purge failed: {}", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Deletes every event processed before {@code cutoff} and its receipts.
+	 *
+	 * @return the number of events deleted
+	 */
+	public int purgeProcessedBefore(LocalDateTime cutoff) {
+		int total = 0;
+		while (true) {
+			Integer purged = batchTransaction.execute(status -> {
+				List<Long> ids = outboxEventRepository.findProcessedIdsBefore(cutoff, batchSize);
+				if (!ids.isEmpty()) {
+					outboxReceiptRepository.deleteByEventIdIn(ids);
+					outboxEventRepository.deleteAllByIdInBatch(ids);
+				}
+				return ids.size();
+			});
+			int batch = purged == null ? 0 : purged;
+			total += batch;
+			if (batch < batchSize) {
+				return total;
+			}
+		}
+	}
+}
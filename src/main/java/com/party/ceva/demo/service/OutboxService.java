@@ -0,0 +1,49 @@
+package com.party.ceva.demo.service;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.party.ceva.demo.event.DomainEvent;
+import com.party.ceva.demo.model.OutboxEvent;
+import com.party.ceva.demo.repository.OutboxEventRepository;
+
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Records domain events in the outbox table. Publishing joins the caller's transaction, so an event exists
+ * exactly when the change it describes was committed; {@link OutboxDispatcher} delivers it afterwards.
+ */
+@Service
+public class OutboxService {
+	private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final ObjectMapper objectMapper;
+
+	public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.objectMapper = objectMapper;
+	}
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void publish(DomainEvent event) {
+		LocalDateTime now = LocalDateTime.now();
+		OutboxEvent row = new OutboxEvent();
+		row.setEventType(typeOf(event.getClass()));
+		row.setAggregateId(event.aggregateId());
+		row.setPayload(objectMapper.writeValueAsString(event));
+		row.setCreatedAt(now);
+		row.setAvailableAt(now);
+		outboxEventRepository.save(row);
+		logger.debug("Queued {} for aggregate {}", row.getEventType(), row.getAggregateId());
+	}
+
+	static String typeOf(Class<? extends DomainEvent> eventClass) {
+		return eventClass.getSimpleName();
+	}
+}
@@ -0,0 +1,78 @@
+package com.party.ceva.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Encodes keyset positions as opaque URL-safe cursors. A cursor holds the sort key and the id
+ * of the last row returned, which the next query seeks past instead of counting an offset.
+ */
+final class PageCursors {
+	static final int DEFAULT_SIZE = 20;
+	static final int MAX_SIZE = 100;
+	private static final String SEPARATOR = "|";
+
+	private PageCursors() {
+	}
+
+	static int clampSize(Integer size) {
+		if (size == null || size < 1) {
+			return DEFAULT_SIZE;
+		}
+		return Math.min(size, MAX_SIZE);
+	}
+
+	static String encode(long id) {
+		return encodeRaw(Long.toString(id));
+	}
+
+	static String encode(LocalDateTime sortKey, long id) {
+		return encodeRaw(sortKey + SEPARATOR + id);
+	}
+
+	static long decodeId(String cursor) {
+		try {
+			return Long.parseLong(decodeRaw(cursor));
+		} catch (NumberFormatException ex) {
+			throw invalidCursor();
+		}
+	}
+
+	static Position decodePosition(String cursor) {
+		String raw = decodeRaw(cursor);
+		int separator = raw.lastIndexOf(SEPARATOR);
+		if (separator < 0) {
+			throw invalidCursor();
+		}
+		try {
+			return new Position(LocalDateTime.parse(raw.substring(0, separator)),
+					Long.parseLong(raw.substring(separator + 1)));
+		} catch (DateTimeParseException | NumberFormatException ex) {
+			throw invalidCursor();
+		}
+	}
+
+	private static String encodeRaw(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String decodeRaw(String cursor) {
+		try {
+			return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException ex) {
+			throw invalidCursor();
+		}
+	}
+
+	private static ResponseStatusException invalidCursor() {
+		return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+	}
+
+	record Position(LocalDateTime sortKey, long id) {
+	}
+}
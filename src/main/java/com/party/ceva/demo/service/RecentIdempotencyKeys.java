@@ -0,0 +1,47 @@
+package com.party.ceva.demo.service;
+
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Idempotency keys of XP awards recently written to the ledger by this node, kept in a pair of rotating Bloom
+ * filters. A negative answer means the key was not recorded here lately; a positive one still has to be
+ * confirmed against the ledger. Two generations bound the false-positive rate while keys from the last
+ * rotation are still recognized.
+ */
+@Component
+public class RecentIdempotencyKeys {
+
+	private final long expectedKeys;
+	private final double falsePositiveRate;
+	private BloomFilter current;
+	private BloomFilter previous;
+	private long inserted;
+
+	public RecentIdempotencyKeys(
+			@Value("${app.xp.ledger.recent-keys.expected:100000}") long expectedKeys,
+			@Value("${app.xp.ledger.recent-keys.false-positive-rate:0.01}") double falsePositiveRate) {
+		this.expectedKeys = expectedKeys;
+		this.falsePositiveRate = falsePositiveRate;
+		this.current = new BloomFilter(expectedKeys, falsePositiveRate);
+		this.previous = new BloomFilter(1, falsePositiveRate);
+	}
+
+	public synchronized boolean mightContain(String key) {
+		return current.mightContain(key) || previous.mightContain(key);
+	}
+
+	public synchronized void remember(Collection<String> keys) {
+		for (String key : keys) {
+			if (inserted >= expectedKeys) {
+				previous = current;
+				current = new BloomFilter(expectedKeys, falsePositiveRate);
+				inserted = 0;
+			}
+			current.put(key);
+			inserted++;
+		}
+	}
+}
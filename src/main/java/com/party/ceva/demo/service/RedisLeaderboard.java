@@ -0,0 +1,205 @@
+package com.party.ceva.demo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Leaderboard kept in one Redis sorted set, shared by every node. Redis orders equal scores by member
+ * in reverse, so ties rank differently than in the in-memory store.
+ */
+@Service
+@ConditionalOnProperty(name = "app.leaderboard.store", havingValue = "redis")
+public class RedisLeaderboard implements Leaderboard {
+	private static final Logger logger = LoggerFactory.getLogger(RedisLeaderboard.class);
+	static final String KEY = "leaderboard:xp";
+	private static final String LOCK_KEY = KEY + ":lock";
+	private static final Duration LOCK_TTL = Duration.ofMinutes(5);
+	private static final int CHUNK_SIZE = 1000;
+	private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>("""
+			if redis.call('GET', KEYS[1]) == ARGV[1] then
+				return redis.call('DEL', KEYS[1])
+			end
+			return 0
+			""", Long.class);
+
+	private final StringRedisTemplate redisTemplate;
+	// Differences seen by the last reconciliation on this node, corrected if the next one sees them again
+	private Map<Long, Long> unconfirmedDrift = Map.of();
+
+	public RedisLeaderboard(StringRedisTemplate redisTemplate) {
+		this.redisTemplate = redisTemplate;
+		logger.info("Initialized Redis-backed leaderboard");
+	}
+
+	@Override
+	public void increment(long userId, long xp) {
+		redisTemplate.opsForZSet().incrementScore(KEY, Long.toString(userId), xp);
+	}
+
+	/**
+	 * Loads {@code scores} only when no board exists yet: the running nodes keep an existing one up to date,
+	 * and replacing it would drop their increments made while the snapshot was read. Nodes starting together
+	 * take turns through a Redis lock, and increments that created the key during the build are added to it.
+	 */
+	@Override
+	public void rebuild(Map<Long, Long> scores) {
+		withLock(() -> {
+			if (Boolean.TRUE.equals(redisTemplate.hasKey(KEY))) {
+				logger.info("Redis leaderboard already holds {} users, keeping it", size());
+				return;
+			}
+			if (scores.isEmpty()) {
+				return;
+			}
+			// Built under a temporary key and merged in one command, so readers never see a half-loaded board
+			String buildKey = KEY + ":rebuild:" + UUID.randomUUID();
+			Set<TypedTuple<String>> chunk = new HashSet<>();
+			for (Map.Entry<Long, Long> score : scores.entrySet()) {
+				chunk.add(TypedTuple.of(Long.toString(score.getKey()), score.getValue().doubleValue()));
+				if (chunk.size() == CHUNK_SIZE) {
+					redisTemplate.opsForZSet().add(buildKey, chunk);
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty()) {
+				redisTemplate.opsForZSet().add(buildKey, chunk);
+			}
+			redisTemplate.opsForZSet().unionAndStore(KEY, buildKey, KEY);
+			redisTemplate.delete(buildKey);
+			logger.info("Loaded Redis leaderboard with {} users", scores.size());
+		});
+	}
+
+	/**
+	 * Corrects scores that differ from {@code scores} by the same amount on two runs in a row. A single
+	 * difference may just be an increment another node made between the snapshot and the comparison;
+	 * a lost increment shows up again on the next run and is corrected then.
+	 */
+	@Override
+	public synchronized void reconcile(Map<Long, Long> scores) {
+		withLock(() -> {
+			Map<Long, Long> stored = readAll();
+			Map<Long, Long> drift = new HashMap<>();
+			scores.forEach((userId, score) -> {
+				long difference = score - stored.getOrDefault(userId, 0L);
+				if (difference != 0) {
+					drift.put(userId, difference);
+				}
+			});
+			stored.forEach((userId, score) -> {
+				if (!scores.containsKey(userId)) {
+					drift.put(userId, -score);
+				}
+			});
+
+			int corrected = 0;
+			for (Map.Entry<Long, Long> entry : List.copyOf(drift.entrySet())) {
+				if (!entry.getValue().equals(unconfirmedDrift.get(entry.getKey()))) {
+					continue;
+				}
+				String member = Long.toString(entry.getKey());
+				if (scores.containsKey(entry.getKey())) {
+					redisTemplate.opsForZSet().incrementScore(KEY, member, entry.getValue());
+				} else {
+					redisTemplate.opsForZSet().remove(KEY, member);
+				}
+				corrected++;
+				drift.remove(entry.getKey());
+			}
+			unconfirmedDrift = drift;
+			if (corrected > 0) {
+				logger.warn("Corrected {} drifted Redis leaderboard scores", corrected);
+			}
+		});
+	}
+
+	@Override
+	public List<Entry> top(int limit) {
+		return range(0, limit - 1L);
+	}
+
+	@Override
+	public Optional<Entry> entryOf(long userId) {
+		String member = Long.toString(userId);
+		Long index = redisTemplate.opsForZSet().reverseRank(KEY, member);
+		Double score = redisTemplate.opsForZSet().score(KEY, member);
+		if (index == null || score == null) {
+			return Optional.empty();
+		}
+		return Optional.of(new Entry(index + 1, userId, score.longValue()));
+	}
+
+	@Override
+	public List<Entry> around(long userId, int radius) {
+		Long index = redisTemplate.opsForZSet().reverseRank(KEY, Long.toString(userId));
+		if (index == null) {
+			return List.of();
+		}
+		return range(Math.max(0, index - radius), index + radius);
+	}
+
+	@Override
+	public long size() {
+		Long size = redisTemplate.opsForZSet().zCard(KEY);
+		return size == null ? 0 : size;
+	}
+
+	private void withLock(Runnable work) {
+		String token = UUID.randomUUID().toString();
+		if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, LOCK_TTL))) {
+			logger.info("Another node is loading or reconciling the Redis leaderboard, skipping");
+			return;
+		}
+		try {
+			work.run();
+		} finally {
+			redisTemplate.execute(RELEASE_LOCK, List.of(LOCK_KEY), token);
+		}
+	}
+
+	private Map<Long, Long> readAll() {
+		Map<Long, Long> stored = new HashMap<>();
+		for (long from = 0;; from += CHUNK_SIZE) {
+			Set<TypedTuple<String>> tuples = redisTemplate.opsForZSet().rangeWithScores(KEY, from,
+					from + CHUNK_SIZE - 1);
+			if (tuples == null || tuples.isEmpty()) {
+				return stored;
+			}
+			for (TypedTuple<String> tuple : tuples) {
+				stored.put(Long.parseLong(tuple.getValue()), tuple.getScore().longValue());
+			}
+		}
+	}
+
+	private List<Entry> range(long fromIndex, long toIndex) {
+		List<Entry> entries = new ArrayList<>();
+		if (toIndex < fromIndex) {
+			return entries;
+		}
+		Set<TypedTuple<String>> tuples = redisTemplate.opsForZSet().reverseRangeWithScores(KEY, fromIndex, toIndex);
+		if (tuples == null) {
+			return entries;
+		}
+		long rank = fromIndex + 1;
+		for (TypedTuple<String> tuple : tuples) {
+			entries.add(new Entry(rank++, Long.parseLong(tuple.getValue()), tuple.getScore().longValue()));
+		}
+		return entries;
+	}
+}
@@ -0,0 +1,64 @@
+package com.party.ceva.demo.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Token buckets stored in Redis so the limits hold across every node.
+ * The refill and take happen atomically in one Lua script, using the Redis clock.
+ */
+@Service
+@ConditionalOnProperty(name = "app.auth.throttle.store", havingValue = "redis")
+public class RedisLoginRateLimiter implements LoginRateLimiter {
+	private static final Logger logger = LoggerFactory.getLogger(RedisLoginRateLimiter.class);
+	private static final String KEY_PREFIX = "auth:throttle:";
+
+	private static final RedisScript<Long> TOKEN_BUCKET = new DefaultRedisScript<>("""
+			local capacity = tonumber(ARGV[1])
+			local refill_per_ms = tonumber(ARGV[2])
+			local idle_ms = tonumber(ARGV[3])
+			local time = redis.call('TIME')
+			local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+			local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+			local tokens = tonumber(bucket[1]) or capacity
+			local ts = tonumber(bucket[2]) or now
+			tokens = math.min(capacity, tokens + (now - ts) * refill_per_ms)
+			local wait = 0
+			if tokens >= 1 then
+				tokens = tokens - 1
+			else
+				wait = math.ceil((1 - tokens) / refill_per_ms)
+			end
+			redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+			redis.call('PEXPIRE', KEYS[1], idle_ms)
+			return wait
+			""", Long.class);
+
+	private final StringRedisTemplate redisTemplate;
+
+	public RedisLoginRateLimiter(StringRedisTemplate redisTemplate) {
+		this.redisTemplate = redisTemplate;
+		logger.info("Initialized Redis-backed login rate limiter");
+	}
+
+	@Override
+	public long tryAcquire(String key, BucketSpec spec) {
+		try {
+			Long waitMs = redisTemplate.execute(TOKEN_BUCKET, List.of(KEY_PREFIX + key),
+					Integer.toString(spec.capacity()), Double.toString(spec.refillPerMs()),
+					Long.toString(spec.idleMs()));
+			return waitMs == null ? 0 : waitMs;
+		} catch (RuntimeException ex) {
+			// Throttling is a guard rail: an unavailable Redis must not lock everyone out of logging in
+			logger.warn("Login throttle check failed open for {}: {}", key, ex.getMessage());
+			return 0;
+		}
+	}
+}
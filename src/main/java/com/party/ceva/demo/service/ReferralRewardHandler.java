@@ -0,0 +1,48 @@
+package com.party.ceva.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.party.ceva.demo.event.DomainEventHandler;
+import com.party.ceva.demo.event.UserRegistered;
+
+/**
+ * Awards the referral bonus once a referred user's registration has committed.
+ */
+@Component
+public class ReferralRewardHandler implements DomainEventHandler<UserRegistered> {
+	private static final Logger logger = LoggerFactory.getLogger(ReferralRewardHandler.class);
+	static final int REFERRAL_XP_REWARD = 1000;
+
+	private final LevelingSystemService levelingSystemService;
+
+	public ReferralRewardHandler(LevelingSystemService levelingSystemService) {
+		this.levelingSystemService = levelingSystemService;
+	}
+
+	@Override
+	public String name() {
+		return "referral-reward";
+	}
+
+	@Override
+	public Class<UserRegistered> eventType() {
+		return UserRegistered.class;
+	}
+
+	@Override
+	public void handle(UserRegistered event) {
+		if (event.referrerId() == null) {
+			return;
+		}
+		// One reward per referred user, even if the event is delivered again
+		if (!levelingSystemService.addXpToUser(event.referrerId(), REFERRAL_XP_REWARD,
+				"referral of user " + event.userId(), "referral:" + event.userId())) {
+			logger.info("Referral reward for user {} was already awarded", event.userId());
+			return;
+		}
+		logger.info("Awarded {} XP to referrer {} for referring user {}", REFERRAL_XP_REWARD, event.referrerId(),
+				event.userId());
+	}
+}
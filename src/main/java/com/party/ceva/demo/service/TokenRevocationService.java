@@ -0,0 +1,129 @@
+package com.party.ceva.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Revoked-token registry.
+ * Revoked token ids live in Redis for the remaining lifetime of the token. Every node mirrors them
+ * in a local Bloom filter, kept current through pub/sub, so the common "not revoked" answer never
+ * leaves the JVM. Only Bloom positives are confirmed against Redis.
+ */
+@Service
+public class TokenRevocationService implements MessageListener {
+	private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+	private static final String KEY_PREFIX = "auth:revoked:";
+	private static final String CHANNEL = "auth:revocations";
+
+	private final StringRedisTemplate redisTemplate;
+	private final long expectedRevocations;
+	private final double falsePositiveRate;
+	private volatile BloomFilter revokedIds;
+	// Ids revoked while a rebuild is scanning Redis; replayed into the fresh filter before it goes live
+	private volatile Set<String> revokedDuringRebuild;
+
+	public TokenRevocationService(
+			StringRedisTemplate redisTemplate,
+			RedisMessageListenerContainer listenerContainer,
+			@Value("${app.jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+			@Value("${app.jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+		this.redisTemplate = redisTemplate;
+		this.expectedRevocations = expectedRevocations;
+		this.falsePositiveRate = falsePositiveRate;
+		this.revokedIds = new BloomFilter(expectedRevocations, falsePositiveRate);
+		listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+	}
+
+	public void revoke(Claims claims) {
+		String tokenId = claims.getId();
+		Date expiration = claims.getExpiration();
+		if (tokenId == null || expiration == null) {
+			logger.warn("Token revocation skipped: token has no id or expiry");
+			return;
+		}
+
+		long remainingMs = expiration.getTime() - System.currentTimeMillis();
+		if (remainingMs <= 0) {
+			return;
+		}
+
+		redisTemplate.opsForValue().set(KEY_PREFIX + tokenId, "1", Duration.ofMillis(remainingMs));
+		remember(tokenId);
+		redisTemplate.convertAndSend(CHANNEL, tokenId);
+		logger.info("Revoked token {} for subject {} ({}ms remaining)", tokenId, claims.getSubject(), remainingMs);
+	}
+
+	public boolean isRevoked(String tokenId) {
+		if (tokenId == null || !revokedIds.mightContain(tokenId)) {
+			return false;
+		}
+		try {
+			return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + tokenId));
+		} catch (RuntimeException ex) {
+			// The filter says the token was probably revoked; without Redis to confirm, refuse it
+			logger.warn("Could not confirm revocation of token {}: {}", tokenId, ex.getMessage());
+			return true;
+		}
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		remember(new String(message.getBody(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Rebuilds the local filter from Redis. Expired revocations have dropped out of Redis by then,
+	 * so this also keeps the false-positive rate from creeping up over time.
+	 */
+	@Scheduled(initialDelayString = "${app.jwt.revocation.initial-sync-delay-ms:0}",
+			fixedDelayString = "${app.jwt.revocation.rebuild-interval-ms:600000}")
+	public void rebuild() {
+		Set<String> inFlight = ConcurrentHashMap.newKeySet();
+		revokedDuringRebuild = inFlight;
+		try {
+			BloomFilter fresh = new BloomFilter(expectedRevocations, falsePositiveRate);
+			int count = 0;
+			ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+			try (Cursor<String> keys = redisTemplate.scan(options)) {
+				while (keys.hasNext()) {
+					fresh.put(keys.next().substring(KEY_PREFIX.length()));
+					count++;
+				}
+			}
+			inFlight.forEach(fresh::put);
+			revokedIds = fresh;
+			inFlight.forEach(fresh::put);
+			logger.debug("Rebuilt revoked token filter with {} entries", count);
+		} catch (RuntimeException ex) {
+			logger.warn("Revoked token filter rebuild failed, keeping the current filter: {}", ex.getMessage());
+		} finally {
+			revokedDuringRebuild = null;
+		}
+	}
+
+	private void remember(String tokenId) {
+		revokedIds.put(tokenId);
+		Set<String> inFlight = revokedDuringRebuild;
+		if (inFlight != null) {
+			inFlight.add(tokenId);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.party.ceva.demo.service;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.party.ceva.demo.event.DomainEventHandler;
+import com.party.ceva.demo.event.XpAwarded;
+import com.party.ceva.demo.repository.UserRepository;
+
+/**
+ * Drops cached user views after an XP award, since they carry the user's level and XP.
+ */
+@Component
+public class UserCacheEvictionHandler implements DomainEventHandler<XpAwarded> {
+
+	private final UserRepository userRepository;
+	private final CacheManager cacheManager;
+
+	public UserCacheEvictionHandler(UserRepository userRepository, CacheManager cacheManager) {
+		this.userRepository = userRepository;
+		this.cacheManager = cacheManager;
+	}
+
+	@Override
+	public String name() {
+		return "user-cache-eviction";
+	}
+
+	@Override
+	public Class<XpAwarded> eventType() {
+		return XpAwarded.class;
+	}
+
+	@Override
+	public void handle(XpAwarded event) {
+		cacheManager.getCache("usersById").evict(event.userId());
+		userRepository.findEmailById(event.userId())
+				.ifPresent(email -> cacheManager.getCache("usersByEmail").evict(email));
+	}
+}
@@ -0,0 +1,407 @@
+package com.party.ceva.demo.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.party.ceva.demo.dto.UserImportEvent;
+import com.party.ceva.demo.repository.UserImportRepository;
+import com.party.ceva.demo.repository.UserImportRepository.NewUser;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Streams CSV or NDJSON member files into the database in fixed-size chunks.
+ * Each chunk is validated, checked against existing emails with one query, hashed in parallel
+ * through the shared password encoder, given codes from one sequence reservation and written
+ * with JDBC batches. Per-row errors and per-chunk progress are written back as NDJSON.
+ */
+@Service
+public class UserImportService {
+	private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+	private static final int HASH_ATTEMPTS = 3;
+
+	public enum Format {
+		CSV, NDJSON
+	}
+
+	private final UserImportRepository userImportRepository;
+	private final CodeGenerationService codeGenerationService;
+	private final PasswordEncoder passwordEncoder;
+	private final CacheManager cacheManager;
+	private final ObjectMapper objectMapper;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final int hashParallelism;
+
+	public UserImportService(UserImportRepository userImportRepository, CodeGenerationService codeGenerationService,
+			PasswordEncoder passwordEncoder, CacheManager cacheManager, ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager,
+			@Value("${app.users.import.batch-size:500}") int batchSize,
+			@Value("${app.users.import.hash-parallelism:0}") int hashParallelism) {
+		this.userImportRepository = userImportRepository;
+		this.codeGenerationService = codeGenerationService;
+		this.passwordEncoder = passwordEncoder;
+		this.cacheManager = cacheManager;
+		this.objectMapper = objectMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = Math.max(1, batchSize);
+		// Hashes still run on the bounded BCrypt pool; this only caps how many an import keeps queued there
+		this.hashParallelism = hashParallelism > 0 ? hashParallelism
+				: Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	}
+
+	public void importUsers(InputStream input, Format format, OutputStream output) throws IOException {
+		long startedAt = System.currentTimeMillis();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+		RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+		ImportProgress progress = new ImportProgress();
+		Set<String> seenEmails = new HashSet<>();
+		AtomicInteger threadCounter = new AtomicInteger();
+		ExecutorService hashers = Executors.newFixedThreadPool(hashParallelism, runnable -> {
+			Thread thread = new Thread(runnable, "user-import-hash-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		logger.info("Starting {} user import with batchSize={}, hashParallelism={}", format, batchSize,
+				hashParallelism);
+
+		try {
+			List<ImportRow> chunk = new ArrayList<>(batchSize);
+			ImportRow row;
+			while ((row = rows.next()) != null) {
+				chunk.add(row);
+				if (chunk.size() == batchSize) {
+					processChunk(chunk, seenEmails, hashers, progress, writer);
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty()) {
+				processChunk(chunk, seenEmails, hashers, progress, writer);
+			}
+		} finally {
+			hashers.shutdownNow();
+		}
+
+		long elapsedMs = System.currentTimeMillis() - startedAt;
+		write(writer, UserImportEvent.done(progress.processed, progress.imported, progress.failed, elapsedMs));
+		logger.info("Finished user import: processed={}, imported={}, failed={} in {}ms", progress.processed,
+				progress.imported, progress.failed, elapsedMs);
+	}
+
+	private void processChunk(List<ImportRow> chunk, Set<String> seenEmails, ExecutorService hashers,
+			ImportProgress progress, Writer writer) throws IOException {
+		progress.processed += chunk.size();
+		List<ImportRow> valid = new ArrayList<>(chunk.size());
+		for (ImportRow row : chunk) {
+			String error = validate(row);
+			if (error == null && !seenEmails.add(row.email())) {
+				error = "Duplicate email in import file";
+			}
+			if (error != null) {
+				reject(row, error, progress, writer);
+			} else {
+				valid.add(row);
+			}
+		}
+
+		Set<String> existing = userImportRepository.findExistingEmails(valid.stream().map(ImportRow::email).toList());
+		List<ImportRow> accepted = new ArrayList<>(valid.size());
+		for (ImportRow row : valid) {
+			if (existing.contains(row.email())) {
+				reject(row, "User with this email already exists", progress, writer);
+			} else {
+				accepted.add(row);
+			}
+		}
+
+		List<Future<String>> hashes = new ArrayList<>(accepted.size());
+		for (ImportRow row : accepted) {
+			hashes.add(hashers.submit(() -> hash(row.password())));
+		}
+		List<ImportRow> hashed = new ArrayList<>(accepted.size());
+		List<String> hashValues = new ArrayList<>(accepted.size());
+		for (int i = 0; i < accepted.size(); i++) {
+			try {
+				hashValues.add(hashes.get(i).get());
+				hashed.add(accepted.get(i));
+			} catch (ExecutionException ex) {
+				reject(accepted.get(i), "Password hashing failed", progress, writer);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IOException("User import interrupted", ex);
+			}
+		}
+
+		insert(hashed, hashValues, progress, writer);
+		write(writer, UserImportEvent.progress(progress.processed, progress.imported, progress.failed));
+		writer.flush();
+	}
+
+	private void insert(List<ImportRow> rows, List<String> hashValues, ImportProgress progress, Writer writer)
+			throws IOException {
+		if (rows.isEmpty()) {
+			return;
+		}
+		List<String> codes = codeGenerationService.generateCodes(rows.size());
+		List<NewUser> users = new ArrayList<>(rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			ImportRow row = rows.get(i);
+			users.add(new NewUser(row.email(), hashValues.get(i), codes.get(i), row.firstName(), row.lastName(),
+					row.sex(), row.telefon()));
+		}
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> userImportRepository.insertBatch(users));
+		} catch (DataAccessException ex) {
+			// A concurrent registration can take an email between the check and the insert
+			logger.warn("User import batch of {} rows failed: {}", rows.size(), ex.getMostSpecificCause().getMessage());
+			for (ImportRow row : rows) {
+				reject(row, "Batch insert failed: " + ex.getMostSpecificCause().getMessage(), progress, writer);
+			}
+			return;
+		}
+
+		progress.imported += rows.size();
+		Cache usersByEmail = cacheManager.getCache("usersByEmail");
+		if (usersByEmail != null) {
+			rows.forEach(row -> usersByEmail.evict(row.email()));
+		}
+	}
+
+	private String hash(String password) throws InterruptedException {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return passwordEncoder.encode(password);
+			} catch (ResponseStatusException ex) {
+				// The BCrypt pool sheds load under login spikes; back off instead of failing the row
+				if (ex.getStatusCode() != HttpStatus.SERVICE_UNAVAILABLE || attempt == HASH_ATTEMPTS) {
+					throw ex;
+				}
+				Thread.sleep(200L * attempt);
+			}
+		}
+	}
+
+	private static String validate(ImportRow row) {
+		if (row.error() != null) {
+			return row.error();
+		}
+		if (row.email() == null || row.email().indexOf('@') <= 0) {
+			return "A valid email is required";
+		}
+		if (row.password() == null) {
+			return "Password is required";
+		}
+		if (row.firstName() == null) {
+			return "First name is required";
+		}
+		if (row.lastName() == null) {
+			return "Last name is required";
+		}
+		if (row.sex() != 'M' && row.sex() != 'F' && row.sex() != 'O') {
+			return "Sex must be one of M, F, or O";
+		}
+		return null;
+	}
+
+	private void reject(ImportRow row, String message, ImportProgress progress, Writer writer) throws IOException {
+		progress.failed++;
+		write(writer, UserImportEvent.error(row.line(), row.email(), message));
+	}
+
+	private void write(Writer writer, UserImportEvent event) throws IOException {
+		writer.write(objectMapper.writeValueAsString(event));
+		writer.write('\n');
+		if ("done".equals(event.getType())) {
+			writer.flush();
+		}
+	}
+
+	private static String normalize(String value) {
+		if (value == null) {
+			return null;
+		}
+		String normalized = value.trim();
+		return normalized.isEmpty() ? null : normalized;
+	}
+
+	private static ImportRow row(long line, String email, String password, String firstName, String lastName,
+			String sex, String telefon) {
+		String normalizedSex = normalize(sex);
+		char sexValue = normalizedSex == null ? 'O'
+				: normalizedSex.length() == 1 ? Character.toUpperCase(normalizedSex.charAt(0)) : '?';
+		return new ImportRow(line, normalize(email), normalize(password), normalize(firstName), normalize(lastName),
+				sexValue, normalize(telefon), null);
+	}
+
+	private record ImportRow(long line, String email, String password, String firstName, String lastName, char sex,
+			String telefon, String error) {
+		static ImportRow failed(long line, String message) {
+			return new ImportRow(line, null, null, null, null, 'O', null, message);
+		}
+	}
+
+	private static final class ImportProgress {
+		private long processed;
+		private long imported;
+		private long failed;
+	}
+
+	private interface RowReader {
+		ImportRow next() throws IOException;
+	}
+
+	/**
+	 * CSV with a header row naming the columns email, password, firstName, lastName, sex and telefon.
+	 * Quoted fields may contain commas and doubled quotes but not line breaks.
+	 */
+	private static final class CsvRowReader implements RowReader {
+		private final BufferedReader reader;
+		private Map<String, Integer> columns;
+		private long lineNumber;
+		private boolean aborted;
+
+		CsvRowReader(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public ImportRow next() throws IOException {
+			String line;
+			while (!aborted && (line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				List<String> fields = parse(line);
+				if (columns == null) {
+					// The response is already streaming, so a bad header is reported as a row error that ends the import
+					Map<String, Integer> header = new HashMap<>();
+					for (int i = 0; fields != null && i < fields.size(); i++) {
+						header.put(fields.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+					}
+					if (!header.containsKey("email") || !header.containsKey("password")) {
+						aborted = true;
+						return ImportRow.failed(lineNumber,
+								"CSV header must name at least the email and password columns");
+					}
+					columns = header;
+					continue;
+				}
+				if (fields == null) {
+					return ImportRow.failed(lineNumber, "Malformed CSV line");
+				}
+				return row(lineNumber, field(fields, "email"), field(fields, "password"), field(fields, "firstname"),
+						field(fields, "lastname"), field(fields, "sex"), field(fields, "telefon"));
+			}
+			return null;
+		}
+
+		private String field(List<String> fields, String column) {
+			Integer index = columns.get(column);
+			return index == null || index >= fields.size() ? null : fields.get(index);
+		}
+
+		private static List<String> parse(String line) {
+			List<String> fields = new ArrayList<>();
+			StringBuilder current = new StringBuilder();
+			boolean quoted = false;
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (quoted) {
+					if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						current.append('"');
+						i++;
+					} else if (c == '"') {
+						quoted = false;
+					} else {
+						current.append(c);
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == ',') {
+					fields.add(current.toString());
+					current.setLength(0);
+				} else {
+					current.append(c);
+				}
+			}
+			if (quoted) {
+				return null;
+			}
+			fields.add(current.toString());
+			return fields;
+		}
+	}
+
+	/**
+	 * One JSON object per line with the same fields as the CSV columns.
+	 */
+	private final class NdjsonRowReader implements RowReader {
+		private final BufferedReader reader;
+		private long lineNumber;
+
+		NdjsonRowReader(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public ImportRow next() throws IOException {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					JsonNode node = objectMapper.readTree(line);
+					return row(lineNumber, text(node, "email"), text(node, "password"), text(node, "firstName"),
+							text(node, "lastName"), text(node, "sex"), text(node, "telefon"));
+				} catch (JacksonException ex) {
+					return ImportRow.failed(lineNumber, "Malformed JSON line");
+				}
+			}
+			return null;
+		}
+
+		private static String text(JsonNode node, String field) {
+			JsonNode value = node.get(field);
+			return value == null || value.isNull() ? null : value.asString();
+		}
+	}
+}
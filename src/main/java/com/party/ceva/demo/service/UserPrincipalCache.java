@@ -0,0 +1,118 @@
+package com.party.ceva.demo.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.party.ceva.demo.dto.CacheStatsDto;
+
+/**
+ * In-process cache of Spring Security principals keyed by email.
+ * Holds the authorities, password hash and auth version of each user so DB-backed authentication
+ * does not hit Postgres on every request. Entries are evicted explicitly when the user changes on this
+ * node; {@link CustomUserDetailsService} checks them against the user's auth version, which password and
+ * role changes bump, so changes made on other nodes are picked up within the auth version staleness window
+ * rather than the TTL.
+ */
+@Component
+public class UserPrincipalCache {
+	private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+	public static final String NAME = "userPrincipals";
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final long ttlMs;
+	private final int maxEntries;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder loadNanos = new LongAdder();
+
+	public UserPrincipalCache(
+			@Value("${app.security.principal-cache.ttl-ms:300000}") long ttlMs,
+			@Value("${app.security.principal-cache.max-entries:10000}") int maxEntries) {
+		this.ttlMs = ttlMs;
+		this.maxEntries = maxEntries;
+		logger.info("Initialized user principal cache with ttl={}ms, maxEntries={}", ttlMs, maxEntries);
+	}
+
+	/**
+	 * Returns a copy of the cached principal, loading it with {@code loader} on a miss.
+	 * Copies are handed out because Spring Security erases credentials on the principal it authenticates.
+	 */
+	public Optional<AuthenticatedUser> get(String email, Function<String, Optional<AuthenticatedUser>> loader) {
+		long now = System.currentTimeMillis();
+		Entry entry = entries.get(email);
+		if (entry != null && entry.expiresAtMs() > now) {
+			hits.increment();
+			return Optional.of(copyOf(entry.principal()));
+		}
+
+		misses.increment();
+		long startedAt = System.nanoTime();
+		Optional<AuthenticatedUser> loaded = loader.apply(email);
+		loads.increment();
+		loadNanos.add(System.nanoTime() - startedAt);
+
+		loaded.ifPresent(principal -> put(email, principal));
+		return loaded.map(this::copyOf);
+	}
+
+	public void put(String email, AuthenticatedUser principal) {
+		long now = System.currentTimeMillis();
+		if (entries.size() >= maxEntries) {
+			evictExpired(now);
+		}
+		if (entries.size() < maxEntries) {
+			entries.put(email, new Entry(copyOf(principal), now + ttlMs));
+		}
+	}
+
+	public Optional<AuthenticatedUser> peek(String email) {
+		Entry entry = entries.get(email);
+		if (entry == null || entry.expiresAtMs() <= System.currentTimeMillis()) {
+			return Optional.empty();
+		}
+		return Optional.of(copyOf(entry.principal()));
+	}
+
+	public void evict(String email) {
+		if (email != null && entries.remove(email) != null) {
+			evictions.increment();
+			logger.debug("Evicted cached principal for {}", email);
+		}
+	}
+
+	public void clear() {
+		evictions.add(entries.size());
+		entries.clear();
+	}
+
+	public CacheStatsDto stats() {
+		long loadCount = loads.sum();
+		double averageLoadMillis = loadCount == 0 ? 0.0 : loadNanos.sum() / 1_000_000.0 / loadCount;
+		return new CacheStatsDto(NAME, entries.size(), hits.sum(), misses.sum(), evictions.sum(), loadCount,
+				averageLoadMillis);
+	}
+
+	private void evictExpired(long now) {
+		int before = entries.size();
+		entries.values().removeIf(entry -> entry.expiresAtMs() <= now);
+		evictions.add(before - entries.size());
+	}
+
+	private AuthenticatedUser copyOf(AuthenticatedUser principal) {
+		return new AuthenticatedUser(principal.getId(), principal.getUsername(), principal.getPassword(),
+				principal.getAuthVersion(), principal.getAuthorities());
+	}
+
+	private record Entry(AuthenticatedUser principal, long expiresAtMs) {
+	}
+}
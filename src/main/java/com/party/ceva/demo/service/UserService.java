@@ -1,14 +1,27 @@
 package com.party.ceva.demo.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import com.party.ceva.demo.dto.CursorPage;
 import com.party.ceva.demo.dto.UserDto;
 import com.party.ceva.demo.dto.UserProfileDto;
+import com.party.ceva.demo.event.UserRegistered;
 import com.party.ceva.demo.model.Level;
+import com.party.ceva.demo.model.Role;
+import com.party.ceva.demo.model.RoleTypes;
 import com.party.ceva.demo.model.User;
 import com.party.ceva.demo.model.UserProfile;
+import com.party.ceva.demo.repository.RoleRepository;
 import com.party.ceva.demo.repository.UserRepository;
 
 import jakarta.transaction.Transactional;
@@ -19,33 +32,82 @@ import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import tools.jackson.databind.JsonNode;
+
 @Service
 public class UserService {
 
 	private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 	private static final Pattern CNP_PATTERN = Pattern.compile("^\\d{13}$");
-	private static final int REFERRAL_XP_REWARD = 1000;
 
 	private final UserRepository userRepository;
+	private final RoleRepository roleRepository;
 	private final PasswordEncoder passwordEncoder;
 	private final CacheManager cacheManager;
 	private final CodeGenerationService codeGenerationService;
-	private final LevelingSystemService levelingSystemService;
-
-	public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, CacheManager cacheManager,
-			CodeGenerationService codeGenerationService, LevelingSystemService levelingSystemService) {
+	private final OutboxService outboxService;
+	private final CustomUserDetailsService userDetailsService;
+	private final UserPrincipalCache userPrincipalCache;
+	// Hash compared against when the email is unknown, so both outcomes cost one BCrypt verification
+	private volatile String unknownUserPasswordHash;
+
+	public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+			CacheManager cacheManager, CodeGenerationService codeGenerationService, OutboxService outboxService,
+			CustomUserDetailsService userDetailsService, UserPrincipalCache userPrincipalCache) {
 		this.userRepository = userRepository;
+		this.roleRepository = roleRepository;
 		this.passwordEncoder = passwordEncoder;
 		this.cacheManager = cacheManager;
 		this.codeGenerationService = codeGenerationService;
-		this.levelingSystemService = levelingSystemService;
+		this.outboxService = outboxService;
+		this.userDetailsService = userDetailsService;
+		this.userPrincipalCache = userPrincipalCache;
+	}
+
+	/**
+	 * Verifies the credentials against a single fetch-join read of the user, roles, profile and level,
+	 * and builds both the principal and the returned user view from that snapshot.
+	 * The user caches are warmed with the result, since the client asks for the same user right after login.
+	 */
+	public Optional<LoginSnapshot> login(String email, String rawPassword) {
+		logger.info("Login attempt for {}", maskEmail(email));
+		Optional<User> candidate = email == null ? Optional.empty() : userRepository.findForLoginByEmail(email);
+		if (candidate.isEmpty()) {
+			passwordEncoder.matches(rawPassword == null ? "" : rawPassword, unknownUserPasswordHash());
+			logger.warn("Login rejected: unknown user {}", maskEmail(email));
+			return Optional.empty();
+		}
+
+		User user = candidate.get();
+		if (rawPassword == null || user.getPassword() == null || !passwordEncoder.matches(rawPassword, user.getPassword())) {
+			logger.warn("Login rejected: bad credentials for user {}", user.getId());
+			return Optional.empty();
+		}
+
+		List<GrantedAuthority> authorities = user.getRoles().stream()
+				.map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role.getRole().name()))
+				.toList();
+		AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(),
+				user.getAuthVersion(), authorities);
+		UserDto userDto = toDto(user);
+
+		userPrincipalCache.put(user.getEmail(), principal);
+		cacheManager.getCache("usersByEmail").put(user.getEmail(), userDto);
+		cacheManager.getCache("usersById").put(user.getId(), userDto);
+		logger.info("Login succeeded for user {}", user.getId());
+		return Optional.of(new LoginSnapshot(principal, userDto));
 	}
 
 	public UserDto createUser(UserDto userDto) {
@@ -73,7 +135,17 @@ public class UserService {
 		return users;
 	}
 
-	@Cacheable(value = "usersById", key = "#id", unless = "#result == null")
+	public CursorPage<UserDto> scrollUsers(String cursor, Integer size) {
+		int pageSize = PageCursors.clampSize(size);
+		Limit limit = Limit.of(pageSize + 1);
+		List<User> rows = cursor == null
+				? userRepository.findAllByOrderByIdAsc(limit)
+				: userRepository.findByIdGreaterThanOrderByIdAsc(PageCursors.decodeId(cursor), limit);
+		logger.debug("Scrolled {} users after cursor={}", rows.size(), cursor != null);
+		return CursorPage.of(rows, pageSize, this::toDto, user -> PageCursors.encode(user.getId()));
+	}
+
+	@Cacheable(value = "usersById", key = "#id", sync = true)
 	public Optional<UserDto> findById(Long id) {
 		logger.debug("Finding user by id {}", id);
 		Optional<UserDto> user = userRepository.findById(id).map(this::toDto);
@@ -81,7 +153,7 @@ public class UserService {
 		return user;
 	}
 
-	@Cacheable(value = "usersByEmail", key = "#email", unless = "#result == null")
+	@Cacheable(value = "usersByEmail", key = "#email", sync = true)
 	public Optional<UserDto> findByEmail(String email) {
 		logger.debug("Finding user by email {}", maskEmail(email));
 		Optional<UserDto> user = userRepository.findByEmail(email).map(this::toDto);
@@ -107,6 +179,8 @@ public class UserService {
 		existingUser.setEmail(userDto.getEmail());
 		if (userDto.getPassword() != null && !userDto.getPassword().isEmpty()) {
 			existingUser.setPassword(passwordEncoder.encode(userDto.getPassword()));
+			// Credentials changed: tokens carrying the old auth version must be re-checked against the database
+			existingUser.setAuthVersion(existingUser.getAuthVersion() + 1);
 		}
 		if (userDto.getUserProfile() != null) {
 			UserProfile userProfile = existingUser.getUserProfile();
@@ -129,6 +203,8 @@ public class UserService {
 		}
 
 		User savedUser = userRepository.save(existingUser);
+		userDetailsService.evictUser(oldEmail);
+		userDetailsService.evictUser(savedUser.getEmail());
 
 		// Manually evict the old email if it changed
 		if (!oldEmail.equals(savedUser.getEmail())) {
@@ -140,6 +216,48 @@ public class UserService {
 		return toDto(savedUser);
 	}
 
+	/**
+	 * Replaces the user's roles. The auth version is bumped in the same transaction, so tokens carrying the old
+	 * role claims are re-checked on every node, and the principal cached here is dropped once the change has
+	 * committed.
+	 */
+	@Transactional
+	public Set<RoleTypes> updateRoles(Long id, Set<RoleTypes> roles) {
+		logger.info("Updating roles of user {} to {}", id, roles);
+		User user = userRepository.findById(id)
+				.orElseThrow(() -> {
+					logger.warn("Update roles rejected: user {} not found", id);
+					return new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with id " + id);
+				});
+
+		// Through the repository: the entities' generated hashCode would recurse through user.roles
+		List<Role> current = roleRepository.findByUserId(id);
+		List<Role> removed = current.stream().filter(role -> !roles.contains(role.getRole())).toList();
+		Set<RoleTypes> kept = current.stream().map(Role::getRole).filter(roles::contains).collect(Collectors.toSet());
+		LocalDateTime now = LocalDateTime.now();
+		List<Role> added = roles.stream().filter(type -> !kept.contains(type)).map(type -> {
+			Role role = new Role();
+			role.setRole(type);
+			role.setUser(user);
+			role.setCreatedAt(now);
+			role.setStartDate(now);
+			return role;
+		}).toList();
+		if (removed.isEmpty() && added.isEmpty()) {
+			logger.debug("Roles of user {} unchanged", id);
+			return roles;
+		}
+
+		roleRepository.deleteAll(removed);
+		roleRepository.saveAll(added);
+		user.setAuthVersion(user.getAuthVersion() + 1);
+		userRepository.save(user);
+		String email = user.getEmail();
+		afterCommit(() -> userDetailsService.evictUser(email));
+		logger.info("Updated roles of user {}: {} added, {} removed", id, added.size(), removed.size());
+		return roles;
+	}
+
 	@Transactional
 	public UserDto updateUserProfile(Long id, UserProfileDto profileDto, String authenticatedEmail) {
 		logger.info("Updating profile for user {} by {}", id, maskEmail(authenticatedEmail));
@@ -185,6 +303,64 @@ public class UserService {
 		return toDto(savedUser);
 	}
 
+	/**
+	 * Applies a JSON merge patch (RFC 7396) to the user's profile: only the members present in the patch are
+	 * touched, and {@code null} clears a field. Unchanged values are not marked dirty, so together with
+	 * {@code @DynamicUpdate} the UPDATE only lists the columns that actually changed, and a patch that changes
+	 * nothing skips the write entirely. The cached user views are evicted after commit rather than replaced,
+	 * because the level and XP loaded with the user here may already be stale.
+	 */
+	@Transactional
+	public UserDto patchUserProfile(Long id, JsonNode patch, String authenticatedEmail) {
+		logger.info("Patching profile for user {} by {}", id, maskEmail(authenticatedEmail));
+		if (patch == null || !patch.isObject()) {
+			logger.warn("Patch profile rejected: payload for user {} is not a JSON object", id);
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Profile patch must be a JSON object");
+		}
+
+		User user = userRepository.findById(id)
+				.orElseThrow(() -> {
+					logger.warn("Patch profile rejected: user {} not found", id);
+					return new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with id " + id);
+				});
+
+		if (authenticatedEmail == null || !user.getEmail().equalsIgnoreCase(authenticatedEmail)) {
+			logger.warn("Patch profile rejected: user {} attempted by {}", id, maskEmail(authenticatedEmail));
+			throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only update your own profile");
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		UserProfile userProfile = user.getUserProfile();
+		if (userProfile == null) {
+			userProfile = new UserProfile();
+			userProfile.setCreatedAt(now);
+			userProfile.setSex(normalizeSexOrDefault(null));
+			user.setUserProfile(userProfile);
+		}
+
+		int changedFields = 0;
+		for (Map.Entry<String, JsonNode> member : patch.properties()) {
+			if (applyProfileField(userProfile, member.getKey(), member.getValue())) {
+				changedFields++;
+			}
+		}
+
+		UserDto patched;
+		if (changedFields == 0 && userProfile.getId() != null) {
+			logger.debug("Patch profile for user {} changed nothing, skipping the write", id);
+			patched = toDto(user);
+		} else {
+			userProfile.setUpdatedAt(now);
+			patched = toDto(userRepository.save(user));
+			logger.info("Patched {} profile fields for user {}", changedFields, id);
+			afterCommit(() -> {
+				cacheManager.getCache("usersById").evict(patched.getId());
+				cacheManager.getCache("usersByEmail").evict(patched.getEmail());
+			});
+		}
+		return patched;
+	}
+
 	@Transactional
 	@CacheEvict(value = "usersById", key = "#id")
 	public void deleteUser(Long id) {
@@ -196,9 +372,15 @@ public class UserService {
 				});
 		userRepository.delete(userToDelete);
 		cacheManager.getCache("usersByEmail").evict(userToDelete.getEmail());
+		userDetailsService.evictUser(userToDelete.getEmail());
 		logger.info("Deleted user {}", id);
 	}
 
+	/**
+	 * Creates the user and records a {@link UserRegistered} event in the same transaction.
+	 * Side effects such as the referral reward run from the outbox after commit, off the signup path.
+	 */
+	@Transactional
 	public UserDto registerUser(UserDto userDto) {
 		logger.info("Registering user for email {}", maskEmail(userDto.getEmail()));
 		UserProfileDto registrationProfile = userDto.getUserProfile();
@@ -241,7 +423,7 @@ public class UserService {
 		User user = new User();
 		user.setEmail(userDto.getEmail());
 		user.setPassword(passwordEncoder.encode(userDto.getPassword()));
-		user.setCode(generateUniqueCode());
+		user.setCode(codeGenerationService.generateCode());
 		user.setReferredBy(referrer);
 
 		LocalDateTime now = LocalDateTime.now();
@@ -261,35 +443,21 @@ public class UserService {
 		cacheManager.getCache("usersByEmail").evict(savedUser.getEmail());
 		logger.info("Registered user {} with generated code", savedUser.getId());
 
-		// Award XP to referrer after successful registration
-		if (referrer != null) {
-			levelingSystemService.addXpToUser(referrer.getId(), REFERRAL_XP_REWARD);
-			logger.info("Awarded {} XP to referrer {} for referring user {}",
-				REFERRAL_XP_REWARD, referrer.getId(), savedUser.getId());
-		}
+		outboxService.publish(new UserRegistered(savedUser.getId(), referrer == null ? null : referrer.getId()));
 
 		return toDto(savedUser);
 	}
 
-	private String generateUniqueCode() {
-		int maxAttempts = 10;
-		int attempts = 0;
-
-		while (attempts < maxAttempts) {
-			String code = codeGenerationService.generateCode();
-			if (!userRepository.existsByCode(code)) {
-				logger.debug("Generated unique code after {} attempt(s)", attempts + 1);
-				return code;
-			}
-			logger.warn("Code collision on attempt {}", attempts + 1);
-			attempts++;
+	private String unknownUserPasswordHash() {
+		String hash = unknownUserPasswordHash;
+		if (hash == null) {
+			hash = passwordEncoder.encode("unknown-user-password");
+			unknownUserPasswordHash = hash;
 		}
-
-		logger.error("Failed to generate unique code after {} attempts", maxAttempts);
-		throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
-				"Could not generate unique code. System at capacity.");
+		return hash;
 	}
 
+
 	private UserDto toDto(User user) {
 		UserDto userDto = new UserDto();
 		userDto.setId(user.getId());
@@ -374,6 +542,101 @@ public class UserService {
 		}
 	}
 
+	/**
+	 * Sets one profile field from its merge-patch member, normalized the same way as a full update.
+	 *
+	 * @return whether the stored value changed
+	 */
+	private boolean applyProfileField(UserProfile profile, String field, JsonNode value) {
+		return switch (field) {
+			case "firstName" -> applyIfChanged(profile.getFirstName(), patchText(field, value), profile::setFirstName);
+			case "lastName" -> applyIfChanged(profile.getLastName(), patchText(field, value), profile::setLastName);
+			case "address" -> applyIfChanged(profile.getAddress(), patchText(field, value), profile::setAddress);
+			case "profilePictureUrl" -> applyIfChanged(profile.getProfilePictureUrl(), patchText(field, value),
+					profile::setProfilePictureUrl);
+			case "bio" -> applyIfChanged(profile.getBio(), patchText(field, value), profile::setBio);
+			case "telefon" -> applyIfChanged(profile.getTelefon(), patchText(field, value), profile::setTelefon);
+			case "cnp" -> applyIfChanged(profile.getCnp(), patchCnp(value), profile::setCnp);
+			case "sex" -> applyIfChanged(profile.getSex(), patchSex(value), profile::setSex);
+			case "dateOfBirth" -> applyIfChanged(profile.getDateOfBirth(), patchDate(field, value),
+					profile::setDateOfBirth);
+			case "id", "createdAt", "updatedAt" -> {
+				logger.warn("Patch profile rejected: read-only field {}", field);
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Profile field " + field + " is read-only");
+			}
+			default -> {
+				logger.warn("Patch profile rejected: unknown field {}", field);
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown profile field " + field);
+			}
+		};
+	}
+
+	private static <T> boolean applyIfChanged(T current, T next, Consumer<T> setter) {
+		if (Objects.equals(current, next)) {
+			return false;
+		}
+		setter.accept(next);
+		return true;
+	}
+
+	private String patchText(String field, JsonNode value) {
+		if (value.isNull()) {
+			return null;
+		}
+		if (!value.isString()) {
+			logger.warn("Patch profile rejected: field {} is not a string", field);
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Profile field " + field + " must be a string");
+		}
+		return value.stringValue();
+	}
+
+	private String patchCnp(JsonNode value) {
+		String cnp = normalizeNullable(patchText("cnp", value));
+		if (cnp != null && !CNP_PATTERN.matcher(cnp).matches()) {
+			logger.warn("Profile validation failed: invalid CNP format");
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CNP must contain exactly 13 digits");
+		}
+		return cnp;
+	}
+
+	private Character patchSex(JsonNode value) {
+		String sex = patchText("sex", value);
+		if (sex != null && sex.length() != 1) {
+			logger.warn("Profile validation failed: invalid sex value {}", sex);
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sex must be one of M, F, or O");
+		}
+		try {
+			return normalizeSexOrDefault(sex == null ? null : sex.charAt(0));
+		} catch (IllegalArgumentException ex) {
+			logger.warn("Profile validation failed: invalid sex value {}", sex);
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+		}
+	}
+
+	private LocalDate patchDate(String field, JsonNode value) {
+		String date = patchText(field, value);
+		try {
+			return date == null ? null : LocalDate.parse(date);
+		} catch (DateTimeParseException ex) {
+			logger.warn("Patch profile rejected: field {} is not an ISO date", field);
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Profile field " + field + " must be a date (yyyy-MM-dd)");
+		}
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
 	private String normalizeNullable(String value) {
 		if (value == null) {
 			return null;
@@ -0,0 +1,238 @@
+package com.party.ceva.demo.service;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Leaderboards over calendar windows (this week, this month, this season) fed by the XP award path.
+ * <p>
+ * Awards are added to per-day buckets held in a ring indexed by epoch day, so a slot is reused, and its old
+ * day dropped, once it falls out of the longest window. Each window also keeps a ranked board of its running
+ * totals, incremented with every award. When a window rolls over to a new period its board is rebuilt from the
+ * buckets of the days the new period covers, so totals always come from the pre-aggregated buckets and never
+ * from individual awards. Node-local, like the in-memory all-time board; {@link LeaderboardService} reloads it
+ * from the XP ledger at startup.
+ */
+@Service
+public class WindowedLeaderboard {
+	private static final Logger logger = LoggerFactory.getLogger(WindowedLeaderboard.class);
+
+	public enum Window {
+		WEEK, MONTH, SEASON
+	}
+
+	private final Clock clock;
+	private final LocalDate seasonAnchor;
+	private final int seasonLengthDays;
+	private final DayBucket[] ring;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<Window, InMemoryLeaderboard> boards = new EnumMap<>(Window.class);
+	private final Map<Window, Long> boardStartDays = new EnumMap<>(Window.class);
+	private volatile long currentDay = Long.MIN_VALUE;
+
+	@Autowired
+	public WindowedLeaderboard(
+			@Value("${app.leaderboard.zone:UTC}") String zone,
+			@Value("${app.leaderboard.season.start:2026-01-01}") String seasonStart,
+			@Value("${app.leaderboard.season.length-days:91}") int seasonLengthDays) {
+		this(Clock.system(ZoneId.of(zone)), LocalDate.parse(seasonStart), seasonLengthDays);
+	}
+
+	WindowedLeaderboard(Clock clock, LocalDate seasonAnchor, int seasonLengthDays) {
+		this.clock = clock;
+		this.seasonAnchor = seasonAnchor;
+		this.seasonLengthDays = Math.max(1, seasonLengthDays);
+		// Long enough for the longest window, plus today
+		this.ring = new DayBucket[Math.max(31, this.seasonLengthDays) + 1];
+		for (Window window : Window.values()) {
+			boards.put(window, new InMemoryLeaderboard());
+		}
+		logger.info("Initialized windowed leaderboards with a {}-day bucket ring, season of {} days from {}",
+				ring.length, this.seasonLengthDays, seasonAnchor);
+	}
+
+	public void record(long userId, long xp) {
+		long today = rollIfNeeded();
+		lock.writeLock().lock();
+		try {
+			bucketFor(today).xpByUser.merge(userId, xp, Long::sum);
+			for (InMemoryLeaderboard board : boards.values()) {
+				board.increment(userId, xp);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds XP awarded at {@code at}, for reloading history after a restart. Awards older than
+	 * {@link #historyStart()} are ignored.
+	 */
+	public void load(Instant at, long userId, long xp) {
+		load(LocalDate.ofInstant(at, clock.getZone()), userId, xp);
+	}
+
+	/**
+	 * Adds XP earned on a past day, for reloading history after a restart. Days outside the ring are ignored.
+	 */
+	public void load(LocalDate day, long userId, long xp) {
+		long today = rollIfNeeded();
+		long epochDay = day.toEpochDay();
+		if (epochDay > today || epochDay <= today - ring.length) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			bucketFor(epochDay).xpByUser.merge(userId, xp, Long::sum);
+			boardStartDays.forEach((window, startDay) -> {
+				if (epochDay >= startDay) {
+					boards.get(window).increment(userId, xp);
+				}
+			});
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Drops every bucket and board total, ahead of a reload.
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			Arrays.fill(ring, null);
+			for (InMemoryLeaderboard board : boards.values()) {
+				board.rebuild(Map.of());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Start of the oldest day the buckets still hold; older awards cannot affect any window.
+	 */
+	public Instant historyStart() {
+		long today = rollIfNeeded();
+		return LocalDate.ofEpochDay(today - ring.length + 1).atStartOfDay(clock.getZone()).toInstant();
+	}
+
+	public List<Leaderboard.Entry> top(Window window, int limit) {
+		return read(window, board -> board.top(limit));
+	}
+
+	public Optional<Leaderboard.Entry> entryOf(Window window, long userId) {
+		return read(window, board -> board.entryOf(userId));
+	}
+
+	public List<Leaderboard.Entry> around(Window window, long userId, int radius) {
+		return read(window, board -> board.around(userId, radius));
+	}
+
+	/**
+	 * First day of the period the window currently covers.
+	 */
+	public LocalDate periodStart(Window window) {
+		return LocalDate.ofEpochDay(startDay(window, LocalDate.now(clock).toEpochDay()));
+	}
+
+	private <T> T read(Window window, Function<InMemoryLeaderboard, T> query) {
+		rollIfNeeded();
+		lock.readLock().lock();
+		try {
+			return query.apply(boards.get(window));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private long rollIfNeeded() {
+		long today = LocalDate.now(clock).toEpochDay();
+		if (today == currentDay) {
+			return today;
+		}
+		lock.writeLock().lock();
+		try {
+			if (today != currentDay) {
+				for (Window window : Window.values()) {
+					long startDay = startDay(window, today);
+					Long previousStart = boardStartDays.get(window);
+					if (previousStart == null || previousStart != startDay) {
+						boards.get(window).rebuild(totalsSince(startDay, today));
+						boardStartDays.put(window, startDay);
+						logger.info("Leaderboard window {} now covers {} onwards", window,
+								LocalDate.ofEpochDay(startDay));
+					}
+				}
+				currentDay = today;
+			}
+			return today;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private Map<Long, Long> totalsSince(long startDay, long today) {
+		Map<Long, Long> totals = new HashMap<>();
+		for (long day = startDay; day <= today; day++) {
+			DayBucket bucket = ring[slot(day)];
+			if (bucket != null && bucket.epochDay == day) {
+				bucket.xpByUser.forEach((userId, xp) -> totals.merge(userId, xp, Long::sum));
+			}
+		}
+		return totals;
+	}
+
+	private DayBucket bucketFor(long epochDay) {
+		int slot = slot(epochDay);
+		DayBucket bucket = ring[slot];
+		if (bucket == null || bucket.epochDay != epochDay) {
+			// The slot last held a day that has left every window
+			bucket = new DayBucket(epochDay);
+			ring[slot] = bucket;
+		}
+		return bucket;
+	}
+
+	private int slot(long epochDay) {
+		return (int) Math.floorMod(epochDay, (long) ring.length);
+	}
+
+	private long startDay(Window window, long today) {
+		LocalDate date = LocalDate.ofEpochDay(today);
+		return switch (window) {
+			case WEEK -> date.with(DayOfWeek.MONDAY).toEpochDay();
+			case MONTH -> date.withDayOfMonth(1).toEpochDay();
+			case SEASON -> {
+				long anchor = seasonAnchor.toEpochDay();
+				yield anchor + Math.floorDiv(today - anchor, (long) seasonLengthDays) * seasonLengthDays;
+			}
+		};
+	}
+
+	private static final class DayBucket {
+		final long epochDay;
+		final Map<Long, Long> xpByUser = new HashMap<>();
+
+		DayBucket(long epochDay) {
+			this.epochDay = epochDay;
+		}
+	}
+}
@@ -0,0 +1,430 @@
+package com.party.ceva.demo.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.party.ceva.demo.event.XpAwarded;
+import com.party.ceva.demo.model.Level;
+import com.party.ceva.demo.model.User;
+import com.party.ceva.demo.model.XpJournalCheckpoint;
+import com.party.ceva.demo.repository.LevelingRepository;
+import com.party.ceva.demo.repository.UserRepository;
+import com.party.ceva.demo.repository.XpJournalCheckpointRepository;
+import com.party.ceva.demo.repository.XpLedgerRepository;
+import com.party.ceva.demo.repository.XpLedgerRepository.Award;
+
+/**
+ * Write-behind XP accounting.
+ * <p>
+ * An award is appended to the {@link XpJournal} and added to a per-user {@link LongAdder}; no row is read or
+ * locked on the request path. The scheduled {@link #flush()} writes the drained awards to the {@code xp_ledger},
+ * adds the ones the ledger accepted to the level rows with one statement, normalizes level-ups, stores the
+ * journal checkpoint and publishes {@link XpAwarded}, all in one transaction. An idempotency key already in the
+ * ledger, or still pending on this node, is not applied again; only the awards the ledger accepted reach the
+ * {@link #addAppliedListener applied listeners}, once their transaction has committed. Reads go through
+ * {@link #readLevel}, which adds the not yet flushed XP to the persisted level.
+ * <p>
+ * Without a journal directory awards are only held in memory until the next flush, which is only allowed in
+ * the {@code dev} profile. Each node needs its own directory and journal name, since the name keys its
+ * checkpoint row.
+ */
+@Service
+public class XpAccrualEngine implements AutoCloseable {
+	private static final Logger logger = LoggerFactory.getLogger(XpAccrualEngine.class);
+	private static final int UPDATE_CHUNK_SIZE = 500;
+
+	private final LevelingRepository levelingRepository;
+	private final UserRepository userRepository;
+	private final XpLedgerRepository ledgerRepository;
+	private final RecentIdempotencyKeys recentKeys;
+	private final XpJournalCheckpointRepository checkpointRepository;
+	private final OutboxService outboxService;
+	private final TransactionTemplate transactionTemplate;
+	private final XpJournal journal;
+	private final String journalName;
+	// Appenders share it; flush takes it exclusively to swap the adders and seal the journal segment together
+	private final ReentrantReadWriteLock appendLock = new ReentrantReadWriteLock();
+	// Readers share it; flush holds it exclusively only to snapshot the pending XP and to clear it after commit
+	private final ReentrantReadWriteLock visibilityLock = new ReentrantReadWriteLock();
+	private volatile ConcurrentHashMap<Long, LongAdder> accruing = new ConcurrentHashMap<>();
+	private volatile ConcurrentLinkedQueue<Award> accruingAwards = new ConcurrentLinkedQueue<>();
+	// Keys accepted on this node and not yet committed to the ledger
+	private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+	// Swapped-out XP not yet committed, kept across failed flushes; both guarded by visibilityLock
+	private final Map<Long, Long> draining = new HashMap<>();
+	private final List<Award> drainingAwards = new ArrayList<>();
+	// The users whose XP the running flush is committing; their rows are ambiguous until it ends
+	private volatile Map<Long, Long> inFlight = Map.of();
+	private final Object flushMonitor = new Object();
+	private final List<Consumer<List<Award>>> appliedListeners = new CopyOnWriteArrayList<>();
+	private long lastSealedSegment;
+
+	@Autowired
+	public XpAccrualEngine(LevelingRepository levelingRepository, UserRepository userRepository,
+			XpLedgerRepository ledgerRepository, RecentIdempotencyKeys recentKeys,
+			XpJournalCheckpointRepository checkpointRepository, OutboxService outboxService,
+			PlatformTransactionManager transactionManager, Environment environment,
+			@Value("${app.xp.journal.dir:}") String journalDirectory,
+			@Value("${app.xp.journal.name:local}") String journalName) {
+		this(levelingRepository, userRepository, ledgerRepository, recentKeys, checkpointRepository, outboxService,
+				transactionManager, requireJournalOutsideDev(environment, journalDirectory), journalName);
+	}
+
+	XpAccrualEngine(LevelingRepository levelingRepository, UserRepository userRepository,
+			XpLedgerRepository ledgerRepository, RecentIdempotencyKeys recentKeys,
+			XpJournalCheckpointRepository checkpointRepository, OutboxService outboxService,
+			PlatformTransactionManager transactionManager, String journalDirectory, String journalName) {
+		this.levelingRepository = levelingRepository;
+		this.userRepository = userRepository;
+		this.ledgerRepository = ledgerRepository;
+		this.recentKeys = recentKeys;
+		this.checkpointRepository = checkpointRepository;
+		this.outboxService = outboxService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.journalName = journalName;
+		this.journal = journalDirectory == null || journalDirectory.isBlank() ? null
+				: new XpJournal(Path.of(journalDirectory));
+		recover();
+	}
+
+	/**
+	 * Records an award. Once this returns true the XP is durable, even though the ledger and level rows are
+	 * written later.
+	 *
+	 * @return false if an award with the same key is already pending on this node
+	 */
+	public boolean accrue(Award award) {
+		if (!pendingKeys.add(award.idempotencyKey())) {
+			return false;
+		}
+		appendLock.readLock().lock();
+		try {
+			if (journal != null) {
+				journal.append(award);
+			}
+			accruingAwards.add(award);
+			accruing.computeIfAbsent(award.userId(), id -> new LongAdder()).add(award.amount());
+			return true;
+		} catch (IOException ex) {
+			pendingKeys.remove(award.idempotencyKey());
+			throw new UncheckedIOException("XP journal write failed, award not recorded", ex);
+		} finally {
+			appendLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Loads the persisted level through {@code persisted} and returns a detached copy with the pending XP
+	 * applied. The load and the pending total are read together, so XP in flight is never counted twice.
+	 */
+	public Level readLevel(Long userId, Supplier<Level> persisted) {
+		while (true) {
+			awaitFlush(() -> inFlight.containsKey(userId));
+			visibilityLock.readLock().lock();
+			try {
+				// A flush may have snapshotted this user between the wait and the lock
+				if (!inFlight.containsKey(userId)) {
+					return merge(userId, persisted.get());
+				}
+			} finally {
+				visibilityLock.readLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Runs {@code read} while no flush is committing, so the persisted XP it sees includes exactly the flushes
+	 * whose awards have already reached the applied listeners. Those listeners wait until it returns.
+	 */
+	public <T> T readPersisted(Supplier<T> read) {
+		while (true) {
+			awaitFlush(() -> !inFlight.isEmpty());
+			visibilityLock.readLock().lock();
+			try {
+				if (inFlight.isEmpty()) {
+					return read.get();
+				}
+			} finally {
+				visibilityLock.readLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Registers a callback for the awards each flush newly wrote to the ledger, called after the commit. Awards
+	 * whose key the ledger already held are left out, so a redelivered award is never passed on twice.
+	 */
+	public void addAppliedListener(Consumer<List<Award>> listener) {
+		appliedListeners.add(listener);
+	}
+
+	/**
+	 * Moves the pending XP into the level rows. Readers are only blocked for the short swaps before and after
+	 * the transaction; during it, only reads of the users being committed wait, since the rows they read may
+	 * or may not already include the XP.
+	 */
+	@Scheduled(fixedDelayString = "${app.xp.flush-interval-ms:1000}")
+	public synchronized void flush() {
+		Map<Long, Long> batch;
+		List<Award> awards;
+		long sealed;
+		visibilityLock.writeLock().lock();
+		try {
+			Map<Long, LongAdder> swapped;
+			Queue<Award> swappedAwards;
+			appendLock.writeLock().lock();
+			try {
+				swapped = accruing;
+				swappedAwards = accruingAwards;
+				if (!swapped.isEmpty()) {
+					if (journal != null) {
+						lastSealedSegment = journal.rotate();
+					}
+					accruing = new ConcurrentHashMap<>();
+					accruingAwards = new ConcurrentLinkedQueue<>();
+				}
+			} finally {
+				appendLock.writeLock().unlock();
+			}
+			swapped.forEach((userId, adder) -> draining.merge(userId, adder.sum(), Long::sum));
+			drainingAwards.addAll(swappedAwards);
+			if (drainingAwards.isEmpty()) {
+				return;
+			}
+			sealed = lastSealedSegment;
+			batch = Map.copyOf(draining);
+			awards = List.copyOf(drainingAwards);
+			setInFlight(batch);
+		} catch (IOException ex) {
+			logger.warn("XP flush failed to seal the journal segment: {}", ex.getMessage());
+			return;
+		} finally {
+			visibilityLock.writeLock().unlock();
+		}
+
+		Persisted persisted = null;
+		try {
+			persisted = transactionTemplate.execute(status -> persist(awards, sealed));
+			recentKeys.remember(persisted.recordedKeys());
+			logger.debug("Flushed {} pending awards for {} users through journal segment {}", awards.size(),
+					batch.size(), sealed);
+		} catch (RuntimeException ex) {
+			// Everything swapped out stays in draining and goes out with the next flush
+			logger.warn("XP flush failed, {} users keep their pending XP: {}", batch.size(), ex.getMessage());
+		} finally {
+			visibilityLock.writeLock().lock();
+			try {
+				if (persisted != null) {
+					// Only flush changes draining, so it still holds exactly the committed batch
+					draining.clear();
+					drainingAwards.clear();
+					awards.forEach(award -> pendingKeys.remove(award.idempotencyKey()));
+					// Before readPersisted can run again, so no reader counts these awards twice or not at all
+					notifyApplied(persisted.applied());
+				}
+				setInFlight(Map.of());
+			} finally {
+				visibilityLock.writeLock().unlock();
+			}
+		}
+		if (persisted != null && journal != null) {
+			journal.deleteThrough(sealed);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		if (journal != null) {
+			journal.close();
+		}
+	}
+
+	boolean isInFlight(long userId) {
+		return inFlight.containsKey(userId);
+	}
+
+	private Level merge(Long userId, Level stored) {
+		Level merged = new Level();
+		merged.setId(stored.getId());
+		merged.setCurrentLevel(stored.getCurrentLevel());
+		merged.setCurrentXP(stored.getCurrentXP());
+		long pending = pendingXp(userId);
+		if (pending > 0) {
+			merged.addXp(pending);
+		}
+		return merged;
+	}
+
+	private void notifyApplied(List<Award> applied) {
+		if (applied.isEmpty()) {
+			return;
+		}
+		for (Consumer<List<Award>> listener : appliedListeners) {
+			try {
+				listener.accept(applied);
+			} catch (RuntimeException ex) {
+				logger.warn("XP applied listener failed for {} awards: {}", applied.size(), ex.getMessage());
+			}
+		}
+	}
+
+	private void setInFlight(Map<Long, Long> batch) {
+		synchronized (flushMonitor) {
+			inFlight = batch;
+			flushMonitor.notifyAll();
+		}
+	}
+
+	private void awaitFlush(BooleanSupplier blocked) {
+		synchronized (flushMonitor) {
+			while (blocked.getAsBoolean()) {
+				try {
+					flushMonitor.wait();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while waiting for an XP flush", ex);
+				}
+			}
+		}
+	}
+
+	private long pendingXp(Long userId) {
+		LongAdder accrued = accruing.get(userId);
+		long pending = accrued == null ? 0 : accrued.sum();
+		return pending + draining.getOrDefault(userId, 0L);
+	}
+
+	/**
+	 * Writes the awards to the ledger and applies the ones it accepted.
+	 *
+	 * @return the keys now in the ledger, whether this batch or an earlier one put them there, and the awards
+	 *         this batch added
+	 */
+	private Persisted persist(List<Award> awards, long sealedSegment) {
+		Set<Long> existingUsers = new HashSet<>();
+		List<Long> userIds = awards.stream().map(Award::userId).distinct().toList();
+		for (int from = 0; from < userIds.size(); from += UPDATE_CHUNK_SIZE) {
+			existingUsers.addAll(ledgerRepository.findExistingUserIds(
+					userIds.subList(from, Math.min(userIds.size(), from + UPDATE_CHUNK_SIZE))));
+		}
+		List<Award> kept = new ArrayList<>(awards.size());
+		for (Award award : awards) {
+			if (existingUsers.contains(award.userId())) {
+				kept.add(award);
+			} else {
+				logger.warn("Dropping {} pending XP for user {}: user no longer exists", award.amount(),
+						award.userId());
+			}
+		}
+
+		String batchId = UUID.randomUUID().toString();
+		boolean[] inserted = ledgerRepository.insertBatch(batchId, kept);
+		Map<Long, Long> deltas = new HashMap<>();
+		List<Award> applied = new ArrayList<>();
+		for (int i = 0; i < inserted.length; i++) {
+			if (inserted[i]) {
+				applied.add(kept.get(i));
+				deltas.merge(kept.get(i).userId(), kept.get(i).amount(), Long::sum);
+			}
+		}
+		ledgerRepository.applyBatchToLevels(batchId);
+
+		List<Long> awarded = new ArrayList<>(deltas.keySet());
+		for (int from = 0; from < awarded.size(); from += UPDATE_CHUNK_SIZE) {
+			List<Long> chunk = awarded.subList(from, Math.min(awarded.size(), from + UPDATE_CHUNK_SIZE));
+			Set<Long> withLevel = new HashSet<>();
+			// The batch update keeps these rows locked until commit, so normalizing them here cannot race
+			for (Object[] row : levelingRepository.findLevelsByUserIds(chunk)) {
+				Long userId = (Long) row[0];
+				Level level = (Level) row[1];
+				level.addXp(0);
+				withLevel.add(userId);
+				outboxService.publish(new XpAwarded(userId, deltas.get(userId), level.getCurrentLevel(),
+						level.getCurrentXP()));
+			}
+			for (Long userId : chunk) {
+				if (!withLevel.contains(userId)) {
+					Level level = createLevelWithXp(userId, deltas.get(userId));
+					outboxService.publish(new XpAwarded(userId, deltas.get(userId), level.getCurrentLevel(),
+							level.getCurrentXP()));
+				}
+			}
+		}
+		if (journal != null) {
+			checkpointRepository.save(new XpJournalCheckpoint(journalName, sealedSegment, LocalDateTime.now()));
+		}
+		return new Persisted(kept.stream().map(Award::idempotencyKey).toList(), applied);
+	}
+
+	private Level createLevelWithXp(Long userId, long xp) {
+		User user = userRepository.getReferenceById(userId);
+		Level level = new Level();
+		level.addXp(xp);
+		user.setLevel(level);
+		userRepository.save(user);
+		return level;
+	}
+
+	private static String requireJournalOutsideDev(Environment environment, String journalDirectory) {
+		if ((journalDirectory == null || journalDirectory.isBlank()) && !environment.matchesProfiles("dev")) {
+			// Without it acknowledged awards are lost on a crash
+			throw new IllegalStateException("app.xp.journal.dir must be set outside the dev profile");
+		}
+		return journalDirectory;
+	}
+
+	private record Persisted(List<String> recordedKeys, List<Award> applied) {
+	}
+
+	private void recover() {
+		if (journal == null) {
+			logger.warn("No XP journal directory configured; pending XP is lost if the node stops before a flush");
+			return;
+		}
+		try {
+			long checkpoint = checkpointRepository.findById(journalName).map(XpJournalCheckpoint::getLastSegment)
+					.orElse(0L);
+			XpJournal.Recovery recovery = journal.open(checkpoint);
+			for (Award award : recovery.awards()) {
+				if (pendingKeys.add(award.idempotencyKey())) {
+					drainingAwards.add(award);
+					draining.merge(award.userId(), award.amount(), Long::sum);
+				}
+			}
+			lastSealedSegment = recovery.lastSegment();
+			logger.info("Opened XP journal {} at checkpoint {}, replaying {} awards for {} users", journalName,
+					checkpoint, drainingAwards.size(), draining.size());
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Could not open the XP journal", ex);
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package com.party.ceva.demo.service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.party.ceva.demo.repository.XpLedgerRepository.Award;
+
+/**
+ * Append-only log of acknowledged XP awards, split into numbered segments.
+ * <p>
+ * Every record is forced to disk before {@link #append} returns. Segments are sealed by {@link #rotate} when
+ * their awards are handed to the database, and deleted once the database has durably recorded the sealed
+ * number as its checkpoint, so after a crash exactly the segments past the checkpoint are replayed.
+ * A record cut short by the crash fails its checksum and is dropped; it was never acknowledged.
+ * <p>
+ * A record is {@code [body length][body][CRC-32 of body]}, the body holding the user, amount, award time,
+ * idempotency key and reason, so replayed awards reach the ledger exactly as they were acknowledged.
+ */
+final class XpJournal implements AutoCloseable {
+	private static final Logger logger = LoggerFactory.getLogger(XpJournal.class);
+	private static final String SEGMENT_SUFFIX = ".xpj";
+	private static final int NO_REASON = -1;
+
+	private final Path directory;
+	private FileChannel activeChannel;
+	private long activeSegment;
+
+	XpJournal(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Reads every segment numbered past {@code checkpoint}, deletes the older ones and starts a fresh segment.
+	 */
+	synchronized Recovery open(long checkpoint) throws IOException {
+		Files.createDirectories(directory);
+		List<Award> awards = new ArrayList<>();
+		long lastSegment = checkpoint;
+		for (long segment : listSegments()) {
+			if (segment <= checkpoint) {
+				Files.deleteIfExists(segmentPath(segment));
+				continue;
+			}
+			readSegment(segment, awards);
+			lastSegment = Math.max(lastSegment, segment);
+		}
+		openSegment(lastSegment + 1);
+		return new Recovery(awards, lastSegment);
+	}
+
+	void append(Award award) throws IOException {
+		byte[] body = encode(award);
+		ByteBuffer record = ByteBuffer.allocate(Integer.BYTES * 2 + body.length);
+		record.putInt(body.length).put(body).putInt(checksum(body)).flip();
+		FileChannel channel;
+		synchronized (this) {
+			channel = activeChannel;
+			while (record.hasRemaining()) {
+				channel.write(record);
+			}
+		}
+		// Concurrent appenders share the disk flush; force is safe to call without the lock
+		channel.force(false);
+	}
+
+	/**
+	 * Seals the active segment and starts the next one. Callers must make sure no append is in progress.
+	 *
+	 * @return the number of the sealed segment
+	 */
+	synchronized long rotate() throws IOException {
+		long sealed = activeSegment;
+		activeChannel.force(true);
+		activeChannel.close();
+		openSegment(sealed + 1);
+		return sealed;
+	}
+
+	/**
+	 * Deletes sealed segments up to and including {@code segment}. Best effort: leftovers are removed on the
+	 * next start, because they are covered by the checkpoint.
+	 */
+	synchronized void deleteThrough(long segment) {
+		try {
+			for (long candidate : listSegments()) {
+				if (candidate <= segment && candidate != activeSegment) {
+					Files.deleteIfExists(segmentPath(candidate));
+				}
+			}
+		} catch (IOException ex) {
+			logger.warn("Could not delete applied XP journal segments through {}: {}", segment, ex.getMessage());
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (activeChannel != null && activeChannel.isOpen()) {
+			activeChannel.close();
+		}
+	}
+
+	private void openSegment(long segment) throws IOException {
+		activeChannel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		activeSegment = segment;
+	}
+
+	private void readSegment(long segment, List<Award> awards) throws IOException {
+		byte[] content = Files.readAllBytes(segmentPath(segment));
+		ByteBuffer buffer = ByteBuffer.wrap(content);
+		int valid = 0;
+		while (buffer.remaining() >= Integer.BYTES) {
+			int length = buffer.getInt();
+			if (length < 0 || buffer.remaining() < length + Integer.BYTES) {
+				break;
+			}
+			byte[] body = new byte[length];
+			buffer.get(body);
+			if (buffer.getInt() != checksum(body)) {
+				break;
+			}
+			awards.add(decode(body));
+			valid = buffer.position();
+		}
+		if (valid != content.length) {
+			logger.warn("XP journal segment {} ends with a torn record; ignoring {} trailing bytes", segment,
+					content.length - valid);
+		}
+	}
+
+	private List<Long> listSegments() throws IOException {
+		List<Long> segments = new ArrayList<>();
+		try (Stream<Path> files = Files.list(directory)) {
+			files.map(path -> path.getFileName().toString())
+					.filter(name -> name.endsWith(SEGMENT_SUFFIX))
+					.forEach(name -> {
+						try {
+							segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+						} catch (NumberFormatException ex) {
+							logger.warn("Ignoring unexpected file {} in the XP journal directory", name);
+						}
+					});
+		}
+		segments.sort(null);
+		return segments;
+	}
+
+	private Path segmentPath(long segment) {
+		return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+	}
+
+	private static byte[] encode(Award award) {
+		byte[] key = award.idempotencyKey().getBytes(StandardCharsets.UTF_8);
+		byte[] reason = award.reason() == null ? new byte[0] : award.reason().getBytes(StandardCharsets.UTF_8);
+		ByteBuffer body = ByteBuffer.allocate(Long.BYTES * 3 + Integer.BYTES * 2 + key.length + reason.length);
+		body.putLong(award.userId()).putLong(award.amount()).putLong(award.awardedAt().toEpochMilli());
+		body.putInt(key.length).put(key);
+		body.putInt(award.reason() == null ? NO_REASON : reason.length).put(reason);
+		return body.array();
+	}
+
+	private static Award decode(byte[] content) {
+		ByteBuffer body = ByteBuffer.wrap(content);
+		try {
+			long userId = body.getLong();
+			long amount = body.getLong();
+			Instant awardedAt = Instant.ofEpochMilli(body.getLong());
+			String key = readString(body, body.getInt());
+			int reasonLength = body.getInt();
+			String reason = reasonLength == NO_REASON ? null : readString(body, reasonLength);
+			return new Award(key, userId, amount, reason, awardedAt);
+		} catch (BufferUnderflowException ex) {
+			// The checksum matched, so this was written by an incompatible version rather than torn
+			throw new IllegalStateException("Unreadable XP journal record", ex);
+		}
+	}
+
+	private static String readString(ByteBuffer body, int length) {
+		byte[] bytes = new byte[length];
+		body.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int checksum(byte[] body) {
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		return (int) crc.getValue();
+	}
+
+	record Recovery(List<Award> awards, long lastSegment) {
+	}
+}
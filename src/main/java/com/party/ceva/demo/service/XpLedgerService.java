@@ -0,0 +1,226 @@
+package com.party.ceva.demo.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.party.ceva.demo.dto.XpAwardBatchResult;
+import com.party.ceva.demo.dto.XpAwardRequest;
+import com.party.ceva.demo.event.XpAwarded;
+import com.party.ceva.demo.model.Level;
+import com.party.ceva.demo.repository.LevelingRepository;
+import com.party.ceva.demo.repository.UserRepository;
+import com.party.ceva.demo.repository.XpLedgerRepository;
+
+/**
+ * Idempotent batch XP awards recorded in the {@code xp_ledger}, which every other award path reaches through
+ * the {@link XpAccrualEngine} flush.
+ * <p>
+ * Each award carries a client idempotency key, so a batch retried after a timeout applies nothing twice. Keys
+ * seen recently on this node are kept in {@link RecentIdempotencyKeys}; only their positives are confirmed
+ * against the ledger, so a retried batch is answered by one indexed lookup without opening a write
+ * transaction. Keys the filters have not seen, or have forgotten, are still caught by the ledger's unique
+ * constraint on insert. One transaction then inserts the batch, adds every user's total to their level row
+ * with one statement, normalizes level-ups and publishes {@link XpAwarded}.
+ */
+@Service
+public class XpLedgerService {
+	private static final Logger logger = LoggerFactory.getLogger(XpLedgerService.class);
+	static final int MAX_KEY_LENGTH = 100;
+	static final int MAX_REASON_LENGTH = 255;
+
+	private final XpLedgerRepository ledgerRepository;
+	private final LevelingRepository levelingRepository;
+	private final UserRepository userRepository;
+	private final OutboxService outboxService;
+	private final LeaderboardService leaderboardService;
+	private final RecentIdempotencyKeys recentKeys;
+	private final TransactionTemplate transactionTemplate;
+	private final int maxBatchSize;
+
+	public XpLedgerService(XpLedgerRepository ledgerRepository, LevelingRepository levelingRepository,
+			UserRepository userRepository, OutboxService outboxService, LeaderboardService leaderboardService,
+			RecentIdempotencyKeys recentKeys, PlatformTransactionManager transactionManager,
+			@Value("${app.xp.ledger.max-batch-size:1000}") int maxBatchSize) {
+		this.ledgerRepository = ledgerRepository;
+		this.levelingRepository = levelingRepository;
+		this.userRepository = userRepository;
+		this.outboxService = outboxService;
+		this.leaderboardService = leaderboardService;
+		this.recentKeys = recentKeys;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Whether an award with this key is already in the ledger. Always asks the ledger, since the key may have
+	 * been recorded by another node or before a restart, which {@link RecentIdempotencyKeys} cannot know.
+	 */
+	public boolean isRecorded(String idempotencyKey) {
+		return !ledgerRepository.findExistingKeys(List.of(idempotencyKey)).isEmpty();
+	}
+
+	/**
+	 * Applies the awards that are valid and not yet in the ledger and reports an outcome for every award.
+	 *
+	 * @throws IllegalArgumentException if the batch is empty or larger than the configured maximum
+	 */
+	public XpAwardBatchResult awardBatch(List<XpAwardRequest> awards) {
+		if (awards == null || awards.isEmpty()) {
+			throw new IllegalArgumentException("Batch must contain at least one award");
+		}
+		if (awards.size() > maxBatchSize) {
+			throw new IllegalArgumentException("Batch must contain at most " + maxBatchSize + " awards");
+		}
+
+		XpAwardBatchResult.Outcome[] outcomes = new XpAwardBatchResult.Outcome[awards.size()];
+		Map<String, Integer> candidates = new LinkedHashMap<>();
+		for (int i = 0; i < awards.size(); i++) {
+			XpAwardRequest award = awards.get(i);
+			String error = validate(award);
+			if (error != null) {
+				outcomes[i] = rejected(award, error);
+			} else if (candidates.putIfAbsent(award.getIdempotencyKey(), i) != null) {
+				outcomes[i] = duplicate(award);
+			}
+		}
+
+		List<String> possiblySeen = candidates.keySet().stream().filter(recentKeys::mightContain).toList();
+		for (String key : ledgerRepository.findExistingKeys(possiblySeen)) {
+			int index = candidates.remove(key);
+			outcomes[index] = duplicate(awards.get(index));
+		}
+
+		Set<Long> knownUsers = ledgerRepository.findExistingUserIds(candidates.values().stream()
+				.map(index -> awards.get(index).getUserId()).distinct().toList());
+		List<Integer> accepted = new ArrayList<>();
+		for (int index : candidates.values()) {
+			if (knownUsers.contains(awards.get(index).getUserId())) {
+				accepted.add(index);
+			} else {
+				outcomes[index] = rejected(awards.get(index), "User not found");
+			}
+		}
+
+		Map<Long, Long> deltas = new HashMap<>();
+		if (!accepted.isEmpty()) {
+			Instant now = Instant.now();
+			List<XpLedgerRepository.Award> rows = accepted.stream().map(index -> {
+				XpAwardRequest award = awards.get(index);
+				return new XpLedgerRepository.Award(award.getIdempotencyKey(), award.getUserId(), award.getAmount(),
+						award.getReason(), now);
+			}).toList();
+			String batchId = UUID.randomUUID().toString();
+			boolean[] inserted = transactionTemplate.execute(status -> persist(batchId, rows));
+			for (int i = 0; i < accepted.size(); i++) {
+				XpAwardRequest award = awards.get(accepted.get(i));
+				if (inserted[i]) {
+					deltas.merge(award.getUserId(), award.getAmount(), Long::sum);
+					outcomes[accepted.get(i)] = new XpAwardBatchResult.Outcome(award.getIdempotencyKey(),
+							XpAwardBatchResult.Status.APPLIED, null);
+				} else {
+					// Committed concurrently by another request or node since the lookup above
+					outcomes[accepted.get(i)] = duplicate(award);
+				}
+			}
+			recentKeys.remember(rows.stream().map(XpLedgerRepository.Award::idempotencyKey).toList());
+			deltas.forEach(leaderboardService::recordXp);
+		}
+
+		return summarize(outcomes, deltas.size());
+	}
+
+	private boolean[] persist(String batchId, List<XpLedgerRepository.Award> rows) {
+		boolean[] inserted = ledgerRepository.insertBatch(batchId, rows);
+		Map<Long, Long> deltas = new HashMap<>();
+		for (int i = 0; i < rows.size(); i++) {
+			if (inserted[i]) {
+				deltas.merge(rows.get(i).userId(), rows.get(i).amount(), Long::sum);
+			}
+		}
+		if (deltas.isEmpty()) {
+			return inserted;
+		}
+
+		ledgerRepository.applyBatchToLevels(batchId);
+		// The update keeps these rows locked until commit, so normalizing them here cannot race
+		Set<Long> withoutLevel = new HashSet<>(deltas.keySet());
+		for (Object[] row : levelingRepository.findLevelsByUserIds(deltas.keySet())) {
+			Long userId = (Long) row[0];
+			Level level = (Level) row[1];
+			level.addXp(0);
+			withoutLevel.remove(userId);
+			outboxService.publish(new XpAwarded(userId, deltas.get(userId), level.getCurrentLevel(),
+					level.getCurrentXP()));
+		}
+		for (Long userId : withoutLevel) {
+			userRepository.findById(userId).ifPresent(user -> {
+				Level level = new Level();
+				level.addXp(deltas.get(userId));
+				user.setLevel(level);
+				userRepository.save(user);
+				outboxService.publish(new XpAwarded(userId, deltas.get(userId), level.getCurrentLevel(),
+						level.getCurrentXP()));
+			});
+		}
+		return inserted;
+	}
+
+	private String validate(XpAwardRequest award) {
+		if (award == null) {
+			return "Award is empty";
+		}
+		if (award.getIdempotencyKey() == null || award.getIdempotencyKey().isBlank()
+				|| award.getIdempotencyKey().length() > MAX_KEY_LENGTH) {
+			return "idempotencyKey is required and at most " + MAX_KEY_LENGTH + " characters";
+		}
+		if (award.getUserId() == null) {
+			return "userId is required";
+		}
+		if (award.getAmount() <= 0) {
+			return "amount must be positive";
+		}
+		if (award.getReason() != null && award.getReason().length() > MAX_REASON_LENGTH) {
+			return "reason is at most " + MAX_REASON_LENGTH + " characters";
+		}
+		return null;
+	}
+
+	private XpAwardBatchResult summarize(XpAwardBatchResult.Outcome[] outcomes, int users) {
+		int applied = 0;
+		int duplicates = 0;
+		int rejected = 0;
+		for (XpAwardBatchResult.Outcome outcome : outcomes) {
+			switch (outcome.status()) {
+				case APPLIED -> applied++;
+				case DUPLICATE -> duplicates++;
+				case REJECTED -> rejected++;
+			}
+		}
+		logger.info("XP batch of {} awards: {} applied to {} users, {} duplicates, {} rejected", outcomes.length,
+				applied, users, duplicates, rejected);
+		return new XpAwardBatchResult(applied, duplicates, rejected, List.of(outcomes));
+	}
+
+	private static XpAwardBatchResult.Outcome duplicate(XpAwardRequest award) {
+		return new XpAwardBatchResult.Outcome(award.getIdempotencyKey(), XpAwardBatchResult.Status.DUPLICATE, null);
+	}
+
+	private static XpAwardBatchResult.Outcome rejected(XpAwardRequest award, String error) {
+		return new XpAwardBatchResult.Outcome(award == null ? null : award.getIdempotencyKey(),
+				XpAwardBatchResult.Status.REJECTED, error);
+	}
+}
@@ -0,0 +1,151 @@
+package com.party.ceva.demo.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import com.party.ceva.demo.config.BinaryCacheSerializer;
+import com.party.ceva.demo.dto.UserDto;
+import com.party.ceva.demo.dto.UserProfileDto;
+import com.party.ceva.demo.model.News;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Compares the cache value codecs on the hot cached types.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.party.ceva.demo.benchmark.CacheCodecBenchmark}; the size of each encoding
+ * is printed before the measurements start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+	private final BinaryCacheSerializer binary = new BinaryCacheSerializer(getClass().getClassLoader(), 1024);
+	private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+	private final JsonMapper json = JsonMapper.builder().findAndAddModules().build();
+
+	private UserDto user;
+	private List<News> newsPage;
+	private byte[] binaryUser;
+	private byte[] jdkUser;
+	private byte[] jsonUser;
+	private byte[] binaryNews;
+	private byte[] jdkNews;
+
+	@Setup
+	public void setUp() {
+		user = sampleUser();
+		newsPage = new ArrayList<>();
+		for (long id = 1; id <= 20; id++) {
+			newsPage.add(sampleNews(id));
+		}
+		binaryUser = binary.serialize(user);
+		jdkUser = jdk.serialize(user);
+		jsonUser = json.writeValueAsBytes(user);
+		binaryNews = binary.serialize(newsPage.get(0));
+		jdkNews = jdk.serialize(newsPage.get(0));
+		System.out.printf("UserDto bytes: binary=%d jdk=%d json=%d%n", binaryUser.length, jdkUser.length,
+				jsonUser.length);
+		System.out.printf("News bytes: binary=%d jdk=%d%n", binaryNews.length, jdkNews.length);
+	}
+
+	@Benchmark
+	public byte[] binaryEncodeUser() {
+		return binary.serialize(user);
+	}
+
+	@Benchmark
+	public byte[] jdkEncodeUser() {
+		return jdk.serialize(user);
+	}
+
+	@Benchmark
+	public byte[] jsonEncodeUser() {
+		return json.writeValueAsBytes(user);
+	}
+
+	@Benchmark
+	public Object binaryDecodeUser() {
+		return binary.deserialize(binaryUser);
+	}
+
+	@Benchmark
+	public Object jdkDecodeUser() {
+		return jdk.deserialize(jdkUser);
+	}
+
+	@Benchmark
+	public Object jsonDecodeUser() {
+		return json.readValue(jsonUser, UserDto.class);
+	}
+
+	@Benchmark
+	public Object binaryDecodeNews() {
+		return binary.deserialize(binaryNews);
+	}
+
+	@Benchmark
+	public Object jdkDecodeNews() {
+		return jdk.deserialize(jdkNews);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CacheCodecBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	private static UserDto sampleUser() {
+		UserProfileDto profile = new UserProfileDto();
+		profile.setId(11L);
+		profile.setFirstName("Ana");
+		profile.setLastName("Popescu");
+		profile.setSex('F');
+		profile.setTelefon("0712345678");
+		profile.setDateOfBirth(LocalDate.of(1999, 5, 17));
+		profile.setAddress("Str. Exemplu 1, Cluj-Napoca");
+		profile.setBio("Regular at the Friday events");
+		profile.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+		profile.setUpdatedAt(LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+
+		UserDto user = new UserDto();
+		user.setId(7L);
+		user.setEmail("ana.popescu@example.com");
+		user.setCode("AB12C");
+		user.setCurrentLevel(3);
+		user.setCurrentXP(250L);
+		user.setNextLevelXP(400L);
+		user.setUserProfile(profile);
+		return user;
+	}
+
+	private static News sampleNews(long id) {
+		News news = new News();
+		news.setId(id);
+		news.setTitle("Weekend line-up #" + id);
+		news.setContent("Doors open at nine. ".repeat(20));
+		news.setCreatedAt(LocalDateTime.of(2025, 6, 1, 12, 0));
+		news.setUpdatedAt(LocalDateTime.of(2025, 6, 2, 12, 0));
+		return news;
+	}
+}
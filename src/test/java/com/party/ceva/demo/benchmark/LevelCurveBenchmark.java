@@ -0,0 +1,65 @@
+package com.party.ceva.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.party.ceva.demo.model.LevelCurve;
+
+/**
+ * Compares the level-by-level {@code Math.pow} loop the leveling service used with the precomputed curve,
+ * for a small award and for large grants.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.party.ceva.demo.benchmark.LevelCurveBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelCurveBenchmark {
+
+	@Param({ "50", "100000", "100000000" })
+	public long grant;
+
+	private final LevelCurve curve = new LevelCurve(100, 1.5);
+	private final int startLevel = 10;
+	private final long startXp = 40;
+
+	@Benchmark
+	public long powLoop() {
+		long xp = startXp + grant;
+		int level = startLevel;
+		long nextLevelXp = (long) (100 * Math.pow(level, 1.5));
+		while (xp >= nextLevelXp) {
+			xp -= nextLevelXp;
+			level++;
+			nextLevelXp = (long) (100 * Math.pow(level, 1.5));
+		}
+		return level * 31L + xp;
+	}
+
+	@Benchmark
+	public long curveLookup() {
+		long total = curve.cumulativeXp(startLevel) + startXp + grant;
+		int level = curve.levelForTotalXp(total);
+		return level * 31L + (total - curve.cumulativeXp(level));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LevelCurveBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,126 @@
+package com.party.ceva.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import com.party.ceva.demo.dto.EventDto;
+import com.party.ceva.demo.dto.UserDto;
+import com.party.ceva.demo.dto.UserProfileDto;
+import com.party.ceva.demo.model.News;
+
+class BinaryCacheSerializerTest {
+
+	private final BinaryCacheSerializer serializer = new BinaryCacheSerializer(getClass().getClassLoader(), 1024);
+
+	@Test
+	void userDtoRoundTripsAndIsSmallerThanJdkSerialization() {
+		UserDto user = sampleUser();
+
+		byte[] bytes = serializer.serialize(user);
+		UserDto restored = (UserDto) serializer.deserialize(bytes);
+
+		assertEquals(user, restored);
+		assertTrue(bytes.length < new JdkSerializationRedisSerializer().serialize(user).length);
+	}
+
+	@Test
+	void newsPageRoundTripsWithPagingAndSort() {
+		Page<News> page = new PageImpl<>(List.of(sampleNews(1L), sampleNews(2L)),
+				PageRequest.of(3, 2, Sort.by("createdAt").descending()), 42);
+
+		@SuppressWarnings("unchecked")
+		Page<News> restored = (Page<News>) serializer.deserialize(serializer.serialize(page));
+
+		assertEquals(page.getContent(), restored.getContent());
+		assertEquals(page.getPageable(), restored.getPageable());
+		assertEquals(42, restored.getTotalElements());
+	}
+
+	@Test
+	void eventPagesUseTheirOwnPageCodec() {
+		EventDto event = new EventDto(3L, "Rooftop", LocalDateTime.of(2025, 7, 1, 20, 0),
+				LocalDateTime.of(2025, 7, 2, 2, 0), "Open air", "Cluj");
+		Page<EventDto> page = new PageImpl<>(List.of(event), PageRequest.of(0, 20, Sort.by("startTime")), 1);
+
+		@SuppressWarnings("unchecked")
+		Page<EventDto> restored = (Page<EventDto>) serializer.deserialize(serializer.serialize(page));
+
+		assertEquals(List.of(event), restored.getContent());
+		assertEquals(page.getPageable(), restored.getPageable());
+	}
+
+	@Test
+	void largeValuesAreCompressedAndRestored() {
+		News news = sampleNews(5L);
+		news.setContent("party ".repeat(2_000));
+
+		byte[] bytes = serializer.serialize(news);
+
+		assertTrue(bytes.length < 1_000);
+		assertEquals(news, serializer.deserialize(bytes));
+	}
+
+	@Test
+	void unknownTypesFallBackToJdkSerialization() {
+		Map<String, Integer> value = Map.of("answer", 42);
+
+		assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+	}
+
+	@Test
+	void readsValuesWrittenByTheJdkSerializer() {
+		UserDto user = sampleUser();
+		byte[] legacy = new JdkSerializationRedisSerializer().serialize(user);
+
+		assertEquals(user, serializer.deserialize(legacy));
+	}
+
+	@Test
+	void emptyPayloadDeserializesToNull() {
+		assertNull(serializer.deserialize(new byte[0]));
+	}
+
+	private static UserDto sampleUser() {
+		UserProfileDto profile = new UserProfileDto();
+		profile.setId(11L);
+		profile.setFirstName("Ana");
+		profile.setLastName("Pop");
+		profile.setSex('F');
+		profile.setDateOfBirth(LocalDate.of(1999, 5, 17));
+		profile.setBio("Likes parties — and unicode ✓");
+		profile.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 600_000_000));
+
+		UserDto user = new UserDto();
+		user.setId(7L);
+		user.setEmail("ana@example.com");
+		user.setCode("AB12C");
+		user.setCurrentLevel(3);
+		user.setCurrentXP(250L);
+		user.setNextLevelXP(400L);
+		user.setUserProfile(profile);
+		return user;
+	}
+
+	private static News sampleNews(Long id) {
+		News news = new News();
+		news.setId(id);
+		news.setTitle("Title " + id);
+		news.setContent("Content " + id);
+		news.setCreatedAt(LocalDateTime.of(2025, 6, 1, 12, 0));
+		news.setUpdatedAt(LocalDateTime.of(2025, 6, 2, 12, 0));
+		return news;
+	}
+}
@@ -0,0 +1,84 @@
+package com.party.ceva.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+	@Test
+	void encodesAndMatchesThroughThePool() {
+		try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new PlainEncoder(null), 2, 4, 1_000, 1)) {
+			String encoded = encoder.encode("secret");
+
+			assertTrue(encoder.matches("secret", encoded));
+			assertFalse(encoder.matches("other", encoded));
+		}
+	}
+
+	@Test
+	void rejectsWithServiceUnavailableWhenQueueIsFull() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new PlainEncoder(release), 1, 1, 5_000, 3)) {
+			// One hash running and one queued fill the pool completely
+			callers.submit(() -> encoder.encode("first"));
+			callers.submit(() -> encoder.encode("second"));
+			waitUntil(() -> encoder.getQueuedTasks() == 1);
+
+			RetryAfterStatusException ex = assertThrows(RetryAfterStatusException.class, () -> encoder.encode("third"));
+
+			assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+			assertEquals("3", ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		} finally {
+			release.countDown();
+			callers.shutdownNow();
+			callers.awaitTermination(1, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void calibrationStaysWithinConfiguredBounds() {
+		int strength = BoundedPasswordEncoder.calibrateStrength(1, 4, 5);
+
+		assertTrue(strength >= 4 && strength <= 5);
+	}
+
+	private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 2_000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private record PlainEncoder(CountDownLatch gate) implements PasswordEncoder {
+		@Override
+		public String encode(CharSequence rawPassword) {
+			if (gate != null) {
+				try {
+					gate.await();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return "plain:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encodedPassword.equals("plain:" + rawPassword);
+		}
+	}
+}
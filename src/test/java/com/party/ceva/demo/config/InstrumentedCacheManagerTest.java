@@ -0,0 +1,296 @@
+package com.party.ceva.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.party.ceva.demo.dto.CacheDetailsDto;
+import com.party.ceva.demo.dto.CacheStatsDto;
+
+class InstrumentedCacheManagerTest {
+
+	private final ConcurrentMapCacheManager remoteManager = new ConcurrentMapCacheManager("usersById", "news");
+	private final CachePolicyProperties policies = bind(Map.of(
+			"app.cache.policy.caches.usersById.max-entries", "2",
+			"app.cache.policy.caches.news.cache-nulls", "true",
+			"app.cache.policy.caches.news.ttl", "1h",
+			"app.cache.policy.caches.news.refresh-ahead", "0.5"));
+	private final List<Runnable> refreshTasks = new ArrayList<>();
+	private final MutableClock clock = new MutableClock();
+	private final Map<String, InMemoryKeyIndex> keyIndexes = new HashMap<>();
+	private final InstrumentedCacheManager cacheManager = new InstrumentedCacheManager(remoteManager, policies,
+			(name, policy) -> keyIndexes.computeIfAbsent(name, cacheName -> new InMemoryKeyIndex(policy.maxEntries())),
+			refreshTasks::add, clock);
+
+	@Test
+	void policiesInheritDefaultsAndKeepCamelCaseCacheNames() {
+		assertEquals(new CachePolicy(Duration.ofMinutes(10), 2, false, 0.0), policies.resolve("usersById"));
+		assertEquals(new CachePolicy(Duration.ofHours(1), 0, true, 0.5), policies.resolve("news"));
+		assertEquals(policies.defaultPolicy(), policies.resolve("unknown"));
+	}
+
+	@Test
+	void countsHitsMissesAndLoadsBetweenMissAndPut() {
+		Cache cache = cacheManager.getCache("usersById");
+		assertNull(cache.get(1L));
+		cache.put(1L, "alice");
+		assertNotNull(cache.get(1L));
+
+		CacheStatsDto stats = stats("usersById");
+		assertEquals(1, stats.getHits());
+		assertEquals(1, stats.getMisses());
+		assertEquals(1, stats.getLoads());
+		assertEquals(1, stats.getSize());
+	}
+
+	@Test
+	void nullsAreOnlyCachedWhenThePolicyAllowsIt() {
+		cacheManager.getCache("usersById").put(1L, null);
+		cacheManager.getCache("news").put(1L, null);
+
+		assertNull(remoteManager.getCache("usersById").get(1L));
+		assertNotNull(remoteManager.getCache("news").get(1L));
+	}
+
+	@Test
+	void oldestEntriesArePushedOutAboveMaxEntries() {
+		// String keys: overflow is evicted by the key's string form, which is how Redis stores every key
+		Cache cache = cacheManager.getCache("usersById");
+		cache.put("1", "a");
+		cache.put("2", "b");
+		cache.put("3", "c");
+
+		assertNull(remoteManager.getCache("usersById").get("1"));
+		assertNotNull(remoteManager.getCache("usersById").get("3"));
+		assertEquals(1, stats("usersById").getEvictions());
+	}
+
+	@Test
+	void inspectAndFlushSingleCache() {
+		cacheManager.getCache("usersById").put(1L, "a");
+		cacheManager.getCache("news").put(9L, "n");
+
+		CacheDetailsDto details = cacheManager.inspect("usersById").orElseThrow();
+		assertEquals(List.of("1"), details.getNewestKeys());
+		assertEquals(2, details.getMaxEntries());
+
+		assertTrue(cacheManager.flush("usersById"));
+		assertNull(remoteManager.getCache("usersById").get(1L));
+		assertNotNull(remoteManager.getCache("news").get(9L));
+		assertFalse(cacheManager.flush("missing"));
+	}
+
+	@Test
+	void keyIndexesAreTrimmedByTheScheduleRatherThanByStats() {
+		cacheManager.getCache("usersById").put(1L, "a");
+		cacheManager.stats();
+		assertEquals(0, keyIndexes.get("usersById").trims);
+
+		cacheManager.trimKeyIndexes();
+		assertEquals(1, keyIndexes.get("usersById").trims);
+	}
+
+	@Test
+	void concurrentMissesForTheSameKeyRunOneLoader() throws Exception {
+		Cache cache = cacheManager.getCache("usersById");
+		AtomicInteger loaderCalls = new AtomicInteger();
+		CountDownLatch loaderStarted = new CountDownLatch(1);
+		CountDownLatch releaseLoader = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			results.add(callers.submit(() -> cache.get(1L, () -> {
+				loaderCalls.incrementAndGet();
+				loaderStarted.countDown();
+				releaseLoader.await();
+				return "alice";
+			})));
+			loaderStarted.await();
+			for (int i = 0; i < 3; i++) {
+				results.add(callers.submit(() -> cache.get(1L, () -> {
+					loaderCalls.incrementAndGet();
+					return "late";
+				})));
+			}
+			while (cacheManager.inspect("usersById").orElseThrow().getCoalescedLoads() < 3) {
+				Thread.sleep(5);
+			}
+			releaseLoader.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("alice", result.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, loaderCalls.get());
+			assertEquals(1, stats("usersById").getLoads());
+		} finally {
+			callers.shutdownNow();
+		}
+	}
+
+	@Test
+	void loaderFailuresReachEveryCallerAndAreNotCached() {
+		Cache cache = cacheManager.getCache("usersById");
+
+		assertThrows(Cache.ValueRetrievalException.class, () -> cache.get(1L, () -> {
+			throw new IllegalStateException("database down");
+		}));
+		assertEquals("alice", cache.get(1L, () -> "alice"));
+	}
+
+	@Test
+	void agingHitsAreRefreshedInTheBackground() {
+		Cache cache = cacheManager.getCache("news");
+		AtomicInteger version = new AtomicInteger();
+		Callable<String> loader = () -> "v" + version.incrementAndGet();
+		assertEquals("v1", cache.get(7L, loader));
+		clock.advance(Duration.ofMinutes(29));
+		assertEquals("v1", cache.get(7L, loader));
+		assertTrue(refreshTasks.isEmpty(), "a fresh entry is not refreshed");
+
+		// Past the refresh point: 1h * 0.5 is 30 minutes
+		clock.advance(Duration.ofMinutes(2));
+
+		assertEquals("v1", cache.get(7L, loader));
+		assertEquals(1, refreshTasks.size());
+		assertEquals("v1", cache.get(7L, loader));
+		assertEquals(1, refreshTasks.size(), "a refresh already in flight is not queued twice");
+
+		refreshTasks.get(0).run();
+		assertEquals("v2", remoteManager.getCache("news").get(7L).get());
+		assertEquals(1, cacheManager.inspect("news").orElseThrow().getRefreshes());
+	}
+
+	@Test
+	void refreshesThatRaceAClearOrEvictAreNotWrittenBack() {
+		Cache cache = cacheManager.getCache("news");
+		AtomicInteger version = new AtomicInteger();
+		Callable<String> loader = () -> "v" + version.incrementAndGet();
+		cache.get(7L, loader);
+		cache.get(8L, loader);
+		clock.advance(Duration.ofMinutes(31));
+		cache.get(7L, loader);
+		cache.clear();
+
+		refreshTasks.get(0).run();
+		assertNull(remoteManager.getCache("news").get(7L), "a cleared entry is not brought back by its refresh");
+
+		cache.get(8L, loader);
+		clock.advance(Duration.ofMinutes(31));
+		cache.get(8L, loader);
+		cache.evict(8L);
+		cache.put(8L, "fresh");
+
+		refreshTasks.get(1).run();
+		assertEquals("fresh", remoteManager.getCache("news").get(8L).get());
+	}
+
+	private CacheStatsDto stats(String name) {
+		return cacheManager.stats().stream().filter(stats -> stats.getName().equals(name)).findFirst().orElseThrow();
+	}
+
+	private static CachePolicyProperties bind(Map<String, String> properties) {
+		return new Binder(new MapConfigurationPropertySource(properties))
+				.bindOrCreate("app.cache.policy", CachePolicyProperties.class);
+	}
+
+	private static final class MutableClock extends Clock {
+		private Instant instant = Instant.parse("2026-10-14T12:00:00Z");
+
+		void advance(Duration duration) {
+			instant = instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+
+	private static final class InMemoryKeyIndex implements CacheKeyIndex {
+		private final LinkedHashSet<String> keys = new LinkedHashSet<>();
+		private final int maxEntries;
+		private int trims;
+
+		InMemoryKeyIndex(int maxEntries) {
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		public List<String> recordWrite(String key) {
+			keys.remove(key);
+			keys.add(key);
+			List<String> overflow = new ArrayList<>();
+			while (maxEntries > 0 && keys.size() > maxEntries) {
+				String oldest = keys.iterator().next();
+				keys.remove(oldest);
+				overflow.add(oldest);
+			}
+			return overflow;
+		}
+
+		@Override
+		public void remove(String key) {
+			keys.remove(key);
+		}
+
+		@Override
+		public void clear() {
+			keys.clear();
+		}
+
+		@Override
+		public long size() {
+			return keys.size();
+		}
+
+		@Override
+		public void trimExpired() {
+			trims++;
+		}
+
+		@Override
+		public List<String> newestKeys(int limit) {
+			List<String> newest = new ArrayList<>(keys);
+			Collections.reverse(newest);
+			return newest.stream().limit(limit).toList();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.party.ceva.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+class ResilientCacheManagerTest {
+
+	private final FlakyCacheManager remoteManager = new FlakyCacheManager();
+	private final RedisCircuitBreaker breaker = new RedisCircuitBreaker(2, 50);
+	private final ResilientCacheManager cacheManager = new ResilientCacheManager(remoteManager, breaker, 60_000, 100, 10,
+			Runnable::run);
+
+	@Test
+	void failuresOpenTheBreakerAndTheFallbackServesMeanwhile() {
+		Cache cache = cacheManager.getCache("usersById");
+		remoteManager.down = true;
+
+		cache.put(1L, "alice");
+		cache.put(2L, "bob");
+		int callsWhenOpened = remoteManager.calls;
+		assertEquals(RedisCircuitBreaker.State.OPEN, breaker.state());
+
+		assertEquals("alice", cache.get(1L, String.class));
+		assertEquals(callsWhenOpened, remoteManager.calls, "an open breaker must not touch Redis");
+		assertEquals(2, breaker.stats().getFallbackEntries());
+	}
+
+	@Test
+	void recoveryEvictsKeysRedisMissedAndDropsTheFallback() throws Exception {
+		Cache cache = cacheManager.getCache("usersById");
+		remoteManager.getCache("usersById").put(1L, "stale");
+		remoteManager.getCache("usersById").put(2L, "untouched");
+		remoteManager.down = true;
+		cache.evict(1L);
+		cache.evict(1L);
+		cache.put(3L, "local");
+
+		remoteManager.down = false;
+		Thread.sleep(60);
+		assertNotNull(cache.get(2L));
+
+		assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.state());
+		assertNull(remoteManager.target.get("1"));
+		assertEquals("untouched", remoteManager.target.get("2").get());
+		assertEquals(0, breaker.stats().getFallbackEntries());
+	}
+
+	@Test
+	void tooManyTouchedKeysClearTheWholeCacheOnRecovery() throws Exception {
+		Cache cache = cacheManager.getCache("usersById");
+		remoteManager.getCache("usersById").put(100L, "old");
+		remoteManager.down = true;
+		for (long id = 0; id < 20; id++) {
+			cache.evict(id);
+		}
+
+		remoteManager.down = false;
+		Thread.sleep(60);
+		cache.get(5L);
+
+		assertNull(remoteManager.target.get("100"));
+	}
+
+	@Test
+	void failedProbeKeepsTheBreakerOpen() throws Exception {
+		Cache cache = cacheManager.getCache("usersById");
+		remoteManager.down = true;
+		cache.get(1L);
+		cache.get(1L);
+		Thread.sleep(60);
+
+		Callable<String> loader = () -> "db";
+		assertEquals("db", cache.get(1L, loader));
+		assertEquals(RedisCircuitBreaker.State.OPEN, breaker.state());
+		assertEquals(2, breaker.stats().getTimesOpened());
+	}
+
+	/**
+	 * Redis stand-in whose cache fails every call while {@code down} is set.
+	 */
+	private static final class FlakyCacheManager extends ConcurrentMapCacheManager {
+		private boolean down;
+		private int calls;
+		private final ConcurrentMapCache target = new ConcurrentMapCache("usersById");
+
+		@Override
+		public Cache getCache(String name) {
+			return new ConcurrentMapCache(name, target.getNativeCache(), true) {
+				@Override
+				public ValueWrapper get(Object key) {
+					check();
+					return super.get(String.valueOf(key));
+				}
+
+				// Redis stores every key by its string form
+				@Override
+				public void put(Object key, Object value) {
+					check();
+					super.put(String.valueOf(key), value);
+				}
+
+				@Override
+				public void evict(Object key) {
+					check();
+					super.evict(String.valueOf(key));
+				}
+
+				@Override
+				public void clear() {
+					check();
+					super.clear();
+				}
+			};
+		}
+
+		private void check() {
+			calls++;
+			if (down) {
+				throw new RedisConnectionFailureException("Redis is down");
+			}
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.party.ceva.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class TwoLevelCacheManagerTest {
+
+	private final ConcurrentMapCacheManager remoteManager = new ConcurrentMapCacheManager("usersById", "news");
+	private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+	private final TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(remoteManager, redisTemplate,
+			Set.of("usersById"), 60_000, 100);
+
+	@Test
+	void nearCacheServesHitsWithoutAskingRedis() {
+		Cache cache = cacheManager.getCache("usersById");
+		cache.put(1L, "alice");
+		remoteCache().evict(1L);
+
+		assertEquals("alice", cache.get(1L, String.class));
+	}
+
+	@Test
+	void onlyConfiguredCachesGetANearLayer() {
+		assertInstanceOf(TwoLevelCache.class, cacheManager.getCache("usersById"));
+		assertInstanceOf(ConcurrentMapCache.class, cacheManager.getCache("news"));
+	}
+
+	@Test
+	void writesAreBroadcastAndPeerInvalidationsDropNearEntries() {
+		Cache cache = cacheManager.getCache("usersById");
+		cache.evict(1L);
+		ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+		verify(redisTemplate).convertAndSend(eq(TwoLevelCacheManager.CHANNEL), payload.capture());
+		assertEquals("usersById|1", payload.getValue().substring(payload.getValue().indexOf('|') + 1));
+
+		cache.get(2L, () -> "bob");
+		remoteCache().put(2L, "bobby");
+		cacheManager.onMessage(message("other-node|usersById|2"), null);
+
+		assertEquals("bobby", cache.get(2L, String.class));
+	}
+
+	@Test
+	void clearFromPeerEmptiesTheNearCache() {
+		Cache cache = cacheManager.getCache("usersById");
+		cache.get(3L, () -> "carol");
+		remoteCache().clear();
+
+		cacheManager.onMessage(message("other-node|usersById|"), null);
+
+		assertNull(cache.get(3L));
+	}
+
+	private Cache remoteCache() {
+		return remoteManager.getCache("usersById");
+	}
+
+	private static DefaultMessage message(String body) {
+		return new DefaultMessage(TwoLevelCacheManager.CHANNEL.getBytes(StandardCharsets.UTF_8),
+				body.getBytes(StandardCharsets.UTF_8));
+	}
+}
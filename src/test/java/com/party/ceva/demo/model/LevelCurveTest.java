@@ -0,0 +1,57 @@
+package com.party.ceva.demo.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LevelCurveTest {
+
+	private final LevelCurve curve = new LevelCurve(100, 1.5);
+
+	@Test
+	void xpToNextMatchesTheOriginalFormula() {
+		for (int level = 1; level <= 2000; level++) {
+			assertEquals((long) (100 * Math.pow(level, 1.5)), curve.xpToNext(level), "level " + level);
+		}
+	}
+
+	@Test
+	void levelForTotalXpAgreesWithSteppingLevelByLevel() {
+		long total = 0;
+		for (int level = 1; level <= 500; level++) {
+			assertEquals(level, curve.levelForTotalXp(total), "start of level " + level);
+			assertEquals(level, curve.levelForTotalXp(total + curve.xpToNext(level) - 1), "end of level " + level);
+			total += curve.xpToNext(level);
+		}
+	}
+
+	@Test
+	void tableExtendsForVeryHighLevels() {
+		long total = curve.cumulativeXp(100_000) + 5;
+
+		assertEquals(100_000, curve.levelForTotalXp(total));
+		// The table stops where cumulative XP would overflow instead of growing forever
+		assertTrue(curve.levelForTotalXp(Long.MAX_VALUE) > 100_000);
+	}
+
+	@Test
+	void levelAddXpCarriesLargeGrantsAcrossManyLevels() {
+		Level level = new Level();
+		long grant = LevelCurve.current().cumulativeXp(40) + 30;
+
+		int gained = level.addXp(grant);
+
+		assertEquals(39, gained);
+		assertEquals(40, level.getCurrentLevel());
+		assertEquals(30, level.getCurrentXP());
+		assertEquals(LevelCurve.current().xpToNext(40), level.getNextLevelXP());
+	}
+
+	@Test
+	void rejectsCurvesThatDoNotGrow() {
+		assertThrows(IllegalArgumentException.class, () -> new LevelCurve(0, 1.5));
+		assertThrows(IllegalArgumentException.class, () -> new LevelCurve(100, -1));
+	}
+}
@@ -0,0 +1,118 @@
+package com.party.ceva.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.party.ceva.demo.model.LevelCurve;
+import com.party.ceva.demo.model.User;
+
+// PostgreSQL mode for nextval() and generate_series() in the id reservation
+@DataJpaTest(properties = {
+		"spring.test.database.replace=none",
+		"spring.datasource.url=jdbc:h2:mem:userimport;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+// The sequence set-up below is DDL, which H2 commits on its own
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportRepositoryTest {
+	private static final List<String> SERIAL_TABLES = List.of("users", "user_profile", "level");
+	private static boolean serialColumnsInstalled;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	// Required by the CommandLineRunner beans declared on the application class
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	@BeforeEach
+	void installSerialColumns() {
+		if (serialColumnsInstalled) {
+			return;
+		}
+		// Postgres serial columns: a named sequence as the default, found through pg_get_serial_sequence
+		jdbcTemplate.execute("create alias if not exists pg_get_serial_sequence for '"
+				+ SerialSequences.class.getName() + ".name'");
+		for (String table : SERIAL_TABLES) {
+			jdbcTemplate.execute("create sequence " + table + "_id_seq");
+			jdbcTemplate.execute("alter table " + table + " alter column id drop identity");
+			jdbcTemplate.execute("alter table " + table + " alter column id set default nextval('" + table
+					+ "_id_seq')");
+		}
+		serialColumnsInstalled = true;
+	}
+
+	@Test
+	void insertBatchWritesLinkedUserProfileAndLevelRows() {
+		UserImportRepository repository = new UserImportRepository(jdbcTemplate);
+
+		repository.insertBatch(List.of(
+				new UserImportRepository.NewUser("ana@example.com", "hash-1", "CODE1", "Ana", "Pop", 'F', null),
+				new UserImportRepository.NewUser("dan@example.com", "hash-2", "CODE2", "Dan", "Ionescu", 'M',
+						"0700")));
+
+		assertEquals(Set.of("ana@example.com"),
+				repository.findExistingEmails(List.of("ana@example.com", "nobody@example.com")));
+		User dan = userRepository.findByEmail("dan@example.com").orElseThrow();
+		Map<String, Object> row = jdbcTemplate.queryForMap("select p.first_name, p.last_name, p.telefon, "
+				+ "l.current_level, l.currentxp, l.next_levelxp from users u join user_profile p on p.id = u.user_profile_id "
+				+ "join level l on l.id = u.level_id where u.id = ?", dan.getId());
+		assertEquals("Dan", row.get("first_name"));
+		assertEquals("Ionescu", row.get("last_name"));
+		assertEquals("0700", row.get("telefon"));
+		assertEquals(1, ((Number) row.get("current_level")).intValue());
+		assertEquals(0L, ((Number) row.get("currentxp")).longValue());
+		assertEquals(LevelCurve.current().xpToNext(1), ((Number) row.get("next_levelxp")).longValue());
+		assertEquals("CODE2", dan.getCode());
+	}
+
+	@Test
+	void reservedIdsDoNotCollideWithRowsInsertedAfterwards() {
+		new UserImportRepository(jdbcTemplate).insertBatch(List.of(
+				new UserImportRepository.NewUser("first@example.com", "hash", "CODE3", "A", "B", 'F', null)));
+		User later = new User();
+		later.setEmail("later@example.com");
+		later.setPassword("hash");
+
+		Long laterId = userRepository.saveAndFlush(later).getId();
+
+		Long firstId = userRepository.findByEmail("first@example.com").orElseThrow().getId();
+		assertNotEquals(firstId, laterId);
+	}
+
+	// Public so H2 can call it
+	public static final class SerialSequences {
+		public static String name(String table, String column) {
+			return table + "_" + column + "_seq";
+		}
+	}
+
+	@TestConfiguration
+	static class CacheTestConfig {
+		@Bean
+		CacheManager cacheManager() {
+			return new NoOpCacheManager();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+	@Test
+	void neverReportsAnInsertedKeyAsAbsent() {
+		BloomFilter filter = new BloomFilter(1_000, 0.01);
+		for (int i = 0; i < 1_000; i++) {
+			filter.put("token-" + i);
+		}
+
+		for (int i = 0; i < 1_000; i++) {
+			assertTrue(filter.mightContain("token-" + i));
+		}
+	}
+
+	@Test
+	void keepsFalsePositivesNearTheConfiguredRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put(UUID.randomUUID().toString());
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain(UUID.randomUUID().toString())) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+	}
+}
@@ -0,0 +1,67 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.party.ceva.demo.dto.UserDto;
+import com.party.ceva.demo.repository.EventParticipationRepository;
+import com.party.ceva.demo.repository.UserRepository;
+
+class CacheWarmupRunnerTest {
+
+	private final NewsService newsService = mock(NewsService.class);
+	private final EventService eventService = mock(EventService.class);
+	private final UserService userService = mock(UserService.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final EventParticipationRepository participationRepository = mock(EventParticipationRepository.class);
+
+	@Test
+	void warmsNewsEventsAndActiveUsersWithControllerPageables() throws Exception {
+		when(participationRepository.findRecentlyActiveUserIds(any(Limit.class))).thenReturn(List.of(5L));
+		when(userRepository.findNewestIds(any(Limit.class))).thenReturn(List.of(9L, 5L));
+		UserDto user = new UserDto();
+		user.setEmail("five@example.com");
+		when(userService.findById(5L)).thenReturn(Optional.of(user));
+		when(userService.findById(9L)).thenReturn(Optional.empty());
+
+		runner(10_000).run(null);
+
+		verify(newsService).findAllNews(PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "id")));
+		verify(newsService).findAllNews(PageRequest.of(1, 20, Sort.by(Sort.Direction.DESC, "id")));
+		verify(eventService).getUpcomingAndOngoingEvents(PageRequest.of(0, 20, Sort.by("startTime")));
+		verify(userService).findById(9L);
+		verify(userService).findByEmail("five@example.com");
+	}
+
+	@Test
+	void stopsAtTheTimeBudget() throws Exception {
+		when(newsService.findAllNews(any(Pageable.class))).thenAnswer(invocation -> {
+			Thread.sleep(300);
+			return null;
+		});
+
+		long startedAt = System.currentTimeMillis();
+		runner(100).run(null);
+
+		assertTrue(System.currentTimeMillis() - startedAt < 250);
+		verify(eventService, never()).getUpcomingAndOngoingEvents(any(Pageable.class));
+	}
+
+	private CacheWarmupRunner runner(long budgetMs) {
+		return new CacheWarmupRunner(newsService, eventService, userService, userRepository, participationRepository,
+				budgetMs, 1, 2, 20, "id,desc", 1, 20, "startTime,asc", 2);
+	}
+}
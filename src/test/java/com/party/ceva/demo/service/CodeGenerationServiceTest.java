@@ -0,0 +1,83 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.party.ceva.demo.repository.ReferralCodeSequence;
+
+class CodeGenerationServiceTest {
+
+	private final ReferralCodeSequence sequence = mock(ReferralCodeSequence.class);
+
+	@Test
+	void everySequenceValueInALengthMapsToADistinctCode() {
+		CodeGenerationService service = new CodeGenerationService(sequence, 3, 1.0, 10, "test-secret");
+		Set<String> codes = new HashSet<>();
+
+		for (long value = 0; value < 36 * 36 * 36; value++) {
+			String code = service.codeForSequence(value);
+			assertEquals(3, code.length());
+			assertTrue(codes.add(code), "duplicate code " + code);
+		}
+	}
+
+	@Test
+	void codeLengthGrowsOnceFillRatioIsReached() {
+		CodeGenerationService service = new CodeGenerationService(sequence, 2, 0.5, 10, "test-secret");
+		long lastTwoCharacterValue = (36 * 36) / 2 - 1;
+
+		assertEquals(2, service.codeForSequence(lastTwoCharacterValue).length());
+		assertEquals(3, service.codeForSequence(lastTwoCharacterValue + 1).length());
+	}
+
+	@Test
+	void differentSecretsGiveDifferentCodeOrders() {
+		CodeGenerationService first = new CodeGenerationService(sequence, 5, 0.5, 10, "secret-one");
+		CodeGenerationService second = new CodeGenerationService(sequence, 5, 0.5, 10, "secret-two");
+
+		assertNotEquals(first.codeForSequence(1), second.codeForSequence(1));
+	}
+
+	@Test
+	void reservesSequenceValuesInBlocks() {
+		when(sequence.nextValues(anyInt())).thenReturn(List.of(0L, 1L, 2L), List.of(3L, 4L, 5L));
+		CodeGenerationService service = new CodeGenerationService(sequence, 5, 0.5, 3, "test-secret");
+		Set<String> codes = new HashSet<>();
+
+		for (int i = 0; i < 6; i++) {
+			codes.add(service.generateCode());
+		}
+
+		assertEquals(6, codes.size());
+		verify(sequence, times(2)).nextValues(3);
+	}
+
+	@Test
+	void secretIsRequired() {
+		assertThrows(IllegalArgumentException.class, () -> new CodeGenerationService(sequence, 5, 0.5, 10, " "));
+	}
+
+	@Test
+	void schemaIsPreparedAtStartupRatherThanOnAllocation() {
+		when(sequence.nextValues(anyInt())).thenReturn(List.of(0L));
+		CodeGenerationService service = new CodeGenerationService(sequence, 5, 0.5, 1, "test-secret");
+
+		service.afterSingletonsInstantiated();
+		service.generateCode();
+
+		verify(sequence, times(1)).ensureSchema(CodeGenerationService.MAX_CODE_LENGTH);
+	}
+}
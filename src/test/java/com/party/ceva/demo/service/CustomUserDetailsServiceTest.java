@@ -0,0 +1,78 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.party.ceva.demo.model.User;
+import com.party.ceva.demo.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+	private static final String EMAIL = "member@example.com";
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Test
+	void freshlyLoadedPrincipalDoesNotNeedAnotherVersionCheck() {
+		CustomUserDetailsService service = new CustomUserDetailsService(userRepository,
+				new UserPrincipalCache(300_000, 10), 60_000);
+		when(userRepository.findWithRolesByEmail(EMAIL)).thenReturn(Optional.of(user("old-hash", 1)));
+
+		service.loadUserByUsername(EMAIL);
+		service.loadUserByUsername(EMAIL);
+
+		verify(userRepository, times(1)).findWithRolesByEmail(EMAIL);
+		verify(userRepository, never()).findAuthVersionByEmail(EMAIL);
+	}
+
+	@Test
+	void principalCachedBeforeAChangeOnAnotherNodeIsReloaded() {
+		// Every call re-reads the auth version, standing in for an expired staleness window
+		CustomUserDetailsService service = new CustomUserDetailsService(userRepository,
+				new UserPrincipalCache(300_000, 10), -1);
+		when(userRepository.findWithRolesByEmail(EMAIL)).thenReturn(Optional.of(user("old-hash", 1)));
+		assertEquals("old-hash", service.loadUserByUsername(EMAIL).getPassword());
+
+		// The password changed elsewhere, bumping the auth version; this node's cache was not told
+		when(userRepository.findWithRolesByEmail(EMAIL)).thenReturn(Optional.of(user("new-hash", 2)));
+		when(userRepository.findAuthVersionByEmail(EMAIL)).thenReturn(Optional.of(2L));
+		UserDetails reloaded = service.loadUserByUsername(EMAIL);
+
+		assertEquals("new-hash", reloaded.getPassword());
+		assertEquals(2, ((AuthenticatedUser) reloaded).getAuthVersion());
+	}
+
+	@Test
+	void evictUserDropsTheCachedPrincipal() {
+		UserPrincipalCache cache = new UserPrincipalCache(300_000, 10);
+		CustomUserDetailsService service = new CustomUserDetailsService(userRepository, cache, 60_000);
+		when(userRepository.findWithRolesByEmail(EMAIL)).thenReturn(Optional.of(user("old-hash", 1)));
+		service.loadUserByUsername(EMAIL);
+
+		service.evictUser(EMAIL);
+
+		assertEquals(Optional.empty(), cache.peek(EMAIL));
+	}
+
+	private static User user(String passwordHash, long authVersion) {
+		User user = new User();
+		user.setId(7L);
+		user.setEmail(EMAIL);
+		user.setPassword(passwordHash);
+		user.setAuthVersion(authVersion);
+		return user;
+	}
+}
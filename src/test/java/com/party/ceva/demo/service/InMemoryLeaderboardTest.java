@@ -0,0 +1,78 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class InMemoryLeaderboardTest {
+
+	private final InMemoryLeaderboard leaderboard = new InMemoryLeaderboard();
+
+	@Test
+	void ranksByScoreThenUserId() {
+		leaderboard.increment(1L, 50);
+		leaderboard.increment(2L, 80);
+		leaderboard.increment(3L, 50);
+		leaderboard.increment(1L, 40);
+
+		assertEquals(List.of(new Leaderboard.Entry(1, 1L, 90), new Leaderboard.Entry(2, 2L, 80),
+				new Leaderboard.Entry(3, 3L, 50)), leaderboard.top(10));
+		assertEquals(new Leaderboard.Entry(3, 3L, 50), leaderboard.entryOf(3L).orElseThrow());
+		assertTrue(leaderboard.entryOf(99L).isEmpty());
+	}
+
+	@Test
+	void aroundIsClippedAtTheTop() {
+		for (long userId = 1; userId <= 10; userId++) {
+			leaderboard.increment(userId, userId * 10);
+		}
+
+		List<Leaderboard.Entry> nearTop = leaderboard.around(9L, 2);
+		List<Leaderboard.Entry> middle = leaderboard.around(5L, 1);
+
+		assertEquals(List.of(10L, 9L, 8L, 7L), nearTop.stream().map(Leaderboard.Entry::userId).toList());
+		assertEquals(List.of(5L, 6L, 7L), middle.stream().map(Leaderboard.Entry::rank).toList());
+		assertEquals(List.of(6L, 5L, 4L), middle.stream().map(Leaderboard.Entry::userId).toList());
+	}
+
+	@Test
+	void matchesASortedListUnderRandomUpdates() {
+		Random random = new Random(42);
+		Map<Long, Long> scores = new HashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			long userId = random.nextInt(300);
+			long xp = 1 + random.nextInt(500);
+			leaderboard.increment(userId, xp);
+			scores.merge(userId, xp, Long::sum);
+		}
+
+		List<Map.Entry<Long, Long>> expected = new ArrayList<>(scores.entrySet());
+		expected.sort(Comparator.<Map.Entry<Long, Long>>comparingLong(Map.Entry::getValue).reversed()
+				.thenComparing(Map.Entry::getKey));
+		List<Leaderboard.Entry> actual = leaderboard.top(expected.size());
+
+		assertEquals(expected.size(), leaderboard.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getKey(), actual.get(i).userId());
+			assertEquals(i + 1, leaderboard.entryOf(expected.get(i).getKey()).orElseThrow().rank());
+		}
+	}
+
+	@Test
+	void rebuildReplacesEveryScore() {
+		leaderboard.increment(1L, 500);
+
+		leaderboard.rebuild(Map.of(2L, 10L, 3L, 20L));
+
+		assertEquals(List.of(3L, 2L), leaderboard.top(5).stream().map(Leaderboard.Entry::userId).toList());
+		assertTrue(leaderboard.entryOf(1L).isEmpty());
+	}
+}
@@ -0,0 +1,34 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.party.ceva.demo.service.LoginRateLimiter.BucketSpec;
+
+class InMemoryLoginRateLimiterTest {
+
+	private final InMemoryLoginRateLimiter rateLimiter = new InMemoryLoginRateLimiter(4, 64);
+
+	@Test
+	void allowsBurstUpToCapacityThenReportsWait() {
+		BucketSpec spec = new BucketSpec(3, 1);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, rateLimiter.tryAcquire("login-ip:10.0.0.1", spec));
+		}
+		long waitMs = rateLimiter.tryAcquire("login-ip:10.0.0.1", spec);
+
+		assertTrue(waitMs > 0 && waitMs <= 60_000, "wait was " + waitMs);
+	}
+
+	@Test
+	void bucketsAreIndependentPerKey() {
+		BucketSpec spec = new BucketSpec(1, 1);
+
+		assertEquals(0, rateLimiter.tryAcquire("login-email:a@example.com", spec));
+		assertTrue(rateLimiter.tryAcquire("login-email:a@example.com", spec) > 0);
+		assertEquals(0, rateLimiter.tryAcquire("login-email:b@example.com", spec));
+	}
+}
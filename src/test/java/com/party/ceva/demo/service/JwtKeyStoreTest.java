@@ -0,0 +1,80 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JwtKeyStoreTest {
+
+	@TempDir
+	Path keyDirectory;
+
+	@Test
+	void nodesSharingKeyDirectorySeeEachOthersRotation() {
+		JwtKeyStore first = new JwtKeyStore(keyDirectory.toString(), 0, 60_000);
+		JwtKeyStore second = new JwtKeyStore(keyDirectory.toString(), 0, 60_000);
+		assertEquals(first.activeKey().kid(), second.activeKey().kid());
+
+		String rotatedKid = first.rotate();
+
+		assertTrue(second.verificationKey(rotatedKid).isPresent());
+		assertEquals(rotatedKid, second.activeKey().kid());
+	}
+
+	@Test
+	void unknownKidsRescanTheDirectoryAtMostOncePerInterval() {
+		JwtKeyStore first = new JwtKeyStore("ES256", keyDirectory.toString(), 0, 60_000, 60_000, 60_000);
+		JwtKeyStore second = new JwtKeyStore("ES256", keyDirectory.toString(), 0, 60_000, 60_000, 60_000);
+		assertFalse(second.verificationKey("forged").isPresent());
+
+		String rotatedKid = first.rotate();
+
+		// The forged kid used up this interval's rescan, so only the scheduled reload picks up the rotation
+		assertFalse(second.verificationKey(rotatedKid).isPresent());
+		second.scheduledMaintenance();
+		assertTrue(second.verificationKey(rotatedKid).isPresent());
+	}
+
+	@Test
+	void publishedJwksContainsOnlyPublicKeyMaterial() {
+		JwtKeyStore keyStore = new JwtKeyStore(keyDirectory.toString(), 0, 60_000);
+
+		@SuppressWarnings("unchecked")
+		Map<String, Object> jwk = ((List<Map<String, Object>>) keyStore.publicJwkSet().get("keys")).get(0);
+
+		assertEquals(keyStore.activeKey().kid(), jwk.get("kid"));
+		assertEquals("ES256", jwk.get("alg"));
+		assertFalse(jwk.containsKey("d"));
+	}
+
+	@Test
+	void hs256ModeCreatesAndPublishesNoKeys() {
+		JwtKeyStore keyStore = new JwtKeyStore("HS256", keyDirectory.toString(), 0, 60_000, 5_000, 30_000);
+
+		assertFalse(keyStore.isEnabled());
+		assertEquals(List.of(), keyStore.publicJwkSet().get("keys"));
+		assertThrows(IllegalStateException.class, keyStore::rotate);
+		assertEquals(0, keyDirectory.toFile().list().length);
+	}
+
+	@Test
+	void retiredKeyIsDroppedOnceItsTokensHaveExpired() throws InterruptedException {
+		JwtKeyStore keyStore = new JwtKeyStore(keyDirectory.toString(), 0, 1);
+		String oldKid = keyStore.activeKey().kid();
+		keyStore.rotate();
+		// Successive keys are at least one second apart, so wait past the successor's issue time
+		Thread.sleep(1_100);
+
+		keyStore.scheduledMaintenance();
+
+		assertFalse(keyStore.verificationKey(oldKid).isPresent());
+	}
+}
@@ -0,0 +1,139 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
+class JwtServiceTest {
+
+	private final JwtService jwtService = new JwtService("test-secret", 60_000, 100);
+
+	@TempDir
+	Path keyDirectory;
+
+	@Test
+	void verifyTokenReturnsCachedClaimsForRepeatedToken() {
+		String token = jwtService.generateTokenFromUsername("user@example.com");
+
+		Claims first = jwtService.verifyToken(token);
+		Claims second = jwtService.verifyToken(token);
+
+		assertEquals("user@example.com", first.getSubject());
+		assertSame(first, second);
+	}
+
+	@Test
+	void verifyTokenRejectsTamperedToken() {
+		String token = jwtService.generateTokenFromUsername("user@example.com");
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+		assertThrows(JwtException.class, () -> jwtService.verifyToken(tampered));
+	}
+
+	@Test
+	void verifyTokenRejectsExpiredToken() {
+		JwtService expiringService = new JwtService("test-secret", -1_000, 100);
+		String token = expiringService.generateTokenFromUsername("user@example.com");
+
+		assertThrows(JwtException.class, () -> expiringService.verifyToken(token));
+	}
+
+	@Test
+	void isTokenValidComparesSubjectWithUserDetails() {
+		String token = jwtService.generateTokenFromUsername("user@example.com");
+		UserDetails owner = new User("user@example.com", "", List.of());
+		UserDetails other = new User("other@example.com", "", List.of());
+
+		assertTrue(jwtService.isTokenValid(token, owner));
+		assertFalse(jwtService.isTokenValid(token, other));
+	}
+
+	@Test
+	void principalFromClaimsRestoresIdentityEmbeddedAtLogin() {
+		AuthenticatedUser loggedIn = new AuthenticatedUser(7L, "admin@example.com", "hash", 3,
+				List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+		String token = jwtService.generateToken(
+				new UsernamePasswordAuthenticationToken(loggedIn, null, loggedIn.getAuthorities()));
+
+		AuthenticatedUser restored = jwtService.principalFromClaims(jwtService.verifyToken(token)).orElseThrow();
+
+		assertEquals(7L, restored.getId());
+		assertEquals("admin@example.com", restored.getUsername());
+		assertEquals(3, restored.getAuthVersion());
+		assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), List.copyOf(restored.getAuthorities()));
+	}
+
+	@Test
+	void principalFromClaimsIsEmptyForTokensWithoutIdentityClaims() {
+		String token = jwtService.generateTokenFromUsername("user@example.com");
+
+		assertTrue(jwtService.principalFromClaims(jwtService.verifyToken(token)).isEmpty());
+	}
+
+	@Test
+	void claimsCacheStaysBounded() {
+		JwtService smallCacheService = new JwtService("test-secret", 60_000, 2);
+		for (int i = 0; i < 10; i++) {
+			String token = smallCacheService.generateTokenFromUsername("user" + i + "@example.com");
+			assertEquals("user" + i + "@example.com", smallCacheService.verifyToken(token).getSubject());
+		}
+	}
+
+	@Test
+	void es256TokensStayValidAcrossKeyRotation() {
+		JwtKeyStore keyStore = new JwtKeyStore(keyDirectory.toString(), 0, 60_000);
+		JwtService es256Service = new JwtService("test-secret", 60_000, 0, "ES256", keyStore);
+		String beforeRotation = es256Service.generateTokenFromUsername("user@example.com");
+		String oldKid = keyStore.activeKey().kid();
+
+		String newKid = keyStore.rotate();
+		String afterRotation = es256Service.generateTokenFromUsername("user@example.com");
+
+		assertNotEquals(oldKid, newKid);
+		assertEquals("user@example.com", es256Service.verifyToken(beforeRotation).getSubject());
+		assertEquals("user@example.com", es256Service.verifyToken(afterRotation).getSubject());
+		assertEquals(2, ((List<?>) keyStore.publicJwkSet().get("keys")).size());
+	}
+
+	@Test
+	void es256ServiceStillAcceptsLegacyHs256Tokens() {
+		JwtService es256Service = new JwtService("test-secret", 60_000, 0, "ES256",
+				new JwtKeyStore(keyDirectory.toString(), 0, 60_000));
+		String legacyToken = jwtService.generateTokenFromUsername("user@example.com");
+
+		assertEquals("user@example.com", es256Service.verifyToken(legacyToken).getSubject());
+	}
+
+	@Test
+	void es256WithoutKeyDirectoryIsRefused() {
+		assertThrows(IllegalStateException.class,
+				() -> new JwtService("test-secret", 60_000, 0, "ES256", new JwtKeyStore("", 0, 60_000)));
+	}
+
+	@Test
+	void es256TokenFromUnknownKeyIsRejected() {
+		JwtService issuer = new JwtService("test-secret", 60_000, 0, "ES256",
+				new JwtKeyStore(keyDirectory.resolve("issuer").toString(), 0, 60_000));
+		JwtService verifier = new JwtService("test-secret", 60_000, 0, "ES256",
+				new JwtKeyStore(keyDirectory.resolve("verifier").toString(), 0, 60_000));
+		String token = issuer.generateTokenFromUsername("user@example.com");
+
+		assertThrows(JwtException.class, () -> verifier.verifyToken(token));
+	}
+}
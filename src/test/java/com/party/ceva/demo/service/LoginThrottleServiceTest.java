@@ -0,0 +1,19 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LoginThrottleServiceTest {
+
+	private final InMemoryLoginRateLimiter rateLimiter = new InMemoryLoginRateLimiter(4, 64);
+
+	@Test
+	void bucketsThatNeverRefillAreRejectedAtStartup() {
+		IllegalStateException ex = assertThrows(IllegalStateException.class,
+				() -> new LoginThrottleService(rateLimiter, true, 20, 20, 5, 0, 5, 2));
+
+		assertTrue(ex.getMessage().contains("app.auth.throttle.login-per-email"));
+	}
+}
@@ -0,0 +1,188 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.party.ceva.demo.event.DomainEventHandler;
+import com.party.ceva.demo.event.EventJoined;
+import com.party.ceva.demo.model.OutboxEvent;
+import com.party.ceva.demo.repository.OutboxEventRepository;
+import com.party.ceva.demo.repository.OutboxReceiptRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+// Each dispatch step commits on its own, as it does in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxDispatcherTest {
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private OutboxReceiptRepository outboxReceiptRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	// Required by the CommandLineRunner beans declared on the application class
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+	private final List<EventJoined> handled = new ArrayList<>();
+	private OutboxService outboxService;
+	private TransactionTemplate transactionTemplate;
+	private boolean failHandler;
+
+	@BeforeEach
+	void setUp() {
+		outboxReceiptRepository.deleteAll();
+		outboxEventRepository.deleteAll();
+		outboxService = new OutboxService(outboxEventRepository, jsonMapper);
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Test
+	void dispatchDeliversEventsOnceAndMarksThemProcessed() {
+		publish(new EventJoined(1L, 7L));
+		publish(new EventJoined(2L, 7L));
+		OutboxDispatcher dispatcher = dispatcher(10);
+
+		assertEquals(2, dispatcher.dispatchBatch());
+		assertEquals(0, dispatcher.dispatchBatch());
+
+		assertEquals(List.of(new EventJoined(1L, 7L), new EventJoined(2L, 7L)), handled);
+		outboxEventRepository.findAll().forEach(row -> {
+			assertEquals(OutboxEvent.Status.PROCESSED, row.getStatus());
+			assertNotNull(row.getProcessedAt());
+		});
+	}
+
+	@Test
+	void redeliveredEventIsNotHandledAgain() {
+		publish(new EventJoined(1L, 7L));
+		OutboxDispatcher dispatcher = dispatcher(10);
+		dispatcher.dispatchBatch();
+
+		// Simulates a dispatcher that crashed after the handler committed but before the event was marked
+		OutboxEvent row = outboxEventRepository.findAll().get(0);
+		row.setStatus(OutboxEvent.Status.PENDING);
+		outboxEventRepository.save(row);
+
+		assertEquals(1, dispatcher.dispatchBatch());
+		assertEquals(1, handled.size());
+		assertEquals(1, outboxReceiptRepository.count());
+	}
+
+	@Test
+	void failingHandlerIsRetriedUntilAttemptsRunOut() {
+		publish(new EventJoined(1L, 7L));
+		failHandler = true;
+		OutboxDispatcher dispatcher = dispatcher(2);
+
+		dispatcher.dispatchBatch();
+		OutboxEvent afterFirstFailure = outboxEventRepository.findAll().get(0);
+		assertEquals(OutboxEvent.Status.PENDING, afterFirstFailure.getStatus());
+		assertEquals(1, afterFirstFailure.getAttempts());
+		assertTrue(afterFirstFailure.getLastError().contains("handler down"));
+
+		dispatcher.dispatchBatch();
+		OutboxEvent afterSecondFailure = outboxEventRepository.findAll().get(0);
+		assertEquals(OutboxEvent.Status.FAILED, afterSecondFailure.getStatus());
+		assertEquals(2, afterSecondFailure.getAttempts());
+		assertEquals(0, outboxReceiptRepository.count());
+	}
+
+	@Test
+	void processedEventsPastTheRetentionArePurgedWithTheirReceipts() {
+		for (long userId = 1; userId <= 3; userId++) {
+			publish(new EventJoined(userId, 7L));
+		}
+		dispatcher(10).dispatchBatch();
+		List<OutboxEvent> rows = outboxEventRepository.findAll(Sort.by("id"));
+		LocalDateTime longAgo = LocalDateTime.now().minusDays(30);
+		rows.get(0).setProcessedAt(longAgo);
+		rows.get(1).setProcessedAt(longAgo);
+		rows.get(1).setStatus(OutboxEvent.Status.FAILED);
+		outboxEventRepository.saveAll(rows);
+
+		OutboxPurger purger = new OutboxPurger(outboxEventRepository, outboxReceiptRepository, transactionManager,
+				Duration.ofDays(7), 1);
+		assertEquals(1, purger.purgeProcessedBefore(LocalDateTime.now().minusDays(7)));
+
+		assertEquals(List.of(rows.get(1).getId(), rows.get(2).getId()),
+				outboxEventRepository.findAll(Sort.by("id")).stream().map(OutboxEvent::getId).toList());
+		assertEquals(2, outboxReceiptRepository.count());
+	}
+
+	@Test
+	void backoffDoublesUpToTheCap() {
+		OutboxDispatcher dispatcher = new OutboxDispatcher(outboxEventRepository, outboxReceiptRepository, jsonMapper,
+				transactionManager, List.of(), 10, 1, 5, 1000, 5000);
+
+		assertEquals(1000, dispatcher.backoffMs(1));
+		assertEquals(2000, dispatcher.backoffMs(2));
+		assertEquals(4000, dispatcher.backoffMs(3));
+		assertEquals(5000, dispatcher.backoffMs(4));
+	}
+
+	private void publish(EventJoined event) {
+		transactionTemplate.executeWithoutResult(status -> outboxService.publish(event));
+	}
+
+	private OutboxDispatcher dispatcher(int maxAttempts) {
+		DomainEventHandler<EventJoined> handler = new DomainEventHandler<>() {
+			@Override
+			public String name() {
+				return "test-recorder";
+			}
+
+			@Override
+			public Class<EventJoined> eventType() {
+				return EventJoined.class;
+			}
+
+			@Override
+			public void handle(EventJoined event) {
+				if (failHandler) {
+					throw new IllegalStateException("handler down");
+				}
+				handled.add(event);
+			}
+		};
+		// Zero backoff keeps failed events due immediately
+		return new OutboxDispatcher(outboxEventRepository, outboxReceiptRepository, jsonMapper, transactionManager,
+				List.of(handler), 10, 1, maxAttempts, 0, 0);
+	}
+
+	@TestConfiguration
+	static class CacheTestConfig {
+		@Bean
+		CacheManager cacheManager() {
+			return new NoOpCacheManager();
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.party.ceva.demo.dto.CursorPage;
+
+class PageCursorsTest {
+
+	@Test
+	void positionCursorRoundTrips() {
+		LocalDateTime endTime = LocalDateTime.of(2026, 5, 1, 18, 30, 15, 123_000_000);
+
+		PageCursors.Position position = PageCursors.decodePosition(PageCursors.encode(endTime, 42));
+
+		assertEquals(endTime, position.sortKey());
+		assertEquals(42, position.id());
+		assertEquals(7, PageCursors.decodeId(PageCursors.encode(7)));
+	}
+
+	@Test
+	void malformedCursorIsRejectedAsBadRequest() {
+		assertThrows(ResponseStatusException.class, () -> PageCursors.decodePosition("not a cursor!"));
+		assertThrows(ResponseStatusException.class, () -> PageCursors.decodeId(PageCursors.encode(LocalDateTime.now(), 1)));
+	}
+
+	@Test
+	void cursorPageUsesExtraRowOnlyToSignalNextPage() {
+		CursorPage<String> page = CursorPage.of(List.of(1L, 2L, 3L), 2, id -> "item-" + id, PageCursors::encode);
+
+		assertEquals(List.of("item-1", "item-2"), page.getContent());
+		assertTrue(page.isHasNext());
+		assertEquals(2, PageCursors.decodeId(page.getNextCursor()));
+
+		CursorPage<String> lastPage = CursorPage.of(List.of(3L), 2, id -> "item-" + id, PageCursors::encode);
+		assertFalse(lastPage.isHasNext());
+		assertNull(lastPage.getNextCursor());
+	}
+}
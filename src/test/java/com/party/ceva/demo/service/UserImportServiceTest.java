@@ -0,0 +1,95 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.party.ceva.demo.repository.UserImportRepository;
+import com.party.ceva.demo.repository.UserImportRepository.NewUser;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class UserImportServiceTest {
+
+	private final UserImportRepository userImportRepository = mock(UserImportRepository.class);
+	private final CodeGenerationService codeGenerationService = mock(CodeGenerationService.class);
+	private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+	private final UserImportService userImportService = new UserImportService(userImportRepository,
+			codeGenerationService, passwordEncoder, new ConcurrentMapCacheManager("usersByEmail"),
+			JsonMapper.builder().build(), mock(PlatformTransactionManager.class), 2, 2);
+
+	@Test
+	void csvImportInsertsValidRowsAndReportsRowErrors() throws Exception {
+		when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hash-" + invocation.getArgument(0));
+		when(userImportRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@example.com"));
+		when(codeGenerationService.generateCodes(anyInt()))
+				.thenAnswer(invocation -> List.of("CODE1", "CODE2", "CODE3").subList(0, invocation.getArgument(0)));
+		String csv = """
+				email,password,first_name,last_name,sex
+				ana@example.com,secret1,Ana,Pop,f
+				taken@example.com,secret2,Ion,Pop,M
+				"ana@example.com",secret3,Ana,Dup,F
+				dan@example.com,secret4,"Dan, Jr",Ionescu,
+				""";
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		userImportService.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+				UserImportService.Format.CSV, output);
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<NewUser>> batches = ArgumentCaptor.forClass(List.class);
+		verify(userImportRepository, times(2)).insertBatch(batches.capture());
+		List<NewUser> inserted = batches.getAllValues().stream().flatMap(List::stream).toList();
+		assertEquals(List.of("ana@example.com", "dan@example.com"), inserted.stream().map(NewUser::email).toList());
+		assertEquals("hash-secret1", inserted.get(0).passwordHash());
+		assertEquals('F', inserted.get(0).sex());
+		assertEquals("Dan, Jr", inserted.get(1).firstName());
+		assertEquals('O', inserted.get(1).sex());
+
+		List<String> events = output.toString(StandardCharsets.UTF_8).lines().toList();
+		assertTrue(events.contains(
+				"{\"type\":\"error\",\"line\":3,\"email\":\"taken@example.com\",\"message\":\"User with this email already exists\"}"));
+		assertTrue(events.contains(
+				"{\"type\":\"error\",\"line\":4,\"email\":\"ana@example.com\",\"message\":\"Duplicate email in import file\"}"));
+		assertTrue(events.get(events.size() - 1)
+				.startsWith("{\"type\":\"done\",\"processed\":4,\"imported\":2,\"failed\":2"));
+	}
+
+	@Test
+	void ndjsonImportReportsMalformedLinesWithoutInserting() throws Exception {
+		when(userImportRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+		String ndjson = """
+				{"email":"x@example.com","password":"p","firstName":"X"}
+				not json
+				""";
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		userImportService.importUsers(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+				UserImportService.Format.NDJSON, output);
+
+		verify(userImportRepository, never()).insertBatch(any());
+		String events = output.toString(StandardCharsets.UTF_8);
+		assertTrue(events.contains("\"message\":\"Last name is required\""));
+		assertTrue(events.contains("\"line\":2,\"message\":\"Malformed JSON line\""));
+	}
+}
@@ -0,0 +1,78 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class UserPrincipalCacheTest {
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void loadedPrincipalIsServedFromCacheAsACopy() {
+		UserPrincipalCache cache = new UserPrincipalCache(60_000, 10);
+
+		AuthenticatedUser first = cache.get("a@example.com", this::load).orElseThrow();
+		first.eraseCredentials();
+		AuthenticatedUser second = cache.get("a@example.com", this::load).orElseThrow();
+
+		assertEquals(1, loads.get());
+		assertNotSame(first, second);
+		assertEquals("hash-1", second.getPassword());
+		assertEquals(1, cache.stats().getHits());
+		assertEquals(1, cache.stats().getMisses());
+	}
+
+	@Test
+	void evictedPrincipalIsLoadedAgain() {
+		UserPrincipalCache cache = new UserPrincipalCache(60_000, 10);
+		cache.get("a@example.com", this::load);
+
+		cache.evict("a@example.com");
+
+		assertEquals("hash-2", cache.get("a@example.com", this::load).orElseThrow().getPassword());
+		assertEquals(1, cache.stats().getEvictions());
+	}
+
+	@Test
+	void expiredPrincipalIsLoadedAgain() {
+		UserPrincipalCache cache = new UserPrincipalCache(0, 10);
+		cache.get("a@example.com", this::load);
+
+		assertTrue(cache.peek("a@example.com").isEmpty());
+		assertEquals("hash-2", cache.get("a@example.com", this::load).orElseThrow().getPassword());
+	}
+
+	@Test
+	void unknownUsersAreNotCached() {
+		UserPrincipalCache cache = new UserPrincipalCache(60_000, 10);
+
+		assertTrue(cache.get("ghost@example.com", email -> Optional.empty()).isEmpty());
+
+		assertEquals(0, cache.stats().getSize());
+	}
+
+	@Test
+	void fullCacheStillServesLoadsWithoutGrowing() {
+		UserPrincipalCache cache = new UserPrincipalCache(60_000, 1);
+		cache.get("a@example.com", this::load);
+
+		assertTrue(cache.get("b@example.com", this::load).isPresent());
+
+		assertEquals(1, cache.stats().getSize());
+		assertTrue(cache.peek("b@example.com").isEmpty());
+	}
+
+	private Optional<AuthenticatedUser> load(String email) {
+		int version = loads.incrementAndGet();
+		return Optional.of(new AuthenticatedUser(1L, email, "hash-" + version, version,
+				List.of(new SimpleGrantedAuthority("ROLE_MEMBRU"))));
+	}
+}
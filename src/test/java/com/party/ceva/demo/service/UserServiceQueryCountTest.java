@@ -0,0 +1,109 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.party.ceva.demo.dto.CursorPage;
+import com.party.ceva.demo.dto.UserDto;
+import com.party.ceva.demo.model.Level;
+import com.party.ceva.demo.model.User;
+import com.party.ceva.demo.model.UserProfile;
+import com.party.ceva.demo.repository.RoleRepository;
+import com.party.ceva.demo.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class UserServiceQueryCountTest {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	// Required by the CommandLineRunner beans declared on the application class
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	private UserService userService;
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		userService = new UserService(userRepository, mock(RoleRepository.class), passwordEncoder, cacheManager,
+				mock(CodeGenerationService.class), mock(OutboxService.class),
+				mock(CustomUserDetailsService.class), mock(UserPrincipalCache.class));
+		for (int i = 0; i < 12; i++) {
+			User user = new User();
+			user.setEmail("member" + i + "@example.com");
+			user.setPassword("hash");
+			UserProfile profile = new UserProfile();
+			profile.setFirstName("First" + i);
+			profile.setLastName("Last" + i);
+			user.setUserProfile(profile);
+			user.setLevel(new Level());
+			entityManager.persist(user);
+		}
+		entityManager.flush();
+		// Start from an empty persistence context so associations are not served from memory
+		entityManager.clear();
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void findAllUsersLoadsProfilesAndLevelsInTheListingQuery() {
+		Page<UserDto> page = userService.findAllUsers(PageRequest.of(0, 5, Sort.by("id")));
+
+		assertEquals(5, page.getNumberOfElements());
+		page.getContent().forEach(user -> {
+			assertNotNull(user.getUserProfile());
+			assertNotNull(user.getCurrentLevel());
+		});
+		// One select for the rows and one count for the page total, regardless of page size
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void scrollUsersUsesOneStatementPerPage() {
+		CursorPage<UserDto> first = userService.scrollUsers(null, 5);
+		userService.scrollUsers(first.getNextCursor(), 5);
+
+		assertEquals(5, first.getContent().size());
+		first.getContent().forEach(user -> assertNotNull(user.getUserProfile()));
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@TestConfiguration
+	static class CacheConfig {
+		// The application class enables caching, which needs a manager even though this slice has no Redis
+		@Bean
+		CacheManager cacheManager() {
+			return new NoOpCacheManager();
+		}
+	}
+}
@@ -2,10 +2,13 @@ package com.party.ceva.demo.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -13,11 +16,14 @@ import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -29,16 +35,27 @@ import org.springframework.web.server.ResponseStatusException;
 
 import com.party.ceva.demo.dto.UserDto;
 import com.party.ceva.demo.dto.UserProfileDto;
+import com.party.ceva.demo.event.UserRegistered;
+import com.party.ceva.demo.model.Level;
+import com.party.ceva.demo.model.Role;
+import com.party.ceva.demo.model.RoleTypes;
 import com.party.ceva.demo.model.User;
 import com.party.ceva.demo.model.UserProfile;
+import com.party.ceva.demo.repository.RoleRepository;
 import com.party.ceva.demo.repository.UserRepository;
 
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
 
 	@Mock
 	private UserRepository userRepository;
 
+	@Mock
+	private RoleRepository roleRepository;
+
 	@Mock
 	private PasswordEncoder passwordEncoder;
 
@@ -55,7 +72,13 @@ class UserServiceTest {
 	private CodeGenerationService codeGenerationService;
 
 	@Mock
-	private LevelingSystemService levelingSystemService;
+	private OutboxService outboxService;
+
+	@Mock
+	private CustomUserDetailsService userDetailsService;
+
+	@Mock
+	private UserPrincipalCache userPrincipalCache;
 
 	@InjectMocks
 	private UserService userService;
@@ -66,6 +89,69 @@ class UserServiceTest {
 		lenient().when(cacheManager.getCache("usersByEmail")).thenReturn(usersByEmailCache);
 	}
 
+	@Test
+	void updateRolesBumpsAuthVersionAndEvictsPrincipal() {
+		User user = new User();
+		user.setId(1L);
+		user.setEmail("user@example.com");
+		user.setAuthVersion(4);
+		Role member = new Role();
+		member.setRole(RoleTypes.MEMBRU);
+		when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+		when(roleRepository.findByUserId(1L)).thenReturn(List.of(member));
+
+		Set<RoleTypes> roles = userService.updateRoles(1L, Set.of(RoleTypes.ADMIN));
+
+		assertEquals(Set.of(RoleTypes.ADMIN), roles);
+		assertEquals(5, user.getAuthVersion());
+		verify(roleRepository).deleteAll(List.of(member));
+		ArgumentCaptor<Iterable<Role>> added = ArgumentCaptor.captor();
+		verify(roleRepository).saveAll(added.capture());
+		Role admin = added.getValue().iterator().next();
+		assertEquals(RoleTypes.ADMIN, admin.getRole());
+		assertSame(user, admin.getUser());
+		verify(userRepository).save(user);
+		verify(userDetailsService).evictUser("user@example.com");
+	}
+
+	@Test
+	void updateRolesWithoutChangesKeepsAuthVersion() {
+		User user = new User();
+		user.setId(1L);
+		user.setEmail("user@example.com");
+		user.setAuthVersion(4);
+		Role member = new Role();
+		member.setRole(RoleTypes.MEMBRU);
+		when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+		when(roleRepository.findByUserId(1L)).thenReturn(List.of(member));
+
+		userService.updateRoles(1L, Set.of(RoleTypes.MEMBRU));
+
+		assertEquals(4, user.getAuthVersion());
+		verify(userRepository, never()).save(any(User.class));
+		verify(userDetailsService, never()).evictUser(anyString());
+	}
+
+	@Test
+	void updateUserWithNewPasswordBumpsAuthVersionAndEvictsPrincipal() {
+		User user = new User();
+		user.setId(1L);
+		user.setEmail("user@example.com");
+		user.setAuthVersion(2);
+		when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+		when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(passwordEncoder.encode("new-secret")).thenReturn("new-hash");
+		UserDto update = new UserDto();
+		update.setEmail("user@example.com");
+		update.setPassword("new-secret");
+
+		userService.updateUser(1L, update);
+
+		assertEquals(3, user.getAuthVersion());
+		assertEquals("new-hash", user.getPassword());
+		verify(userDetailsService, atLeastOnce()).evictUser("user@example.com");
+	}
+
 	@Test
 	void updateUserProfileUpdatesOwnProfile() {
 		User user = new User();
@@ -176,6 +262,80 @@ class UserServiceTest {
 		verify(userRepository, never()).save(any(User.class));
 	}
 
+	@Test
+	void patchUserProfileChangesOnlyProvidedFieldsAndEvictsCache() {
+		User user = new User();
+		user.setId(1L);
+		user.setEmail("user@example.com");
+		UserProfile profile = new UserProfile();
+		profile.setId(10L);
+		profile.setFirstName("John");
+		profile.setBio("Old bio");
+		profile.setSex('M');
+		user.setUserProfile(profile);
+
+		when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+		when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		ObjectNode patch = JsonMapper.builder().build().createObjectNode();
+		patch.put("bio", "New bio");
+		patch.put("firstName", "John");
+		patch.putNull("address");
+		UserDto result = userService.patchUserProfile(1L, patch, "user@example.com");
+
+		assertEquals("New bio", result.getUserProfile().getBio());
+		assertEquals("John", result.getUserProfile().getFirstName());
+		assertEquals(Character.valueOf('M'), result.getUserProfile().getSex());
+		assertNotNull(result.getUserProfile().getUpdatedAt());
+		verify(userRepository).save(user);
+		verify(usersByIdCache).evict(1L);
+		verify(usersByEmailCache).evict("user@example.com");
+		verify(usersByIdCache, never()).put(any(), any());
+	}
+
+	@Test
+	void patchUserProfileSkipsWriteWhenNothingChanges() {
+		User user = new User();
+		user.setId(1L);
+		user.setEmail("user@example.com");
+		UserProfile profile = new UserProfile();
+		profile.setId(10L);
+		profile.setBio("Same");
+		user.setUserProfile(profile);
+
+		when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+		ObjectNode patch = JsonMapper.builder().build().createObjectNode();
+		patch.put("bio", "Same");
+		UserDto result = userService.patchUserProfile(1L, patch, "user@example.com");
+
+		assertEquals("Same", result.getUserProfile().getBio());
+		assertEquals(null, profile.getUpdatedAt());
+		verify(userRepository, never()).save(any(User.class));
+		verify(usersByIdCache, never()).evict(any());
+	}
+
+	@Test
+	void patchUserProfileRejectsUnknownAndReadOnlyFields() {
+		User user = new User();
+		user.setId(1L);
+		user.setEmail("user@example.com");
+		user.setUserProfile(new UserProfile());
+		when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+		JsonMapper mapper = JsonMapper.builder().build();
+
+		ObjectNode unknown = mapper.createObjectNode().put("nickname", "x");
+		ObjectNode readOnly = mapper.createObjectNode().put("createdAt", "2020-01-01T00:00:00");
+		ObjectNode badCnp = mapper.createObjectNode().put("cnp", "123");
+
+		for (ObjectNode patch : new ObjectNode[] { unknown, readOnly, badCnp }) {
+			ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+					() -> userService.patchUserProfile(1L, patch, "user@example.com"));
+			assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+		}
+		verify(userRepository, never()).save(any(User.class));
+	}
+
 	@Test
 	void registerUserCreatesUserProfileWithTrimmedNames() {
 		UserDto payload = new UserDto();
@@ -189,7 +349,6 @@ class UserServiceTest {
 
 		when(passwordEncoder.encode("password")).thenReturn("encoded-password");
 		when(codeGenerationService.generateCode()).thenReturn("ABCD");
-		when(userRepository.existsByCode("ABCD")).thenReturn(false);
 		when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
 			User savedUser = invocation.getArgument(0);
 			savedUser.setId(15L);
@@ -205,7 +364,7 @@ class UserServiceTest {
 		assertEquals(Character.valueOf('O'), result.getUserProfile().getSex());
 		assertNotNull(result.getUserProfile().getCreatedAt());
 		assertNotNull(result.getUserProfile().getUpdatedAt());
-		verify(levelingSystemService, never()).addXpToUser(anyLong(), anyInt());
+		verify(outboxService).publish(new UserRegistered(15L, null));
 		verify(userRepository).save(any(User.class));
 	}
 
@@ -268,7 +427,7 @@ class UserServiceTest {
 	}
 
 	@Test
-	void registerUserAwardsReferralXpWhenCodeIsValid() {
+	void registerUserQueuesReferralRewardWhenCodeIsValid() {
 		User referrer = new User();
 		referrer.setId(10L);
 		referrer.setEmail("referrer@example.com");
@@ -286,7 +445,6 @@ class UserServiceTest {
 		when(userRepository.findByCode("AB12")).thenReturn(Optional.of(referrer));
 		when(passwordEncoder.encode("password")).thenReturn("encoded-password");
 		when(codeGenerationService.generateCode()).thenReturn("WXYZ");
-		when(userRepository.existsByCode("WXYZ")).thenReturn(false);
 		when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
 			User savedUser = invocation.getArgument(0);
 			savedUser.setId(25L);
@@ -299,6 +457,40 @@ class UserServiceTest {
 		assertEquals("Ana", result.getUserProfile().getFirstName());
 		assertEquals("Pop", result.getUserProfile().getLastName());
 		verify(userRepository).findByCode("AB12");
-		verify(levelingSystemService).addXpToUser(10L, 1000);
+		verify(outboxService).publish(new UserRegistered(25L, 10L));
+	}
+
+	@Test
+	void loginBuildsPrincipalAndUserFromOneSnapshotAndWarmsCaches() {
+		User user = new User();
+		user.setId(3L);
+		user.setEmail("user@example.com");
+		user.setPassword("hash");
+		user.setLevel(new Level());
+		UserProfile profile = new UserProfile();
+		profile.setFirstName("Ana");
+		user.setUserProfile(profile);
+
+		when(userRepository.findForLoginByEmail("user@example.com")).thenReturn(Optional.of(user));
+		when(passwordEncoder.matches("password", "hash")).thenReturn(true);
+
+		LoginSnapshot snapshot = userService.login("user@example.com", "password").orElseThrow();
+
+		assertEquals(3L, snapshot.principal().getId());
+		assertEquals("Ana", snapshot.user().getUserProfile().getFirstName());
+		assertEquals(Integer.valueOf(1), snapshot.user().getCurrentLevel());
+		verify(userPrincipalCache).put(eq("user@example.com"), any(AuthenticatedUser.class));
+		verify(usersByEmailCache).put("user@example.com", snapshot.user());
+		verify(usersByIdCache).put(3L, snapshot.user());
+		verify(userRepository, never()).findByEmail(anyString());
+	}
+
+	@Test
+	void loginRejectsUnknownEmailAfterDummyPasswordCheck() {
+		when(userRepository.findForLoginByEmail("missing@example.com")).thenReturn(Optional.empty());
+		when(passwordEncoder.encode(anyString())).thenReturn("dummy-hash");
+
+		assertTrue(userService.login("missing@example.com", "password").isEmpty());
+		verify(passwordEncoder).matches("password", "dummy-hash");
 	}
 }
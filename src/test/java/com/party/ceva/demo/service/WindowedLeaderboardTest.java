@@ -0,0 +1,121 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class WindowedLeaderboardTest {
+
+	private final MutableClock clock = new MutableClock(LocalDate.of(2026, 10, 14)); // a Wednesday
+	private final WindowedLeaderboard leaderboard = new WindowedLeaderboard(clock, LocalDate.of(2026, 1, 1), 91);
+
+	@Test
+	void awardsCountTowardsEveryWindow() {
+		leaderboard.record(1L, 50);
+		leaderboard.record(2L, 80);
+		leaderboard.record(1L, 40);
+
+		for (WindowedLeaderboard.Window window : WindowedLeaderboard.Window.values()) {
+			assertEquals(List.of(new Leaderboard.Entry(1, 1L, 90), new Leaderboard.Entry(2, 2L, 80)),
+					leaderboard.top(window, 10));
+		}
+	}
+
+	@Test
+	void weekRollsOverOnMondayWhileLongerWindowsKeepTheirBuckets() {
+		leaderboard.record(1L, 100);
+		clock.set(LocalDate.of(2026, 10, 18)); // Sunday
+		leaderboard.record(2L, 30);
+		clock.set(LocalDate.of(2026, 10, 19)); // Monday
+		leaderboard.record(2L, 10);
+
+		assertEquals(List.of(new Leaderboard.Entry(1, 2L, 10)), leaderboard.top(WindowedLeaderboard.Window.WEEK, 10));
+		assertTrue(leaderboard.entryOf(WindowedLeaderboard.Window.WEEK, 1L).isEmpty());
+		assertEquals(List.of(new Leaderboard.Entry(1, 1L, 100), new Leaderboard.Entry(2, 2L, 40)),
+				leaderboard.top(WindowedLeaderboard.Window.MONTH, 10));
+		assertEquals(LocalDate.of(2026, 10, 19), leaderboard.periodStart(WindowedLeaderboard.Window.WEEK));
+	}
+
+	@Test
+	void seasonsRunBackToBackFromTheAnchor() {
+		leaderboard.record(1L, 100);
+		assertEquals(LocalDate.of(2026, 10, 1), leaderboard.periodStart(WindowedLeaderboard.Window.SEASON));
+
+		clock.set(LocalDate.of(2026, 12, 31));
+		leaderboard.record(2L, 20);
+		assertEquals(List.of(new Leaderboard.Entry(1, 2L, 20)), leaderboard.top(WindowedLeaderboard.Window.SEASON, 10));
+		assertEquals(LocalDate.of(2026, 12, 31), leaderboard.periodStart(WindowedLeaderboard.Window.SEASON));
+	}
+
+	@Test
+	void bucketsFromBeforeTheRingAreNotResurrected() {
+		leaderboard.record(1L, 100);
+		// Exactly one ring length later the same slot is reused for the new day
+		clock.set(LocalDate.of(2026, 10, 14).plusDays(92));
+		leaderboard.record(2L, 5);
+		leaderboard.load(LocalDate.of(2026, 10, 14), 1L, 100);
+
+		assertEquals(List.of(new Leaderboard.Entry(1, 2L, 5)), leaderboard.top(WindowedLeaderboard.Window.SEASON, 10));
+	}
+
+	@Test
+	void loadedHistoryOnlyEntersWindowsThatCoverItsDay() {
+		leaderboard.load(LocalDate.of(2026, 10, 2), 1L, 70);
+		leaderboard.load(LocalDate.of(2026, 10, 13), 2L, 30);
+
+		assertEquals(List.of(new Leaderboard.Entry(1, 2L, 30)), leaderboard.top(WindowedLeaderboard.Window.WEEK, 10));
+		assertEquals(List.of(new Leaderboard.Entry(1, 1L, 70), new Leaderboard.Entry(2, 2L, 30)),
+				leaderboard.top(WindowedLeaderboard.Window.MONTH, 10));
+	}
+
+	@Test
+	void clearedBoardsReloadFromTimestampedAwards() {
+		leaderboard.record(1L, 500);
+		leaderboard.clear();
+		assertTrue(leaderboard.top(WindowedLeaderboard.Window.SEASON, 10).isEmpty());
+
+		// The ring holds 92 days, so its history starts 91 days before today
+		assertEquals(LocalDate.of(2026, 7, 15).atStartOfDay(ZoneOffset.UTC).toInstant(), leaderboard.historyStart());
+		leaderboard.load(LocalDate.of(2026, 10, 12).atTime(23, 59).toInstant(ZoneOffset.UTC), 1L, 40);
+		leaderboard.load(LocalDate.of(2026, 10, 11).atTime(23, 59).toInstant(ZoneOffset.UTC), 2L, 60);
+
+		assertEquals(List.of(new Leaderboard.Entry(1, 1L, 40)), leaderboard.top(WindowedLeaderboard.Window.WEEK, 10));
+		assertEquals(List.of(new Leaderboard.Entry(1, 2L, 60), new Leaderboard.Entry(2, 1L, 40)),
+				leaderboard.top(WindowedLeaderboard.Window.MONTH, 10));
+	}
+
+	private static final class MutableClock extends Clock {
+		private Instant instant;
+
+		MutableClock(LocalDate day) {
+			set(day);
+		}
+
+		void set(LocalDate day) {
+			instant = day.atTime(12, 0).toInstant(ZoneOffset.UTC);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+}
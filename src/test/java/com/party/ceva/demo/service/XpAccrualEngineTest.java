@@ -0,0 +1,231 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.party.ceva.demo.model.Level;
+import com.party.ceva.demo.model.OutboxEvent;
+import com.party.ceva.demo.model.User;
+import com.party.ceva.demo.repository.LevelingRepository;
+import com.party.ceva.demo.repository.OutboxEventRepository;
+import com.party.ceva.demo.repository.UserRepository;
+import com.party.ceva.demo.repository.XpJournalCheckpointRepository;
+import com.party.ceva.demo.repository.XpLedgerRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// PostgreSQL mode for the ledger's "on conflict do nothing" insert
+@DataJpaTest(properties = {
+		"spring.test.database.replace=none",
+		"spring.datasource.url=jdbc:h2:mem:xpaccrual;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+// Flushes commit on their own, as they do in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class XpAccrualEngineTest {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private LevelingRepository levelingRepository;
+
+	@Autowired
+	private XpJournalCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// Required by the CommandLineRunner beans declared on the application class
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	@TempDir
+	Path journalDirectory;
+
+	private Long userId;
+
+	@BeforeEach
+	void setUp() {
+		outboxEventRepository.deleteAll();
+		checkpointRepository.deleteAll();
+		userId = saveUser();
+	}
+
+	@Test
+	void pendingXpIsVisibleBeforeAndPersistedAfterFlush() throws IOException {
+		XpAccrualEngine engine = engine();
+
+		engine.accrue(award(userId, 60));
+		engine.accrue(award(userId, 60));
+		assertEquals(1, persistedLevel().getCurrentLevel());
+		Level merged = engine.readLevel(userId, this::persistedLevel);
+		assertEquals(2, merged.getCurrentLevel());
+		assertEquals(20, merged.getCurrentXP());
+
+		engine.flush();
+
+		Level persisted = persistedLevel();
+		assertEquals(2, persisted.getCurrentLevel());
+		assertEquals(20, persisted.getCurrentXP());
+		assertEquals(persisted.getCurrentXP(), engine.readLevel(userId, this::persistedLevel).getCurrentXP());
+		List<OutboxEvent> events = outboxEventRepository.findAll();
+		assertEquals(1, events.size());
+		assertEquals("XpAwarded", events.get(0).getEventType());
+		engine.close();
+	}
+
+	@Test
+	void unflushedAwardsAreReplayedByTheNextEngine() throws IOException {
+		XpAccrualEngine crashed = engine();
+		crashed.accrue(award(userId, 30));
+		crashed.flush();
+		crashed.accrue(award(userId, 45));
+		// Dropped without close, like a killed process
+
+		XpAccrualEngine restarted = engine();
+		assertEquals(75, restarted.readLevel(userId, this::persistedLevel).getCurrentXP());
+		restarted.flush();
+
+		assertEquals(75, persistedLevel().getCurrentXP());
+		restarted.close();
+	}
+
+	@Test
+	void readsOfOtherUsersDoNotWaitForARunningFlush() throws Exception {
+		Long otherUserId = saveUser();
+		XpAccrualEngine engine = engine();
+		engine.accrue(award(userId, 30));
+		CountDownLatch rowLocked = new CountDownLatch(1);
+		CountDownLatch releaseRow = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			// Holds the level row so the flush transaction stalls on its update
+			Future<?> lockHolder = executor.submit(() -> new TransactionTemplate(transactionManager)
+					.executeWithoutResult(status -> {
+						jdbcTemplate.queryForList("select id from level where id = (select level_id from users "
+								+ "where id = ?) for update", userId);
+						rowLocked.countDown();
+						await(releaseRow);
+					}));
+			await(rowLocked);
+			Future<?> flush = executor.submit(engine::flush);
+			while (!engine.isInFlight(userId)) {
+				Thread.onSpinWait();
+			}
+
+			Level other = CompletableFuture.supplyAsync(() -> engine.readLevel(otherUserId,
+					() -> persistedLevel(otherUserId))).get(5, TimeUnit.SECONDS);
+			assertEquals(0, other.getCurrentXP());
+
+			releaseRow.countDown();
+			lockHolder.get(5, TimeUnit.SECONDS);
+			flush.get(5, TimeUnit.SECONDS);
+			assertEquals(30, persistedLevel().getCurrentXP());
+			assertEquals(30, engine.readLevel(userId, this::persistedLevel).getCurrentXP());
+		} finally {
+			releaseRow.countDown();
+			executor.shutdownNow();
+			engine.close();
+		}
+	}
+
+	@Test
+	void anAwardIsAppliedOncePerIdempotencyKey() throws IOException {
+		XpAccrualEngine engine = engine();
+		XpLedgerRepository.Award award = new XpLedgerRepository.Award("quest-1", userId, 40, "quest", Instant.now());
+		List<XpLedgerRepository.Award> applied = new ArrayList<>();
+		engine.addAppliedListener(applied::addAll);
+
+		assertTrue(engine.accrue(award));
+		assertFalse(engine.accrue(award));
+		engine.flush();
+		// No longer pending here, so only the ledger stops it, as it would for a retry reaching another node
+		assertTrue(engine.accrue(award));
+		engine.flush();
+
+		assertEquals(40, persistedLevel().getCurrentXP());
+		assertEquals(1, jdbcTemplate.queryForObject("select count(*) from xp_ledger where idempotency_key = ?",
+				Integer.class, "quest-1"));
+		assertEquals(List.of(award), applied, "a duplicate the ledger dropped must not reach the leaderboards");
+		engine.close();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Long saveUser() {
+		User user = new User();
+		user.setEmail("xp" + System.nanoTime() + "@example.com");
+		user.setPassword("hash");
+		user.setLevel(new Level());
+		return userRepository.save(user).getId();
+	}
+
+	private XpAccrualEngine engine() {
+		return new XpAccrualEngine(levelingRepository, userRepository, new XpLedgerRepository(jdbcTemplate),
+				new RecentIdempotencyKeys(1000, 0.01), checkpointRepository, new OutboxService(outboxEventRepository, JsonMapper.builder().build()), transactionManager,
+				journalDirectory.toString(), "test");
+	}
+
+	private XpLedgerRepository.Award award(Long userId, long amount) {
+		return new XpLedgerRepository.Award("test-" + System.nanoTime(), userId, amount, null, Instant.now());
+	}
+
+	private Level persistedLevel() {
+		return persistedLevel(userId);
+	}
+
+	private Level persistedLevel(Long id) {
+		return (Level) levelingRepository.findLevelsByUserIds(List.of(id)).get(0)[1];
+	}
+
+	@TestConfiguration
+	static class CacheTestConfig {
+		@Bean
+		CacheManager cacheManager() {
+			return new NoOpCacheManager();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.party.ceva.demo.repository.XpLedgerRepository.Award;
+
+class XpJournalTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void awardsPastTheCheckpointAreReplayedAfterACrash() throws IOException {
+		XpJournal journal = new XpJournal(directory);
+		journal.open(0);
+		Award first = award("a", 1L, 100, "quest");
+		Award second = award("b", 1L, 50, null);
+		Award third = award("c", 2L, 7, "referral of user 9");
+		journal.append(first);
+		long sealed = journal.rotate();
+		journal.append(second);
+		journal.append(third);
+		// No close: the process died here
+
+		XpJournal.Recovery fromScratch = new XpJournal(directory).open(0);
+		assertEquals(List.of(first, second, third), fromScratch.awards());
+
+		XpJournal.Recovery afterCheckpoint = new XpJournal(directory).open(sealed);
+		assertEquals(List.of(second, third), afterCheckpoint.awards());
+	}
+
+	@Test
+	void tornTrailingRecordIsIgnored() throws IOException {
+		XpJournal journal = new XpJournal(directory);
+		journal.open(0);
+		Award award = award("d", 3L, 20, null);
+		journal.append(award);
+		journal.close();
+		Path segment;
+		try (Stream<Path> files = Files.list(directory)) {
+			segment = files.findFirst().orElseThrow();
+		}
+		// A length prefix whose body never made it to disk
+		Files.write(segment, new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+		XpJournal.Recovery recovery = new XpJournal(directory).open(0);
+
+		assertEquals(List.of(award), recovery.awards());
+	}
+
+	@Test
+	void deleteThroughKeepsTheActiveSegment() throws IOException {
+		XpJournal journal = new XpJournal(directory);
+		journal.open(0);
+		journal.append(award("e", 1L, 1, null));
+		long sealed = journal.rotate();
+		Award active = award("f", 1L, 2, null);
+		journal.append(active);
+
+		journal.deleteThrough(sealed);
+
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(1, files.count());
+		}
+		assertTrue(new XpJournal(directory).open(sealed).awards().contains(active));
+	}
+
+	private static Award award(String key, long userId, long amount, String reason) {
+		return new Award(key, userId, amount, reason, Instant.ofEpochMilli(1_700_000_000_000L));
+	}
+}
@@ -0,0 +1,178 @@
+package com.party.ceva.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.party.ceva.demo.dto.XpAwardBatchResult;
+import com.party.ceva.demo.dto.XpAwardRequest;
+import com.party.ceva.demo.model.Level;
+import com.party.ceva.demo.model.User;
+import com.party.ceva.demo.repository.LevelingRepository;
+import com.party.ceva.demo.repository.OutboxEventRepository;
+import com.party.ceva.demo.repository.UserRepository;
+import com.party.ceva.demo.repository.XpLedgerRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+// PostgreSQL mode for the ledger's "on conflict do nothing" insert
+@DataJpaTest(properties = {
+		"spring.test.database.replace=none",
+		"spring.datasource.url=jdbc:h2:mem:xpledger;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+// Batches commit on their own, as they do in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class XpLedgerServiceTest {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private LevelingRepository levelingRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	// Required by the CommandLineRunner beans declared on the application class
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	private final LeaderboardService leaderboardService = mock(LeaderboardService.class);
+	private XpLedgerService service;
+	private Long firstUserId;
+	private Long secondUserId;
+
+	@BeforeEach
+	void setUp() {
+		outboxEventRepository.deleteAll();
+		jdbcTemplate.update("delete from xp_ledger");
+		firstUserId = saveUser();
+		secondUserId = saveUser();
+		service = newService();
+	}
+
+	@Test
+	void appliesEveryAwardOnceWithOneLevelUpdatePerUser() {
+		XpAwardBatchResult result = service.awardBatch(List.of(
+				new XpAwardRequest(firstUserId, 60, "quest", "a-1"),
+				new XpAwardRequest(firstUserId, 60, "quest", "a-2"),
+				new XpAwardRequest(secondUserId, 30, null, "b-1")));
+
+		assertEquals(3, result.getApplied());
+		assertEquals(2, persistedLevel(firstUserId).getCurrentLevel());
+		assertEquals(20, persistedLevel(firstUserId).getCurrentXP());
+		assertEquals(30, persistedLevel(secondUserId).getCurrentXP());
+		assertEquals(3, jdbcTemplate.queryForObject("select count(*) from xp_ledger", Integer.class));
+		assertEquals(2, outboxEventRepository.count());
+		verify(leaderboardService).recordXp(firstUserId, 120);
+		verify(leaderboardService).recordXp(secondUserId, 30);
+	}
+
+	@Test
+	void retriedBatchAppliesNothingTwice() {
+		List<XpAwardRequest> batch = List.of(new XpAwardRequest(firstUserId, 40, "quest", "retry-1"),
+				new XpAwardRequest(firstUserId, 40, "quest", "retry-1"));
+
+		XpAwardBatchResult first = service.awardBatch(batch);
+		XpAwardBatchResult retried = service.awardBatch(batch);
+
+		assertEquals(1, first.getApplied());
+		assertEquals(1, first.getDuplicates());
+		assertEquals(0, retried.getApplied());
+		assertEquals(2, retried.getDuplicates());
+		assertEquals(40, persistedLevel(firstUserId).getCurrentXP());
+		verify(leaderboardService).recordXp(firstUserId, 40);
+		verifyNoMoreInteractions(leaderboardService);
+	}
+
+	@Test
+	void keysCommittedElsewhereAreCaughtByTheLedger() {
+		// A fresh service has an empty recent-keys index, like another node or a restarted one
+		service.awardBatch(List.of(new XpAwardRequest(firstUserId, 40, null, "elsewhere-1")));
+		XpLedgerService otherNode = newService();
+
+		XpAwardBatchResult result = otherNode.awardBatch(List.of(
+				new XpAwardRequest(firstUserId, 40, null, "elsewhere-1")));
+
+		assertEquals(1, result.getDuplicates());
+		assertEquals(40, persistedLevel(firstUserId).getCurrentXP());
+	}
+
+	@Test
+	void invalidAwardsAreRejectedWithoutFailingTheBatch() {
+		XpAwardBatchResult result = service.awardBatch(List.of(
+				new XpAwardRequest(firstUserId, 0, null, "zero"),
+				new XpAwardRequest(firstUserId, 10, null, " "),
+				new XpAwardRequest(Long.MAX_VALUE, 10, null, "ghost"),
+				new XpAwardRequest(firstUserId, 10, null, "valid")));
+
+		assertEquals(1, result.getApplied());
+		assertEquals(3, result.getRejected());
+		assertEquals(XpAwardBatchResult.Status.REJECTED, result.getOutcomes().get(2).status());
+		assertEquals("User not found", result.getOutcomes().get(2).error());
+		assertEquals(10, persistedLevel(firstUserId).getCurrentXP());
+		verify(leaderboardService, never()).recordXp(Long.MAX_VALUE, 10);
+	}
+
+	@Test
+	void oversizedBatchIsRefused() {
+		List<XpAwardRequest> awards = IntStream.range(0, 101)
+				.mapToObj(i -> new XpAwardRequest(firstUserId, 1, null, "k" + i)).toList();
+
+		assertThrows(IllegalArgumentException.class, () -> service.awardBatch(awards));
+	}
+
+	private XpLedgerService newService() {
+		return new XpLedgerService(new XpLedgerRepository(jdbcTemplate), levelingRepository, userRepository,
+				new OutboxService(outboxEventRepository, JsonMapper.builder().build()), leaderboardService,
+				new RecentIdempotencyKeys(1000, 0.01), transactionManager, 100);
+	}
+
+	private Long saveUser() {
+		User user = new User();
+		user.setEmail("ledger" + System.nanoTime() + "@example.com");
+		user.setPassword("hash");
+		user.setLevel(new Level());
+		return userRepository.save(user).getId();
+	}
+
+	private Level persistedLevel(Long userId) {
+		return (Level) levelingRepository.findLevelsByUserIds(List.of(userId)).get(0)[1];
+	}
+
+	@TestConfiguration
+	static class CacheTestConfig {
+		@Bean
+		CacheManager cacheManager() {
+			return new NoOpCacheManager();
+		}
+	}
+}